@@ -0,0 +1,154 @@
+package taskmanager.http;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Общая часть потоковых адаптеров задач
+ * Поля читаются и записываются токенами JsonReader/JsonWriter напрямую, без отражения
+ * и без промежуточного дерева JsonElement. Кроме хранимых полей записывается вычисляемое время
+ * завершения endTime; при чтении оно учитывается только эпиком, у остальных задач вычисляется заново
+ * @param <T> тип задачи
+ */
+abstract class AbstractTaskTypeAdapter<T extends Task> extends TypeAdapter<T> {
+    private static final LocalDateTimeAdapter DATE_TIME_ADAPTER = new LocalDateTimeAdapter();
+    private static final DurationAdapter DURATION_ADAPTER = new DurationAdapter();
+
+    @Override
+    public void write(JsonWriter out, T task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(task.getId());
+        out.name("name").value(task.getName());
+        out.name("description").value(task.getDescription());
+        out.name("status").value(task.getStatus() != null ? task.getStatus().name() : null);
+        out.name("duration");
+        DURATION_ADAPTER.write(out, task.getDuration());
+        out.name("startTime");
+        DATE_TIME_ADAPTER.write(out, task.getStartTime());
+        out.name("endTime");
+        DATE_TIME_ADAPTER.write(out, task.getEndTime());
+        writeOwnFields(out, task);
+        out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Fields fields = new Fields();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    fields.id = in.nextInt();
+                    break;
+                case "name":
+                    fields.name = in.nextString();
+                    break;
+                case "description":
+                    fields.description = in.nextString();
+                    break;
+                case "status":
+                    fields.status = readStatus(in);
+                    break;
+                case "duration":
+                    fields.duration = DURATION_ADAPTER.read(in);
+                    break;
+                case "startTime":
+                    fields.startTime = DATE_TIME_ADAPTER.read(in);
+                    break;
+                case "endTime":
+                    // Нужно только эпику, поэтому разбирается лишь по запросу
+                    fields.endTimeText = in.nextString();
+                    break;
+                case "epicId":
+                    fields.epicId = in.nextInt();
+                    break;
+                case "subtaskIds":
+                    fields.subtaskIds = readIds(in);
+                    break;
+                default:
+                    // Неизвестные поля пропускаются, как и при разборе через отражение
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return create(fields);
+    }
+
+    /**
+     * Записать поля, которые есть только у этого типа задач
+     * @param out поток записи JSON
+     * @param task задача
+     * @throws IOException если произошла ошибка записи
+     */
+    protected void writeOwnFields(JsonWriter out, T task) throws IOException {
+    }
+
+    /**
+     * Создать задачу из прочитанных полей
+     * @param fields прочитанные поля
+     * @return задача
+     */
+    protected abstract T create(Fields fields);
+
+    private static TaskStatus readStatus(JsonReader in) throws IOException {
+        String value = in.nextString();
+        try {
+            return TaskStatus.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException("Неизвестный статус задачи: " + value, e);
+        }
+    }
+
+    private static List<Integer> readIds(JsonReader in) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            ids.add(in.nextInt());
+        }
+        in.endArray();
+        return ids;
+    }
+
+    /**
+     * Поля задачи, прочитанные из JSON; отсутствующие поля остаются со значениями по умолчанию
+     */
+    static class Fields {
+        int id;
+        String name;
+        String description;
+        TaskStatus status;
+        Duration duration;
+        LocalDateTime startTime;
+        String endTimeText;
+        int epicId;
+        List<Integer> subtaskIds = List.of();
+
+        LocalDateTime endTime() {
+            return endTimeText != null ? LocalDateTimeAdapter.parse(endTimeText) : null;
+        }
+    }
+}
@@ -1,25 +1,33 @@
 package taskmanager.http;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.time.Duration;
 
 /**
  * Адаптер для сериализации/десериализации Duration в JSON
+ * Продолжительность записывается числом минут напрямую в поток, без промежуточного дерева JsonElement
  */
-public class DurationAdapter implements JsonSerializer<Duration>, JsonDeserializer<Duration> {
+public class DurationAdapter extends TypeAdapter<Duration> {
     @Override
-    public JsonElement serialize(Duration src, Type typeOfSrc, JsonSerializationContext context) {
-        return src == null ? JsonNull.INSTANCE : new JsonPrimitive(src.toMinutes());
+    public void write(JsonWriter out, Duration value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(value.toMinutes());
+        }
     }
 
     @Override
-    public Duration deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
-        if (json.isJsonNull()) {
+    public Duration read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
             return null;
         }
-        return Duration.ofMinutes(json.getAsLong());
+        return Duration.ofMinutes(in.nextLong());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package taskmanager.http;
+
+import com.google.gson.stream.JsonWriter;
+import taskmanager.model.Epic;
+
+import java.io.IOException;
+
+/**
+ * Потоковый адаптер для сериализации/десериализации эпика в JSON
+ * Дополнительно к полям задачи записывает идентификаторы подзадач; время завершения эпика
+ * не вычисляется из продолжительности, поэтому при чтении восстанавливается из поля endTime
+ */
+public class EpicTypeAdapter extends AbstractTaskTypeAdapter<Epic> {
+    @Override
+    protected void writeOwnFields(JsonWriter out, Epic epic) throws IOException {
+        out.name("subtaskIds").beginArray();
+        for (int subtaskId : epic.getSubtaskIds()) {
+            out.value(subtaskId);
+        }
+        out.endArray();
+    }
+
+    @Override
+    protected Epic create(Fields fields) {
+        Epic epic = new Epic(fields.name, fields.description, fields.id, fields.status);
+        epic.setDuration(fields.duration);
+        epic.setStartTime(fields.startTime);
+        epic.setEndTime(fields.endTime());
+        for (int subtaskId : fields.subtaskIds) {
+            epic.addSubtaskId(subtaskId);
+        }
+        return epic;
+    }
+}
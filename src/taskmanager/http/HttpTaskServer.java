@@ -4,41 +4,70 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpServer;
 import taskmanager.http.handler.*;
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
 import taskmanager.service.Managers;
 import taskmanager.service.TaskManager;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP-сервер для работы с задачами
  * Обрабатывает запросы к API для управления задачами, подзадачами и эпиками
  */
 public class HttpTaskServer {
-    private static final int PORT = 8080;
+    // Время ожидания завершения обрабатываемых запросов при остановке, в секундах
+    private static final int STOP_TIMEOUT_SECONDS = 5;
     private final HttpServer server;
     private final TaskManager taskManager;
+    private final ServerConfig config;
+    // Пул потоков обработчиков, null в режиме DISPATCHER
+    private final ExecutorService executor;
     private static final Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
             .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(Task.class, new TaskTypeAdapter())
+            .registerTypeAdapter(Subtask.class, new SubtaskTypeAdapter())
+            .registerTypeAdapter(Epic.class, new EpicTypeAdapter())
             .create();
 
     /**
-     * Конструктор по умолчанию, использует InMemoryTaskManager
+     * Конструктор по умолчанию, использует потокобезопасный менеджер задач
+     * и обрабатывает каждый запрос в отдельном виртуальном потоке
      */
     public HttpTaskServer() throws IOException {
-        this(Managers.getDefault());
+        this(Managers.getConcurrent(), new ServerConfig());
     }
 
     /**
      * Конструктор с указанием TaskManager
+     * Запросы обрабатываются по одному в потоке-диспетчере на localhost:8080, поэтому подходит
+     * любой менеджер задач, в том числе не рассчитанный на многопоточный доступ
      * @param taskManager менеджер задач
      */
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, ServerConfig.dispatcher());
+    }
+
+    /**
+     * Конструктор с указанием TaskManager и параметров сервера
+     * В режимах VIRTUAL и FIXED обработчики выполняются параллельно, поэтому менеджер задач
+     * должен быть потокобезопасным (см. Managers.getConcurrent())
+     * @param taskManager менеджер задач
+     * @param config параметры сервера
+     */
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config) throws IOException {
         this.taskManager = taskManager;
-        server = HttpServer.create(new InetSocketAddress("localhost", PORT), 0);
+        this.config = config;
+        server = HttpServer.create(new InetSocketAddress(config.getHost(), config.getPort()), config.getBacklog());
 
         // Регистрация обработчиков для различных путей
         server.createContext("/tasks", new TaskHandler(taskManager));
@@ -46,6 +75,45 @@ public class HttpTaskServer {
         server.createContext("/epics", new EpicHandler(taskManager));
         server.createContext("/history", new HistoryHandler(taskManager));
         server.createContext("/prioritized", new PrioritizedTasksHandler(taskManager));
+
+        executor = createExecutor(config);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Создать пул потоков для обработчиков запросов
+     * @param config параметры сервера
+     * @return пул потоков или null, если запросы выполняются в потоке-диспетчере
+     */
+    private static ExecutorService createExecutor(ServerConfig config) {
+        switch (config.getExecutorMode()) {
+            case VIRTUAL:
+                ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+                if (virtual != null) {
+                    return virtual;
+                }
+                System.out.println("Виртуальные потоки недоступны, используется пул из "
+                        + config.getPoolSize() + " потоков");
+                return Executors.newFixedThreadPool(config.getPoolSize());
+            case FIXED:
+                return Executors.newFixedThreadPool(config.getPoolSize());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Создать исполнителя с виртуальным потоком на каждую задачу
+     * Метод вызывается через отражение, чтобы сервер собирался и запускался и на JDK без виртуальных потоков
+     * @return исполнитель или null, если виртуальные потоки не поддерживаются
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
     }
 
     /**
@@ -53,7 +121,8 @@ public class HttpTaskServer {
      */
     public void start() {
         server.start();
-        System.out.println("HTTP-сервер запущен на порту " + PORT);
+        System.out.println("HTTP-сервер запущен на " + config.getHost() + ":" + getPort()
+                + ", режим обработки: " + config.getExecutorMode());
     }
 
     /**
@@ -61,9 +130,36 @@ public class HttpTaskServer {
      */
     public void stop() {
         server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
         System.out.println("HTTP-сервер остановлен");
     }
 
+    /**
+     * Получить порт, на котором сервер принимает соединения
+     * @return номер порта; если в параметрах указан 0, возвращается фактически выбранный порт
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Получить параметры сервера
+     * @return параметры сервера
+     */
+    public ServerConfig getConfig() {
+        return config;
+    }
+
     /**
      * Получить экземпляр Gson для сериализации/десериализации
      * @return экземпляр Gson
@@ -74,16 +170,19 @@ public class HttpTaskServer {
 
     /**
      * Точка входа в приложение
-     * @param args аргументы командной строки
+     * @param args аргументы командной строки: необязательные порт и адрес сервера
      */
     public static void main(String[] args) {
         try {
-            HttpTaskServer server = new HttpTaskServer();
+            int port = args.length > 0 ? Integer.parseInt(args[0]) : ServerConfig.DEFAULT_PORT;
+            String host = args.length > 1 ? args[1] : ServerConfig.DEFAULT_HOST;
+            HttpTaskServer server = new HttpTaskServer(Managers.getConcurrent(),
+                    new ServerConfig(host, port, ServerConfig.ExecutorMode.VIRTUAL));
             server.start();
             System.out.println("Для остановки сервера нажмите Enter");
             System.in.read();
             server.stop();
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             System.out.println("Ошибка при запуске сервера: " + e.getMessage());
         }
     }
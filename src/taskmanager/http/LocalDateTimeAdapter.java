@@ -1,28 +1,125 @@
 package taskmanager.http;
 
-import com.google.gson.*;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Адаптер для сериализации/десериализации LocalDateTime в JSON
+ * Значение читается и записывается напрямую как строка ISO-8601, без промежуточного дерева JsonElement
  */
-public class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
+public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     @Override
-    public JsonElement serialize(LocalDateTime src, Type typeOfSrc, JsonSerializationContext context) {
-        return src == null ? JsonNull.INSTANCE : new JsonPrimitive(formatter.format(src));
+    public void write(JsonWriter out, LocalDateTime value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(format(value));
+        }
     }
 
     @Override
-    public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-            throws JsonParseException {
-        if (json.isJsonNull()) {
+    public LocalDateTime read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
             return null;
         }
-        return LocalDateTime.parse(json.getAsString(), formatter);
+        return parse(in.nextString());
+    }
+
+    /**
+     * Отформатировать дату и время так же, как DateTimeFormatter.ISO_LOCAL_DATE_TIME
+     * Для четырехзначных годов строка собирается вручную, это в несколько раз быстрее форматтера
+     * @param value дата и время
+     * @return строка вида 2025-01-01T10:00:00 с дробной частью секунд, если она не нулевая
+     */
+    static String format(LocalDateTime value) {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return formatter.format(value);
+        }
+        StringBuilder sb = new StringBuilder(29);
+        appendPadded(sb, year, 4).append('-');
+        appendPadded(sb, value.getMonthValue(), 2).append('-');
+        appendPadded(sb, value.getDayOfMonth(), 2).append('T');
+        appendPadded(sb, value.getHour(), 2).append(':');
+        appendPadded(sb, value.getMinute(), 2).append(':');
+        appendPadded(sb, value.getSecond(), 2);
+        int nano = value.getNano();
+        if (nano > 0) {
+            // Дробная часть без завершающих нулей, как у ISO_LOCAL_TIME
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            sb.append('.');
+            appendPadded(sb, nano, digits);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Разобрать дату и время в формате ISO-8601
+     * Строка вида yyyy-MM-ddTHH:mm:ss разбирается вручную, остальные варианты передаются форматтеру
+     * @param value строка
+     * @return дата и время
+     * @throws JsonSyntaxException если строка не является датой и временем
+     */
+    static LocalDateTime parse(String value) {
+        try {
+            if (value.length() == 19 && value.charAt(4) == '-' && value.charAt(7) == '-' && value.charAt(10) == 'T'
+                    && value.charAt(13) == ':' && value.charAt(16) == ':') {
+                int year = digits(value, 0, 4);
+                int month = digits(value, 5, 7);
+                int day = digits(value, 8, 10);
+                int hour = digits(value, 11, 13);
+                int minute = digits(value, 14, 16);
+                int second = digits(value, 17, 19);
+                if ((year | month | day | hour | minute | second) >= 0) {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                }
+            }
+            return LocalDateTime.parse(value, formatter);
+        } catch (DateTimeException e) {
+            throw new JsonSyntaxException("Некорректная дата и время: " + value, e);
+        }
+    }
+
+    private static StringBuilder appendPadded(StringBuilder sb, int value, int width) {
+        for (int divisor = pow10(width - 1); divisor > 1 && value < divisor; divisor /= 10) {
+            sb.append('0');
+        }
+        return sb.append(value);
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    // Число из десятичных цифр строки или -1, если среди символов есть не цифра
+    private static int digits(String value, int begin, int end) {
+        int result = 0;
+        for (int i = begin; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
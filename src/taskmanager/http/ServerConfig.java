@@ -0,0 +1,124 @@
+package taskmanager.http;
+
+/**
+ * Параметры запуска HTTP-сервера задач
+ * Задает адрес и порт, длину очереди входящих соединений и способ выполнения обработчиков запросов
+ */
+public class ServerConfig {
+    public static final String DEFAULT_HOST = "localhost";
+    public static final int DEFAULT_PORT = 8080;
+    // 0 - длина очереди соединений по умолчанию для операционной системы
+    public static final int DEFAULT_BACKLOG = 0;
+
+    private final String host;
+    private final int port;
+    private final int backlog;
+    private final ExecutorMode executorMode;
+    private final int poolSize;
+
+    /**
+     * Способ выполнения обработчиков запросов
+     */
+    public enum ExecutorMode {
+        // Отдельный виртуальный поток на каждый запрос; если виртуальные потоки недоступны, используется пул FIXED
+        VIRTUAL,
+        // Пул платформенных потоков фиксированного размера
+        FIXED,
+        // Все запросы выполняются в потоке-диспетчере HttpServer по одному
+        DISPATCHER
+    }
+
+    /**
+     * Конструктор с параметрами по умолчанию: localhost:8080, виртуальный поток на запрос
+     */
+    public ServerConfig() {
+        this(DEFAULT_HOST, DEFAULT_PORT, DEFAULT_BACKLOG, ExecutorMode.VIRTUAL, defaultPoolSize());
+    }
+
+    /**
+     * Конструктор с указанием адреса и способа выполнения запросов
+     * @param host адрес, на котором сервер принимает соединения
+     * @param port порт, 0 - выбрать свободный порт
+     * @param executorMode способ выполнения обработчиков запросов
+     */
+    public ServerConfig(String host, int port, ExecutorMode executorMode) {
+        this(host, port, DEFAULT_BACKLOG, executorMode, defaultPoolSize());
+    }
+
+    /**
+     * Конструктор со всеми параметрами
+     * @param host адрес, на котором сервер принимает соединения
+     * @param port порт, 0 - выбрать свободный порт
+     * @param backlog длина очереди входящих соединений, 0 - значение по умолчанию
+     * @param executorMode способ выполнения обработчиков запросов
+     * @param poolSize количество потоков пула для режима FIXED
+     * @throws IllegalArgumentException если параметры вне допустимых значений
+     */
+    public ServerConfig(String host, int port, int backlog, ExecutorMode executorMode, int poolSize) {
+        if (host == null || host.isBlank()) {
+            throw new IllegalArgumentException("Не указан адрес сервера");
+        }
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Недопустимый порт: " + port);
+        }
+        if (backlog < 0) {
+            throw new IllegalArgumentException("Длина очереди соединений не может быть отрицательной: " + backlog);
+        }
+        if (executorMode == null) {
+            throw new IllegalArgumentException("Не указан способ выполнения запросов");
+        }
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Размер пула должен быть положительным: " + poolSize);
+        }
+        this.host = host;
+        this.port = port;
+        this.backlog = backlog;
+        this.executorMode = executorMode;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Конфигурация прежнего поведения: localhost:8080, все запросы в потоке-диспетчере
+     * Подходит для менеджеров задач, не рассчитанных на многопоточный доступ
+     * @return конфигурация с режимом DISPATCHER
+     */
+    public static ServerConfig dispatcher() {
+        return new ServerConfig(DEFAULT_HOST, DEFAULT_PORT, ExecutorMode.DISPATCHER);
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    // Обработчики в основном ждут ввода-вывода, поэтому потоков берется вдвое больше, чем ядер
+    private static int defaultPoolSize() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    @Override
+    public String toString() {
+        return "ServerConfig{" +
+                "host='" + host + '\'' +
+                ", port=" + port +
+                ", backlog=" + backlog +
+                ", executorMode=" + executorMode +
+                ", poolSize=" + poolSize +
+                '}';
+    }
+}
@@ -0,0 +1,23 @@
+package taskmanager.http;
+
+import com.google.gson.stream.JsonWriter;
+import taskmanager.model.Subtask;
+
+import java.io.IOException;
+
+/**
+ * Потоковый адаптер для сериализации/десериализации подзадачи в JSON
+ * Дополнительно к полям задачи записывает идентификатор эпика
+ */
+public class SubtaskTypeAdapter extends AbstractTaskTypeAdapter<Subtask> {
+    @Override
+    protected void writeOwnFields(JsonWriter out, Subtask subtask) throws IOException {
+        out.name("epicId").value(subtask.getEpicId());
+    }
+
+    @Override
+    protected Subtask create(Fields fields) {
+        return new Subtask(fields.name, fields.description, fields.id, fields.status, fields.epicId,
+                fields.duration, fields.startTime);
+    }
+}
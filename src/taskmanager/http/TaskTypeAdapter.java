@@ -0,0 +1,13 @@
+package taskmanager.http;
+
+import taskmanager.model.Task;
+
+/**
+ * Потоковый адаптер для сериализации/десериализации задачи в JSON
+ */
+public class TaskTypeAdapter extends AbstractTaskTypeAdapter<Task> {
+    @Override
+    protected Task create(Fields fields) {
+        return new Task(fields.name, fields.description, fields.id, fields.status, fields.duration, fields.startTime);
+    }
+}
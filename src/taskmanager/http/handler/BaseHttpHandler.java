@@ -1,15 +1,52 @@
 package taskmanager.http.handler;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
+import taskmanager.http.HttpTaskServer;
+import taskmanager.model.TaskStatus;
+import taskmanager.service.Page;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  * Базовый класс для HTTP-обработчиков
  * Содержит общие методы для чтения и отправки данных
  */
 public class BaseHttpHandler {
+    // Размер буфера, после заполнения которого очередная часть ответа отправляется клиенту
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+    // Размер страницы, если клиент передал только курсор
+    protected static final int DEFAULT_PAGE_LIMIT = 100;
+    // Наибольший размер страницы, большие значения limit уменьшаются до него
+    protected static final int MAX_PAGE_LIMIT = 1000;
+    // Заголовок ответа с курсором следующей страницы
+    protected static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Заголовки условных запросов
+    protected static final String ETAG_HEADER = "ETag";
+    protected static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    // Заголовок запроса с идентификатором клиента, просмотры которого записываются в отдельную историю
+    protected static final String CLIENT_ID_HEADER = "X-Client-Id";
+    // Наибольшая длина идентификатора клиента: идентификатор хранится в памяти сервера
+    protected static final int MAX_CLIENT_ID_LENGTH = 64;
+    // Ответы меньше этого размера не сжимаются: выигрыш меньше накладных расходов заголовков сжатого потока
+    protected static final int COMPRESSION_THRESHOLD = 1024;
+
     /**
      * Отправить текстовый ответ с кодом 200
      * @param h HTTP-обмен
@@ -17,15 +54,12 @@ public class BaseHttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     protected void sendText(HttpExchange h, String text) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
-        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(200, resp.length);
-        h.getResponseBody().write(resp);
-        h.close();
+        sendText(h, text, 200);
     }
 
     /**
      * Отправить текстовый ответ с указанным кодом
+     * Ответ не меньше порога COMPRESSION_THRESHOLD сжимается, если клиент принимает gzip или deflate
      * @param h HTTP-обмен
      * @param text текст ответа
      * @param statusCode код статуса HTTP
@@ -34,11 +68,319 @@ public class BaseHttpHandler {
     protected void sendText(HttpExchange h, String text, int statusCode) throws IOException {
         byte[] resp = text.getBytes(StandardCharsets.UTF_8);
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        h.getResponseHeaders().add("Vary", "Accept-Encoding");
+        ContentEncoding encoding = negotiateEncoding(h);
+        if (encoding != null && resp.length >= COMPRESSION_THRESHOLD) {
+            resp = encoding.compress(resp);
+            markEncoded(h, encoding);
+        }
         h.sendResponseHeaders(statusCode, resp.length);
         h.getResponseBody().write(resp);
         h.close();
     }
 
+    /**
+     * Отправить список в виде JSON-массива с кодом 200
+     * Элементы сериализуются по одному прямо в тело ответа, которое передается частями
+     * (chunked transfer encoding), поэтому ответ целиком не собирается ни в строке, ни в массиве байтов,
+     * и память на запрос не зависит от размера списка.
+     * Если клиент принимает gzip или deflate, ответ от порога COMPRESSION_THRESHOLD сжимается по мере записи;
+     * меньший ответ отправляется без сжатия
+     * @param h HTTP-обмен
+     * @param items элементы ответа
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    protected void sendJson(HttpExchange h, Iterable<?> items) throws IOException {
+        Gson gson = HttpTaskServer.getGson();
+        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        h.getResponseHeaders().add("Vary", "Accept-Encoding");
+        ContentEncoding encoding = negotiateEncoding(h);
+        OutputStream body;
+        if (encoding != null) {
+            body = new CompressingResponseStream(h, 200, encoding, COMPRESSION_THRESHOLD);
+        } else {
+            // Длина 0 означает, что размер тела заранее неизвестен и ответ передается частями
+            h.sendResponseHeaders(200, 0);
+            body = h.getResponseBody();
+        }
+        try {
+            JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                    new OutputStreamWriter(body, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE));
+            writer.beginArray();
+            for (Object item : items) {
+                if (item == null) {
+                    writer.nullValue();
+                } else {
+                    // Тип берется у каждого элемента, чтобы у подзадач в общем списке сохранялись их поля
+                    gson.toJson(item, item.getClass(), writer);
+                }
+            }
+            writer.endArray();
+            // Закрытие дописывает хвост сжатого потока
+            writer.close();
+        } finally {
+            // Заголовки уже могли быть отправлены, поэтому при ошибке ответ просто обрывается
+            h.close();
+        }
+    }
+
+    /**
+     * Отправить список целиком или постранично
+     * Если в запросе есть параметр limit или cursor, отправляется одна страница, а курсор следующей
+     * страницы передается в заголовке X-Next-Cursor; иначе отправляется весь список, как раньше
+     * @param h HTTP-обмен
+     * @param pageQuery получение страницы по размеру и курсору
+     * @param allQuery получение всего списка
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    protected void sendList(HttpExchange h, BiFunction<Integer, String, Page<?>> pageQuery,
+                            Supplier<? extends Iterable<?>> allQuery) throws IOException {
+        sendList(h, pageQuery, allQuery, null);
+    }
+
+    /**
+     * Отправить список целиком, постранично или с отбором по статусу
+     * С параметром status отправляются все элементы в этом статусе из индекса по статусу;
+     * вместе с постраничными параметрами он не поддерживается
+     * @param h HTTP-обмен
+     * @param pageQuery получение страницы по размеру и курсору
+     * @param allQuery получение всего списка
+     * @param statusQuery получение элементов в статусе или null, если отбор по статусу не поддерживается
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    protected void sendList(HttpExchange h, BiFunction<Integer, String, Page<?>> pageQuery,
+                            Supplier<? extends Iterable<?>> allQuery,
+                            Function<TaskStatus, ? extends Iterable<?>> statusQuery) throws IOException {
+        Map<String, String> query = parseQuery(h);
+        boolean paged = query.containsKey("limit") || query.containsKey("cursor");
+        if (query.containsKey("status")) {
+            if (statusQuery == null) {
+                sendBadRequest(h, "Отбор по статусу не поддерживается");
+            } else if (paged) {
+                sendBadRequest(h, "Отбор по статусу нельзя сочетать с параметрами limit и cursor");
+            } else {
+                TaskStatus status = parseStatus(h, query.get("status"));
+                if (status != null) {
+                    sendJson(h, statusQuery.apply(status));
+                }
+            }
+            return;
+        }
+        if (!paged) {
+            sendJson(h, allQuery.get());
+            return;
+        }
+        Page<?> page;
+        try {
+            int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_PAGE_LIMIT;
+            page = pageQuery.apply(Math.min(limit, MAX_PAGE_LIMIT), query.get("cursor"));
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(h, e.getMessage());
+            return;
+        }
+        if (page.hasNext()) {
+            h.getResponseHeaders().add(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        sendJson(h, page.getItems());
+    }
+
+    /**
+     * Сформировать значение ETag по версиям, от которых зависит представление ресурса
+     * @param resource вид ресурса, например tasks или task
+     * @param versions версии менеджера, объекта или истории просмотров
+     * @return значение заголовка ETag в кавычках
+     */
+    protected static String etag(String resource, long... versions) {
+        StringBuilder value = new StringBuilder("\"").append(resource);
+        for (long version : versions) {
+            value.append('-').append(version);
+        }
+        return value.append('"').toString();
+    }
+
+    /**
+     * Обработать условный GET-запрос
+     * К ответу добавляется заголовок ETag. Если клиент прислал его в If-None-Match, то есть уже имеет
+     * актуальное представление, отправляется ответ 304 (Not Modified) без тела.
+     * Версию нужно получить до чтения данных: тогда при изменении между ними клиент получит
+     * устаревший ETag и в следующий раз просто загрузит данные заново
+     * @param h HTTP-обмен
+     * @param etag значение ETag текущего представления
+     * @return true, если отправлен ответ 304 и обработку запроса нужно завершить
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    protected boolean checkNotModified(HttpExchange h, String etag) throws IOException {
+        h.getResponseHeaders().set(ETAG_HEADER, etag);
+        List<String> conditions = h.getRequestHeaders().get(IF_NONE_MATCH_HEADER);
+        if (conditions == null) {
+            return false;
+        }
+        // Клиент мог получить сжатое тело с меткой кодирования: при той же версии и том же кодировании
+        // решение о сжатии повторится, поэтому такая метка тоже подтверждает актуальность
+        ContentEncoding encoding = negotiateEncoding(h);
+        String encodedEtag = encoding != null ? encodedEtag(etag, encoding) : null;
+        if (encodedEtag != null && matchesAny(conditions, encodedEtag)) {
+            h.getResponseHeaders().set(ETAG_HEADER, encodedEtag);
+        } else if (!matchesAny(conditions, etag)) {
+            return false;
+        }
+        h.getResponseHeaders().add("Vary", "Accept-Encoding");
+        h.sendResponseHeaders(304, -1);
+        h.close();
+        return true;
+    }
+
+    /**
+     * Отметить ответ как сжатый: задать Content-Encoding и добавить метку кодирования к ETag
+     * Сжатое и несжатое тела - разные представления, поэтому метка добавляется, только когда тело
+     * действительно сжимается; ответ меньше порога сохраняет ETag несжатого представления
+     * @param h HTTP-обмен, заголовки которого еще не отправлены
+     * @param encoding кодирование тела
+     */
+    static void markEncoded(HttpExchange h, ContentEncoding encoding) {
+        h.getResponseHeaders().set("Content-Encoding", encoding.getToken());
+        String etag = h.getResponseHeaders().getFirst(ETAG_HEADER);
+        if (etag != null) {
+            h.getResponseHeaders().set(ETAG_HEADER, encodedEtag(etag, encoding));
+        }
+    }
+
+    // ETag сжатого представления: метка кодирования дописывается внутри кавычек
+    private static String encodedEtag(String etag, ContentEncoding encoding) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoding.getToken() + '"';
+    }
+
+    // Сравнить ETag со списками значений If-None-Match; для If-None-Match слабые метки W/ сравниваются как обычные
+    private static boolean matchesAny(List<String> conditions, String etag) {
+        for (String condition : conditions) {
+            for (String candidate : condition.split(",")) {
+                String value = candidate.trim();
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if (value.equals("*") || value.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Выбрать кодирование ответа по заголовку Accept-Encoding запроса
+     * @param h HTTP-обмен
+     * @return кодирование или null, если ответ отправляется без сжатия
+     */
+    private static ContentEncoding negotiateEncoding(HttpExchange h) {
+        return ContentEncoding.negotiate(h.getRequestHeaders().get("Accept-Encoding"));
+    }
+
+    /**
+     * Отправить количество элементов по статусам
+     * С параметром status отправляется {"status": ..., "count": ...}, без него - количество в каждом статусе
+     * @param h HTTP-обмен
+     * @param counter получение количества элементов в статусе за O(1)
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    protected void sendCounts(HttpExchange h, ToIntFunction<TaskStatus> counter) throws IOException {
+        Map<String, String> query = parseQuery(h);
+        JsonObject counts = new JsonObject();
+        if (query.containsKey("status")) {
+            TaskStatus status = parseStatus(h, query.get("status"));
+            if (status == null) {
+                return;
+            }
+            counts.addProperty("status", status.name());
+            counts.addProperty("count", counter.applyAsInt(status));
+        } else {
+            for (TaskStatus status : TaskStatus.values()) {
+                counts.addProperty(status.name(), counter.applyAsInt(status));
+            }
+        }
+        sendText(h, counts.toString());
+    }
+
+    /**
+     * Разобрать статус из параметра запроса
+     * Если статус некорректен, клиенту уже отправлен ответ 400
+     * @param h HTTP-обмен
+     * @param value значение параметра, регистр не учитывается
+     * @return статус или null, если значение некорректно
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    protected TaskStatus parseStatus(HttpExchange h, String value) throws IOException {
+        try {
+            return TaskStatus.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(h, "Неизвестный статус: " + value);
+            return null;
+        }
+    }
+
+    /**
+     * Получить идентификатор клиента из заголовка X-Client-Id
+     * @param h HTTP-обмен
+     * @return идентификатор клиента или null, если заголовка нет
+     */
+    protected static String clientId(HttpExchange h) {
+        String clientId = h.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+        return clientId == null ? null : clientId.trim();
+    }
+
+    /**
+     * Проверить идентификатор клиента из заголовка X-Client-Id
+     * Если идентификатор некорректен, клиенту уже отправлен ответ 400
+     * @param h HTTP-обмен
+     * @return true, если заголовка нет или идентификатор корректен
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    protected boolean checkClientId(HttpExchange h) throws IOException {
+        String clientId = clientId(h);
+        if (clientId != null && (clientId.isEmpty() || clientId.length() > MAX_CLIENT_ID_LENGTH)) {
+            sendBadRequest(h, "Идентификатор клиента должен содержать от 1 до " + MAX_CLIENT_ID_LENGTH + " символов");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Разобрать параметры строки запроса
+     * @param h HTTP-обмен
+     * @return параметры запроса; при повторе параметра используется первое значение
+     */
+    protected Map<String, String> parseQuery(HttpExchange h) {
+        String rawQuery = h.getRequestURI().getRawQuery();
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    /**
+     * Отправить ответ с кодом 400 (Bad Request) и описанием ошибки
+     * @param h HTTP-обмен
+     * @param message описание ошибки
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    protected void sendBadRequest(HttpExchange h, String message) throws IOException {
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        // Ошибка не является представлением ресурса, поэтому ETag ей не передается
+        h.getResponseHeaders().remove(ETAG_HEADER);
+        sendText(h, error.toString(), 400);
+    }
+
     /**
      * Отправить ответ с кодом 201 (Created)
      * @param h HTTP-обмен
@@ -0,0 +1,92 @@
+package taskmanager.http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Поток тела ответа со сжатием для ответов, размер которых заранее неизвестен
+ * Первые байты накапливаются в буфере размером с порог сжатия. Если ответ закончился раньше,
+ * он отправляется без сжатия с известной длиной; иначе отправляются заголовки с Content-Encoding,
+ * и дальше тело сжимается по мере записи и передается частями (chunked transfer encoding)
+ */
+class CompressingResponseStream extends OutputStream {
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final ContentEncoding encoding;
+    private byte[] pending;
+    private int pendingCount;
+    // Сжимающий поток; null, пока заголовки ответа не отправлены
+    private OutputStream out;
+    private boolean closed;
+
+    /**
+     * Конструктор
+     * @param exchange HTTP-обмен, заголовки которого еще не отправлены
+     * @param statusCode код статуса ответа
+     * @param encoding согласованное с клиентом кодирование
+     * @param threshold размер ответа в байтах, начиная с которого он сжимается
+     */
+    CompressingResponseStream(HttpExchange exchange, int statusCode, ContentEncoding encoding, int threshold) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.encoding = encoding;
+        this.pending = new byte[threshold];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Поток ответа закрыт");
+        }
+        if (out == null) {
+            if (pendingCount + len <= pending.length) {
+                System.arraycopy(b, off, pending, pendingCount, len);
+                pendingCount += len;
+                return;
+            }
+            startCompressed();
+        }
+        out.write(b, off, len);
+    }
+
+    // Порог превышен: отправить заголовки сжатого ответа и сжать накопленные байты
+    private void startCompressed() throws IOException {
+        BaseHttpHandler.markEncoded(exchange, encoding);
+        exchange.sendResponseHeaders(statusCode, 0);
+        out = encoding.wrap(exchange.getResponseBody());
+        out.write(pending, 0, pendingCount);
+        pending = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // До превышения порога сбрасывать нечего: решение о сжатии еще не принято
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (out != null) {
+            out.close();
+            return;
+        }
+        // Ответ меньше порога: сжатие не окупится, отправляем как есть
+        exchange.sendResponseHeaders(statusCode, pendingCount == 0 ? -1 : pendingCount);
+        OutputStream body = exchange.getResponseBody();
+        body.write(pending, 0, pendingCount);
+        body.close();
+    }
+}
@@ -0,0 +1,130 @@
+package taskmanager.http.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кодирование тела ответа, согласуемое с клиентом через заголовок Accept-Encoding
+ * При равном приоритете выбирается кодирование, объявленное раньше
+ */
+enum ContentEncoding {
+    GZIP("gzip") {
+        @Override
+        OutputStream wrap(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+    },
+    // deflate в HTTP - поток zlib, именно его пишет DeflaterOutputStream с настройками по умолчанию
+    DEFLATE("deflate") {
+        @Override
+        OutputStream wrap(OutputStream out) {
+            return new DeflaterOutputStream(out);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Получить название кодирования для заголовка Content-Encoding
+     * @return название кодирования
+     */
+    String getToken() {
+        return token;
+    }
+
+    /**
+     * Обернуть поток ответа сжимающим потоком
+     * Закрытие сжимающего потока дописывает хвост сжатых данных и закрывает исходный поток
+     * @param out поток тела ответа
+     * @return сжимающий поток
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    abstract OutputStream wrap(OutputStream out) throws IOException;
+
+    /**
+     * Сжать данные целиком
+     * @param data исходные данные
+     * @return сжатые данные
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (OutputStream out = wrap(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Выбрать кодирование по значениям заголовка Accept-Encoding
+     * Учитываются коэффициенты q: кодирование с q=0 не используется, "*" задает коэффициент
+     * для кодирований, не названных явно; x-gzip считается синонимом gzip
+     * @param acceptEncoding значения заголовка или null, если заголовка нет
+     * @return кодирование с наибольшим коэффициентом или null, если клиент не принимает сжатые ответы
+     */
+    static ContentEncoding negotiate(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        ContentEncoding[] encodings = values();
+        double[] weights = new double[encodings.length];
+        boolean[] named = new boolean[encodings.length];
+        double wildcard = 0;
+        for (String header : acceptEncoding) {
+            for (String item : header.split(",")) {
+                String[] parts = item.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                double weight = parseWeight(parts);
+                if (coding.equals("*")) {
+                    wildcard = weight;
+                    continue;
+                }
+                if (coding.equals("x-gzip")) {
+                    coding = GZIP.token;
+                }
+                for (ContentEncoding encoding : encodings) {
+                    if (encoding.token.equals(coding)) {
+                        weights[encoding.ordinal()] = weight;
+                        named[encoding.ordinal()] = true;
+                    }
+                }
+            }
+        }
+        ContentEncoding best = null;
+        double bestWeight = 0;
+        for (ContentEncoding encoding : encodings) {
+            double weight = named[encoding.ordinal()] ? weights[encoding.ordinal()] : wildcard;
+            if (weight > bestWeight) {
+                best = encoding;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    // Коэффициент q из параметров кодирования; некорректное значение исключает кодирование
+    private static double parseWeight(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
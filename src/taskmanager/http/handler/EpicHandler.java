@@ -67,6 +67,17 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
                 return;
             }
 
+            // Обработка запросов к количеству эпиков по статусам
+            if (path.equals("/epics/count")) {
+                if (method.equals("GET")) {
+                    sendCounts(exchange, taskManager::countEpicsByStatus);
+                } else {
+                    exchange.sendResponseHeaders(405, 0); // Method Not Allowed
+                    exchange.close();
+                }
+                return;
+            }
+
             // Обработка запросов ко всем эпикам
             if (path.equals("/epics")) {
                 switch (method) {
@@ -96,12 +107,15 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
 
     /**
      * Обработать запрос на получение всех эпиков
+     * С параметрами limit и cursor возвращается одна страница, с параметром status - отбор по статусу
      * @param exchange HTTP-обмен
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetAllEpics(HttpExchange exchange) throws IOException {
-        List<Epic> epics = taskManager.getAllEpics();
-        sendText(exchange, gson.toJson(epics));
+        if (checkNotModified(exchange, etag("epics", taskManager.getVersion()))) {
+            return;
+        }
+        sendList(exchange, taskManager::getEpics, taskManager::getAllEpics, taskManager::getEpicsByStatus);
     }
 
     /**
@@ -111,8 +125,15 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetEpicById(HttpExchange exchange, int epicId) throws IOException {
-        Epic epic = taskManager.getEpicById(epicId);
+        if (!checkClientId(exchange)) {
+            return;
+        }
+        long version = taskManager.getVersion(epicId);
+        Epic epic = taskManager.getEpicById(epicId, clientId(exchange));
         if (epic != null) {
+            if (checkNotModified(exchange, etag("epic", version))) {
+                return;
+            }
             sendText(exchange, gson.toJson(epic));
         } else {
             sendNotFound(exchange);
@@ -126,10 +147,15 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetEpicSubtasks(HttpExchange exchange, int epicId) throws IOException {
-        Epic epic = taskManager.getEpicById(epicId);
-        if (epic != null) {
+        // Версия эпика меняется при любом изменении его подзадач
+        long version = taskManager.getVersion(epicId);
+        // Проверка существования эпика не является его просмотром и не попадает в историю
+        if (taskManager.containsEpic(epicId)) {
+            if (checkNotModified(exchange, etag("epic-subtasks", version))) {
+                return;
+            }
             List<Subtask> subtasks = taskManager.getSubtasksByEpicId(epicId);
-            sendText(exchange, gson.toJson(subtasks));
+            sendJson(exchange, subtasks);
         } else {
             sendNotFound(exchange);
         }
@@ -157,8 +183,7 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
                 sendCreated(exchange);
             } else {
                 // Обновление существующего эпика
-                Epic existingEpic = taskManager.getEpicById(epic.getId());
-                if (existingEpic == null) {
+                if (!taskManager.containsEpic(epic.getId())) {
                     sendNotFound(exchange);
                     return;
                 }
@@ -179,8 +204,7 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleDeleteEpicById(HttpExchange exchange, int epicId) throws IOException {
-        Epic epic = taskManager.getEpicById(epicId);
-        if (epic != null) {
+        if (taskManager.containsEpic(epicId)) {
             taskManager.deleteEpicById(epicId);
             sendText(exchange, "{}");
         } else {
@@ -1,9 +1,7 @@
 package taskmanager.http.handler;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import taskmanager.http.HttpTaskServer;
 import taskmanager.model.Task;
 import taskmanager.service.TaskManager;
 
@@ -12,10 +10,10 @@ import java.util.List;
 
 /**
  * Обработчик HTTP-запросов для работы с историей просмотров задач
+ * Если в запросе передан заголовок X-Client-Id, возвращается история этого клиента, иначе общая история
  */
 public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
-    private final Gson gson;
 
     /**
      * Конструктор
@@ -23,7 +21,6 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
      */
     public HistoryHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
-        this.gson = HttpTaskServer.getGson();
     }
 
     @Override
@@ -57,7 +54,16 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetHistory(HttpExchange exchange) throws IOException {
-        List<Task> history = taskManager.getHistory();
-        sendText(exchange, gson.toJson(history));
+        if (!checkClientId(exchange)) {
+            return;
+        }
+        // История зависит от клиента, поэтому кэши должны хранить ответы отдельно для каждого клиента
+        exchange.getResponseHeaders().add("Vary", CLIENT_ID_HEADER);
+        // Состав истории задает ее версия, а содержимое просмотренных задач - версия менеджера
+        if (checkNotModified(exchange, etag("history", taskManager.getHistoryVersion(), taskManager.getVersion()))) {
+            return;
+        }
+        List<Task> history = taskManager.getHistory(clientId(exchange));
+        sendJson(exchange, history);
     }
 }
\ No newline at end of file
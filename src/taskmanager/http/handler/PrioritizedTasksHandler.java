@@ -1,21 +1,21 @@
 package taskmanager.http.handler;
 
-import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import taskmanager.http.HttpTaskServer;
 import taskmanager.model.Task;
 import taskmanager.service.TaskManager;
 
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Обработчик HTTP-запросов для работы с приоритизированными задачами
  */
 public class PrioritizedTasksHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
-    private final Gson gson;
 
     /**
      * Конструктор
@@ -23,7 +23,6 @@ public class PrioritizedTasksHandler extends BaseHttpHandler implements HttpHand
      */
     public PrioritizedTasksHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
-        this.gson = HttpTaskServer.getGson();
     }
 
     @Override
@@ -53,11 +52,41 @@ public class PrioritizedTasksHandler extends BaseHttpHandler implements HttpHand
 
     /**
      * Обработать запрос на получение приоритизированных задач
+     * С параметрами limit и cursor возвращается одна страница. С параметрами from и to (ISO-8601)
+     * возвращаются задачи, начинающиеся в интервале [from, to), не больше limit штук
      * @param exchange HTTP-обмен
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetPrioritizedTasks(HttpExchange exchange) throws IOException {
-        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
-        sendText(exchange, gson.toJson(prioritizedTasks));
+        if (checkNotModified(exchange, etag("prioritized", taskManager.getVersion()))) {
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange);
+        if (!query.containsKey("from") && !query.containsKey("to")) {
+            sendList(exchange, taskManager::getPrioritizedTasks, taskManager::getPrioritizedTasks);
+            return;
+        }
+        if (query.containsKey("cursor")) {
+            sendBadRequest(exchange, "Интервал from/to нельзя сочетать с параметром cursor");
+            return;
+        }
+        List<Task> tasks;
+        try {
+            LocalDateTime from = parseDateTime(query.get("from"));
+            LocalDateTime to = parseDateTime(query.get("to"));
+            int limit = query.containsKey("limit")
+                    ? Math.min(Integer.parseInt(query.get("limit")), MAX_PAGE_LIMIT)
+                    : Integer.MAX_VALUE;
+            tasks = taskManager.getPrioritizedTasks(from, to, limit);
+        } catch (DateTimeException | IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+        sendJson(exchange, tasks);
+    }
+
+    // Разобрать дату и время из параметра запроса, null если параметр не задан
+    private static LocalDateTime parseDateTime(String value) {
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value);
     }
 }
\ No newline at end of file
@@ -9,7 +9,6 @@ import taskmanager.model.Subtask;
 import taskmanager.service.TaskManager;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -53,6 +52,17 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
                 return;
             }
 
+            // Обработка запросов к количеству подзадач по статусам
+            if (path.equals("/subtasks/count")) {
+                if (method.equals("GET")) {
+                    sendCounts(exchange, taskManager::countSubtasksByStatus);
+                } else {
+                    exchange.sendResponseHeaders(405, 0); // Method Not Allowed
+                    exchange.close();
+                }
+                return;
+            }
+
             // Обработка запросов ко всем подзадачам
             if (path.equals("/subtasks")) {
                 switch (method) {
@@ -82,12 +92,15 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
 
     /**
      * Обработать запрос на получение всех подзадач
+     * С параметрами limit и cursor возвращается одна страница, с параметром status - отбор по статусу
      * @param exchange HTTP-обмен
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetAllSubtasks(HttpExchange exchange) throws IOException {
-        List<Subtask> subtasks = taskManager.getAllSubtasks();
-        sendText(exchange, gson.toJson(subtasks));
+        if (checkNotModified(exchange, etag("subtasks", taskManager.getVersion()))) {
+            return;
+        }
+        sendList(exchange, taskManager::getSubtasks, taskManager::getAllSubtasks, taskManager::getSubtasksByStatus);
     }
 
     /**
@@ -97,8 +110,15 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetSubtaskById(HttpExchange exchange, int subtaskId) throws IOException {
-        Subtask subtask = taskManager.getSubtaskById(subtaskId);
+        if (!checkClientId(exchange)) {
+            return;
+        }
+        long version = taskManager.getVersion(subtaskId);
+        Subtask subtask = taskManager.getSubtaskById(subtaskId, clientId(exchange));
         if (subtask != null) {
+            if (checkNotModified(exchange, etag("subtask", version))) {
+                return;
+            }
             sendText(exchange, gson.toJson(subtask));
         } else {
             sendNotFound(exchange);
@@ -132,8 +152,7 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
                 }
             } else {
                 // Обновление существующей подзадачи
-                Subtask existingSubtask = taskManager.getSubtaskById(subtask.getId());
-                if (existingSubtask == null) {
+                if (!taskManager.containsSubtask(subtask.getId())) {
                     sendNotFound(exchange);
                     return;
                 }
@@ -159,8 +178,7 @@ public class SubtaskHandler extends BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleDeleteSubtaskById(HttpExchange exchange, int subtaskId) throws IOException {
-        Subtask subtask = taskManager.getSubtaskById(subtaskId);
-        if (subtask != null) {
+        if (taskManager.containsSubtask(subtaskId)) {
             taskManager.deleteSubtaskById(subtaskId);
             sendText(exchange, "{}");
         } else {
@@ -9,7 +9,6 @@ import taskmanager.model.Task;
 import taskmanager.service.TaskManager;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -53,6 +52,17 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
                 return;
             }
 
+            // Обработка запросов к количеству задач по статусам
+            if (path.equals("/tasks/count")) {
+                if (method.equals("GET")) {
+                    sendCounts(exchange, taskManager::countTasksByStatus);
+                } else {
+                    exchange.sendResponseHeaders(405, 0); // Method Not Allowed
+                    exchange.close();
+                }
+                return;
+            }
+
             // Обработка запросов ко всем задачам
             if (path.equals("/tasks")) {
                 switch (method) {
@@ -82,12 +92,15 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
 
     /**
      * Обработать запрос на получение всех задач
+     * С параметрами limit и cursor возвращается одна страница, с параметром status - отбор по статусу
      * @param exchange HTTP-обмен
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetAllTasks(HttpExchange exchange) throws IOException {
-        List<Task> tasks = taskManager.getAllTasks();
-        sendText(exchange, gson.toJson(tasks));
+        if (checkNotModified(exchange, etag("tasks", taskManager.getVersion()))) {
+            return;
+        }
+        sendList(exchange, taskManager::getTasks, taskManager::getAllTasks, taskManager::getTasksByStatus);
     }
 
     /**
@@ -97,8 +110,15 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleGetTaskById(HttpExchange exchange, int taskId) throws IOException {
-        Task task = taskManager.getTaskById(taskId);
+        if (!checkClientId(exchange)) {
+            return;
+        }
+        long version = taskManager.getVersion(taskId);
+        Task task = taskManager.getTaskById(taskId, clientId(exchange));
         if (task != null) {
+            if (checkNotModified(exchange, etag("task", version))) {
+                return;
+            }
             sendText(exchange, gson.toJson(task));
         } else {
             sendNotFound(exchange);
@@ -132,8 +152,7 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
                 }
             } else {
                 // Обновление существующей задачи
-                Task existingTask = taskManager.getTaskById(task.getId());
-                if (existingTask == null) {
+                if (!taskManager.containsTask(task.getId())) {
                     sendNotFound(exchange);
                     return;
                 }
@@ -159,8 +178,7 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
      * @throws IOException если произошла ошибка ввода-вывода
      */
     private void handleDeleteTaskById(HttpExchange exchange, int taskId) throws IOException {
-        Task task = taskManager.getTaskById(taskId);
-        if (task != null) {
+        if (taskManager.containsTask(taskId)) {
             taskManager.deleteTaskById(taskId);
             sendText(exchange, "{}");
         } else {
@@ -2,7 +2,9 @@ package taskmanager.model;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Класс, представляющий Эпик-задачу, которая может содержать несколько подзадач
@@ -10,8 +12,9 @@ import java.util.List;
  * Продолжительность, время начала и завершения Эпика определяются его подзадачами
  */
 public class Epic extends Task {
-    // Список идентификаторов подзадач, принадлежащих этому эпику
-    private final List<Integer> subtaskIds;
+    // Идентификаторы подзадач, принадлежащих этому эпику, в порядке добавления
+    // Множество позволяет добавлять и удалять подзадачу за O(1) даже у эпиков с тысячами подзадач
+    private final Set<Integer> subtaskIds;
     // Время завершения эпика (рассчитывается на основе подзадач)
     private LocalDateTime endTime;
 
@@ -23,7 +26,7 @@ public class Epic extends Task {
      */
     public Epic(String name, String description) {
         super(name, description);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new LinkedHashSet<>();
     }
 
     /**
@@ -36,7 +39,7 @@ public class Epic extends Task {
      */
     public Epic(String name, String description, int id, TaskStatus status) {
         super(name, description, id, status);
-        this.subtaskIds = new ArrayList<>();
+        this.subtaskIds = new LinkedHashSet<>();
     }
     /**
      * Переопределение метода getEndTime для Эпика
@@ -63,15 +66,13 @@ public class Epic extends Task {
 
     // Добавить подзадачу к этому эпику
     public void addSubtaskId(int subtaskId) {
-        if (!subtaskIds.contains(subtaskId)) {
-            subtaskIds.add(subtaskId);
-        }
+        subtaskIds.add(subtaskId);
     }
 
 
     // Удалить подзадачу из этого эпика
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove(Integer.valueOf(subtaskId));
+        subtaskIds.remove(subtaskId);
     }
 
     //Очистить все подзадачи из этого эпика
@@ -3,6 +3,7 @@ package taskmanager.service;
 import taskmanager.model.Task;
 
 import java.util.List;
+import java.util.function.IntFunction;
 
 /**
  * Интерфейс для управления историей просмотров задач
@@ -25,4 +26,13 @@ public interface HistoryManager {
      * @return список задач в порядке их просмотра (от самых старых к самым новым)
      */
     List<Task> getHistory();
-}
\ No newline at end of file
+
+    /**
+     * Задать способ получения актуальной задачи по идентификатору
+     * Нужен реализациям, которые хранят только идентификаторы и получают задачи при чтении истории;
+     * остальные реализации его игнорируют
+     * @param resolver функция, возвращающая текущую задачу по идентификатору или null, если задачи нет
+     */
+    default void setTaskResolver(IntFunction<? extends Task> resolver) {
+    }
+}
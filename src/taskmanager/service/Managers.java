@@ -1,8 +1,14 @@
 package taskmanager.service;
 
+import taskmanager.service.impl.ConcurrentHistoryManager;
+import taskmanager.service.impl.ConcurrentTaskManager;
 import taskmanager.service.impl.FileBackedTaskManager;
+import taskmanager.service.impl.IdHistoryManager;
 import taskmanager.service.impl.InMemoryHistoryManager;
 import taskmanager.service.impl.InMemoryTaskManager;
+import taskmanager.service.impl.JournaledTaskManager;
+import taskmanager.service.impl.SnapshotFormat;
+import taskmanager.service.impl.WriteBehindTaskManager;
 
 import java.io.File;
 
@@ -18,6 +24,15 @@ public class Managers {
         return new InMemoryTaskManager(getDefaultHistory());
     }
 
+    /**
+     * Получить потокобезопасный менеджер задач в памяти
+     * Подходит для HTTP-сервера, обрабатывающего запросы в нескольких потоках
+     * @return объект, реализующий интерфейс TaskManager, безопасный для многопоточного доступа
+     */
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager(getDefaultHistory());
+    }
+
     /**
      * Получить менеджер задач с сохранением в файл
      * @param file файл для сохранения данных
@@ -27,6 +42,39 @@ public class Managers {
         return new FileBackedTaskManager(file, getDefaultHistory());
     }
 
+    /**
+     * Получить менеджер задач с сохранением в файл в указанном формате снимка
+     * @param file файл для сохранения данных
+     * @param format формат снимка
+     * @return объект, реализующий интерфейс TaskManager с автосохранением в файл
+     */
+    public static TaskManager getFileBacked(File file, SnapshotFormat format) {
+        return new FileBackedTaskManager(file, getDefaultHistory(), format);
+    }
+
+    /**
+     * Получить менеджер задач с журналированием изменений
+     * Изменения дописываются в журнал, снимок состояния записывается периодически
+     * @param file файл для сохранения снимка
+     * @return объект, реализующий интерфейс TaskManager с журналированием изменений
+     */
+    public static TaskManager getJournaled(File file) {
+        return new JournaledTaskManager(file, getDefaultHistory(), JournaledTaskManager.DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Получить менеджер задач с отложенной пакетной записью в файл
+     * @param file файл для сохранения данных
+     * @param flushIntervalMillis максимальная задержка записи в миллисекундах
+     * @param maxPendingMutations количество изменений, после которого запись запускается немедленно
+     * @param policy политика надежности записи
+     * @return менеджер задач с отложенной записью, который нужно закрыть после использования
+     */
+    public static WriteBehindTaskManager getWriteBehind(File file, long flushIntervalMillis, int maxPendingMutations,
+                                                        WriteBehindTaskManager.DurabilityPolicy policy) {
+        return new WriteBehindTaskManager(file, getDefaultHistory(), flushIntervalMillis, maxPendingMutations, policy);
+    }
+
     /**
      * Загрузить менеджер задач из файла
      * @param file файл для загрузки данных
@@ -43,4 +91,35 @@ public class Managers {
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
-}
\ No newline at end of file
+
+    /**
+     * Получить менеджер истории с ограниченным размером
+     * При переполнении из истории вытесняется самый давний просмотр
+     * @param capacity наибольшее количество задач в истории
+     * @return объект, реализующий интерфейс HistoryManager
+     * @throws IllegalArgumentException если емкость не положительна
+     */
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    /**
+     * Получить потокобезопасный менеджер истории
+     * Просмотры из разных потоков записываются без общего монитора. Менеджер по умолчанию остается
+     * историей под монитором: на одном ядре она быстрее, а выигрыш этой реализации проявляется
+     * только при конкуренции просмотров на нескольких ядрах
+     * @return объект, реализующий интерфейс HistoryManager, безопасный для многопоточного доступа
+     */
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
+
+    /**
+     * Получить менеджер истории, хранящий только идентификаторы задач
+     * Задачи разрешаются через менеджер задач при чтении истории, поэтому история отражает их текущее состояние
+     * @return объект, реализующий интерфейс HistoryManager
+     */
+    public static HistoryManager getIdHistory() {
+        return new IdHistoryManager();
+    }
+}
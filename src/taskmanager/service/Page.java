@@ -0,0 +1,56 @@
+package taskmanager.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Страница списка задач
+ * Содержит элементы страницы и непрозрачный курсор, по которому запрашивается следующая страница
+ * @param <T> тип элементов
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * Конструктор
+     * @param items элементы страницы
+     * @param nextCursor курсор следующей страницы или null, если страница последняя
+     */
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Получить элементы страницы
+     * @return неизменяемый список элементов
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Получить курсор следующей страницы
+     * @return курсор или null, если страница последняя
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Проверить, есть ли следующая страница
+     * @return true, если после этой страницы есть элементы
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -3,7 +3,9 @@ package taskmanager.service;
 import taskmanager.model.Epic;
 import taskmanager.model.Subtask;
 import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -51,8 +53,90 @@ public interface TaskManager {
 
     List<Subtask> getSubtasksByEpicId(int epicId);
 
+    /**
+     * Получить задачу по идентификатору без записи в историю просмотров
+     * Предназначен для служебных проверок, которые не являются просмотром задачи пользователем
+     * @param id идентификатор задачи
+     * @return задача или null, если задачи нет
+     */
+    Task peekTaskById(int id);
+
+    /**
+     * Получить эпик по идентификатору без записи в историю просмотров
+     * @param id идентификатор эпика
+     * @return эпик или null, если эпика нет
+     */
+    Epic peekEpicById(int id);
+
+    /**
+     * Получить подзадачу по идентификатору без записи в историю просмотров
+     * @param id идентификатор подзадачи
+     * @return подзадача или null, если подзадачи нет
+     */
+    Subtask peekSubtaskById(int id);
+
+    /**
+     * Проверить, есть ли задача с указанным идентификатором; история просмотров не меняется
+     * @param id идентификатор задачи
+     * @return true, если задача есть
+     */
+    default boolean containsTask(int id) {
+        return peekTaskById(id) != null;
+    }
+
+    /**
+     * Проверить, есть ли эпик с указанным идентификатором; история просмотров не меняется
+     * @param id идентификатор эпика
+     * @return true, если эпик есть
+     */
+    default boolean containsEpic(int id) {
+        return peekEpicById(id) != null;
+    }
+
+    /**
+     * Проверить, есть ли подзадача с указанным идентификатором; история просмотров не меняется
+     * @param id идентификатор подзадачи
+     * @return true, если подзадача есть
+     */
+    default boolean containsSubtask(int id) {
+        return peekSubtaskById(id) != null;
+    }
+
     // Метод для получения истории просмотров
     List<Task> getHistory();
+
+    /**
+     * Получить задачу по идентификатору и записать просмотр в историю клиента
+     * @param id идентификатор задачи
+     * @param clientId идентификатор клиента или null, чтобы записать просмотр в общую историю
+     * @return задача или null, если задачи нет
+     */
+    Task getTaskById(int id, String clientId);
+
+    /**
+     * Получить эпик по идентификатору и записать просмотр в историю клиента
+     * @param id идентификатор эпика
+     * @param clientId идентификатор клиента или null, чтобы записать просмотр в общую историю
+     * @return эпик или null, если эпика нет
+     */
+    Epic getEpicById(int id, String clientId);
+
+    /**
+     * Получить подзадачу по идентификатору и записать просмотр в историю клиента
+     * @param id идентификатор подзадачи
+     * @param clientId идентификатор клиента или null, чтобы записать просмотр в общую историю
+     * @return подзадача или null, если подзадачи нет
+     */
+    Subtask getSubtaskById(int id, String clientId);
+
+    /**
+     * Получить историю просмотров клиента
+     * Истории клиентов, дольше всех не обращавшихся к менеджеру, могут быть вытеснены
+     * @param clientId идентификатор клиента или null, чтобы получить общую историю
+     * @return список задач в порядке их просмотра (от самых старых к самым новым)
+     */
+    List<Task> getHistory(String clientId);
+
     /**
      * Получить список задач и подзадач, отсортированных по времени начала
      * Задачи без времени начала не включаются в список
@@ -60,4 +144,123 @@ public interface TaskManager {
      */
 
     List<Task> getPrioritizedTasks();
-}
\ No newline at end of file
+
+    /**
+     * Получить задачи и подзадачи, время начала которых попадает в интервал, в порядке времени начала
+     * Например, все задачи недели или следующие N задач начиная с текущего момента
+     * @param from начало интервала включительно или null, если интервал не ограничен слева
+     * @param to конец интервала не включительно или null, если интервал не ограничен справа
+     * @param limit максимальное количество задач, больше нуля
+     * @return отсортированный список задач и подзадач
+     * @throws IllegalArgumentException если limit не положителен или from позже to
+     */
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    // Постраничное получение списков
+    // Страницы упорядочены по идентификатору (приоритизированные задачи - по времени начала),
+    // стоимость вызова пропорциональна размеру страницы, а не количеству задач
+
+    /**
+     * Получить страницу задач
+     * @param limit максимальное количество задач на странице, больше нуля
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @return страница задач
+     * @throws IllegalArgumentException если limit не положителен или курсор некорректен
+     */
+    Page<Task> getTasks(int limit, String cursor);
+
+    /**
+     * Получить страницу эпиков
+     * @param limit максимальное количество эпиков на странице, больше нуля
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @return страница эпиков
+     * @throws IllegalArgumentException если limit не положителен или курсор некорректен
+     */
+    Page<Epic> getEpics(int limit, String cursor);
+
+    /**
+     * Получить страницу подзадач
+     * @param limit максимальное количество подзадач на странице, больше нуля
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @return страница подзадач
+     * @throws IllegalArgumentException если limit не положителен или курсор некорректен
+     */
+    Page<Subtask> getSubtasks(int limit, String cursor);
+
+    /**
+     * Получить страницу задач и подзадач, отсортированных по времени начала
+     * @param limit максимальное количество задач на странице, больше нуля
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     * @return страница задач и подзадач
+     * @throws IllegalArgumentException если limit не положителен или курсор некорректен
+     */
+    Page<Task> getPrioritizedTasks(int limit, String cursor);
+
+    // Получение задач по статусу через вторичный индекс, без обхода всех задач
+
+    /**
+     * Получить задачи в указанном статусе
+     * @param status статус
+     * @return список задач, упорядоченных по идентификатору
+     */
+    List<Task> getTasksByStatus(TaskStatus status);
+
+    /**
+     * Получить эпики в указанном статусе
+     * @param status статус
+     * @return список эпиков, упорядоченных по идентификатору
+     */
+    List<Epic> getEpicsByStatus(TaskStatus status);
+
+    /**
+     * Получить подзадачи в указанном статусе
+     * @param status статус
+     * @return список подзадач, упорядоченных по идентификатору
+     */
+    List<Subtask> getSubtasksByStatus(TaskStatus status);
+
+    /**
+     * Получить количество задач в указанном статусе за O(1)
+     * @param status статус
+     * @return количество задач
+     */
+    int countTasksByStatus(TaskStatus status);
+
+    /**
+     * Получить количество эпиков в указанном статусе за O(1)
+     * @param status статус
+     * @return количество эпиков
+     */
+    int countEpicsByStatus(TaskStatus status);
+
+    /**
+     * Получить количество подзадач в указанном статусе за O(1)
+     * @param status статус
+     * @return количество подзадач
+     */
+    int countSubtasksByStatus(TaskStatus status);
+
+    // Версии для условных запросов: по версии клиент узнает, изменились ли данные, не загружая их
+
+    /**
+     * Получить версию состояния менеджера
+     * Версия только возрастает и меняется при каждом изменении задач, эпиков или подзадач
+     * @return версия менеджера
+     */
+    long getVersion();
+
+    /**
+     * Получить версию задачи, эпика или подзадачи
+     * Версия объекта меняется при каждом его изменении; версия эпика меняется и при изменении его подзадач
+     * @param id идентификатор объекта
+     * @return версия объекта или -1, если объекта нет
+     */
+    long getVersion(int id);
+
+    /**
+     * Получить версию истории просмотров
+     * Меняется при каждом просмотре; удаление просмотренных объектов меняет версию менеджера
+     * @return версия истории просмотров
+     */
+    long getHistoryVersion();
+}
@@ -0,0 +1,304 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+import taskmanager.model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат снимка менеджера задач
+ * Файл состоит из заголовка, записей задач фиксированной длины, идентификаторов истории просмотров
+ * и таблицы строк. Названия и описания хранятся в таблице строк один раз и задаются в записях индексом,
+ * поэтому запятые и переводы строк в них не нарушают формат
+ *
+ * Заголовок (32 байта): сигнатура, версия, флаги, количество записей, размер истории,
+ * количество строк, размер таблицы строк в байтах, CRC32C содержимого после заголовка
+ *
+ * Запись (40 байт): id, тип, статус, флаги, id эпика, индекс названия, индекс описания,
+ * продолжительность в минутах, время начала в секундах от эпохи и наносекунды
+ */
+class BinarySnapshotCodec {
+    // Сигнатура "TKBS" в начале файла, по которой формат определяется при загрузке
+    static final int MAGIC = 0x544B4253;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 40;
+
+    // Индекс отсутствующей строки
+    private static final int NO_STRING = -1;
+    // Флаг записи: у задачи задано время начала
+    private static final short HAS_START_TIME = 1;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private BinarySnapshotCodec() {
+    }
+
+    /**
+     * Сформировать двоичный снимок
+     * Задачи записываются в порядке: обычные задачи, эпики, подзадачи, чтобы при загрузке
+     * эпик всегда был добавлен раньше своих подзадач
+     * @param tasks обычные задачи
+     * @param epics эпики
+     * @param subtasks подзадачи
+     * @param history история просмотров
+     * @return содержимое файла снимка
+     */
+    static byte[] encode(List<Task> tasks, List<Epic> epics, List<Subtask> subtasks, List<Task> history) {
+        int records = tasks.size() + epics.size() + subtasks.size();
+        StringTable strings = new StringTable();
+        int[] nameRefs = new int[records];
+        int[] descriptionRefs = new int[records];
+        int index = 0;
+        for (List<? extends Task> group : List.of(tasks, epics, subtasks)) {
+            for (Task task : group) {
+                nameRefs[index] = strings.intern(task.getName());
+                descriptionRefs[index] = strings.intern(task.getDescription());
+                index++;
+            }
+        }
+
+        int size = HEADER_SIZE + records * RECORD_SIZE + history.size() * Integer.BYTES + strings.byteSize;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.position(HEADER_SIZE);
+
+        index = 0;
+        for (List<? extends Task> group : List.of(tasks, epics, subtasks)) {
+            for (Task task : group) {
+                writeRecord(buffer, task, nameRefs[index], descriptionRefs[index]);
+                index++;
+            }
+        }
+        for (Task task : history) {
+            buffer.putInt(task.getId());
+        }
+        for (byte[] value : strings.values) {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_SIZE, size - HEADER_SIZE);
+
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) 0);
+        buffer.putInt(8, records);
+        buffer.putInt(12, history.size());
+        buffer.putInt(16, strings.values.size());
+        buffer.putInt(20, strings.byteSize);
+        buffer.putInt(24, (int) crc.getValue());
+        buffer.putInt(28, 0);
+        return buffer.array();
+    }
+
+    private static void writeRecord(ByteBuffer buffer, Task task, int nameRef, int descriptionRef) {
+        TaskType type = JournalRecord.typeOf(task);
+        LocalDateTime startTime = task.getStartTime();
+        Duration duration = task.getDuration();
+
+        buffer.putInt(task.getId());
+        buffer.put((byte) type.ordinal());
+        buffer.put((byte) task.getStatus().ordinal());
+        buffer.putShort(startTime != null ? HAS_START_TIME : 0);
+        buffer.putInt(task instanceof Subtask ? ((Subtask) task).getEpicId() : 0);
+        buffer.putInt(nameRef);
+        buffer.putInt(descriptionRef);
+        buffer.putLong(duration != null ? duration.toMinutes() : 0);
+        buffer.putLong(startTime != null ? startTime.toEpochSecond(ZoneOffset.UTC) : 0);
+        buffer.putInt(startTime != null ? startTime.getNano() : 0);
+    }
+
+    /**
+     * Проверить, записан ли файл в двоичном формате
+     * @param file файл снимка
+     * @return true, если файл начинается с сигнатуры двоичного снимка
+     * @throws IOException если произошла ошибка при чтении файла
+     */
+    static boolean isBinary(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) {
+                    return false;
+                }
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Загрузить двоичный снимок в менеджер
+     * Файл отображается в память, проверяются размер и контрольная сумма, после чего записи
+     * читаются прямо из отображения и добавляются в менеджер одним пакетом
+     * @param file файл снимка
+     * @param manager менеджер, в который добавляются задачи
+     * @return false, если файл оборван или поврежден; в этом случае менеджер не изменяется
+     * @throws IOException если произошла ошибка при чтении файла
+     */
+    static boolean load(File file, FileBackedTaskManager manager) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return false;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            return false;
+        }
+        int records = buffer.getInt(8);
+        int historySize = buffer.getInt(12);
+        int stringCount = buffer.getInt(16);
+        int stringBytes = buffer.getInt(20);
+        int checksum = buffer.getInt(24);
+        if (records < 0 || historySize < 0 || stringCount < 0 || stringBytes < 0) {
+            return false;
+        }
+        long expectedSize = HEADER_SIZE + (long) records * RECORD_SIZE
+                + (long) historySize * Integer.BYTES + stringBytes;
+        if (buffer.capacity() != expectedSize) {
+            return false;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_SIZE));
+        if ((int) crc.getValue() != checksum) {
+            return false;
+        }
+
+        int historyOffset = HEADER_SIZE + records * RECORD_SIZE;
+        String[] strings = readStrings(buffer, historyOffset + historySize * Integer.BYTES, stringCount);
+        if (strings == null) {
+            return false;
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < records; i++) {
+            Task task = readRecord(buffer, HEADER_SIZE + i * RECORD_SIZE, strings);
+            if (task instanceof Epic) {
+                epics.add((Epic) task);
+            } else if (task instanceof Subtask) {
+                subtasks.add((Subtask) task);
+            } else {
+                tasks.add(task);
+            }
+        }
+        manager.addAllWithIds(tasks, epics, subtasks);
+        for (int i = 0; i < historySize; i++) {
+            restoreHistoryEntry(manager, buffer.getInt(historyOffset + i * Integer.BYTES));
+        }
+        return true;
+    }
+
+    // Прочитать таблицу строк, null если ссылки выходят за ее пределы
+    private static String[] readStrings(ByteBuffer buffer, int offset, int count) {
+        String[] strings = new String[count];
+        int position = offset;
+        for (int i = 0; i < count; i++) {
+            if (position + Integer.BYTES > buffer.capacity()) {
+                return null;
+            }
+            int length = buffer.getInt(position);
+            position += Integer.BYTES;
+            if (length < 0 || position + length > buffer.capacity()) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += length;
+        }
+        return strings;
+    }
+
+    // Создать задачу из записи
+    private static Task readRecord(ByteBuffer buffer, int offset, String[] strings) {
+        int id = buffer.getInt(offset);
+        TaskType type = TYPES[buffer.get(offset + 4)];
+        TaskStatus status = STATUSES[buffer.get(offset + 5)];
+        short flags = buffer.getShort(offset + 6);
+        int epicId = buffer.getInt(offset + 8);
+        String name = stringAt(strings, buffer.getInt(offset + 12));
+        String description = stringAt(strings, buffer.getInt(offset + 16));
+        Duration duration = Duration.ofMinutes(buffer.getLong(offset + 20));
+        LocalDateTime startTime = null;
+        if ((flags & HAS_START_TIME) != 0) {
+            startTime = LocalDateTime.ofEpochSecond(buffer.getLong(offset + 28), buffer.getInt(offset + 36),
+                    ZoneOffset.UTC);
+        }
+
+        switch (type) {
+            case EPIC:
+                Epic epic = new Epic(name, description, id, status);
+                epic.setDuration(duration);
+                epic.setStartTime(startTime);
+                return epic;
+            case SUBTASK:
+                return new Subtask(name, description, id, status, epicId, duration, startTime);
+            default:
+                return new Task(name, description, id, status, duration, startTime);
+        }
+    }
+
+    private static String stringAt(String[] strings, int ref) {
+        return ref == NO_STRING ? null : strings[ref];
+    }
+
+    // Добавить задачу в историю просмотров, идентификаторы уникальны для всех типов задач
+    private static void restoreHistoryEntry(FileBackedTaskManager manager, int id) {
+        if (manager.peekTaskById(id) != null) {
+            manager.getTaskById(id);
+        } else if (manager.peekEpicById(id) != null) {
+            manager.getEpicById(id);
+        } else if (manager.peekSubtaskById(id) != null) {
+            manager.getSubtaskById(id);
+        }
+    }
+
+    /**
+     * Таблица строк снимка: каждая различная строка хранится один раз
+     */
+    private static class StringTable {
+        final Map<String, Integer> refs = new HashMap<>();
+        final List<byte[]> values = new ArrayList<>();
+        int byteSize;
+
+        int intern(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                ref = values.size();
+                refs.put(value, ref);
+                values.add(bytes);
+                byteSize += Integer.BYTES + bytes.length;
+            }
+            return ref;
+        }
+    }
+}
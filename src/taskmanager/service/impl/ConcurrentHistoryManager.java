@@ -0,0 +1,184 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Task;
+import taskmanager.service.HistoryManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потокобезопасная история просмотров без общего монитора
+ * Каждый просмотр дописывается в конец неблокирующей очереди ConcurrentLinkedQueue, а ConcurrentHashMap
+ * хранит запись последнего просмотра каждой задачи. Прежняя запись задачи не вырезается из середины
+ * очереди, а только помечается устаревшей, поэтому перенос в конец истории стоит O(1).
+ * Замена записи выполняется внутри compute по идентификатору задачи: просмотры одной задачи упорядочены
+ * блокировкой ее ячейки ConcurrentHashMap, а просмотры разных задач не мешают друг другу.
+ * Устаревшие записи удаляются из очереди порциями, когда их становится больше актуальных.
+ * Чтение истории не блокирует запись и возвращает слабо согласованный снимок в порядке просмотра без повторов.
+ * На одном ядре реализация медленнее истории под монитором (см. HistoryThroughputBenchmark), поэтому
+ * она не используется по умолчанию и подключается явно через Managers.getConcurrentHistory()
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    // Меньшее количество устаревших записей не стоит прохода по очереди
+    private static final int MIN_COMPACTION_SIZE = 64;
+
+    private final ConcurrentLinkedQueue<Entry> log = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+    // Размер ConcurrentLinkedQueue вычисляется обходом, поэтому записи считаются отдельно
+    private final AtomicInteger liveCount = new AtomicInteger();
+    private final AtomicInteger staleCount = new AtomicInteger();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final int capacity;
+
+    /**
+     * Запись о просмотре задачи
+     */
+    private static class Entry {
+        final Task task;
+        // Запись перестает быть актуальной при повторном просмотре, удалении или вытеснении задачи
+        volatile boolean live = true;
+        // Устаревшую запись убирает из очереди ровно один поток - тот, который первым ее захватил
+        final AtomicBoolean unlinked = new AtomicBoolean();
+
+        Entry(Task task) {
+            this.task = task;
+        }
+    }
+
+    /**
+     * Конструктор для создания новой истории без ограничения размера
+     */
+    public ConcurrentHistoryManager() {
+        this(InMemoryHistoryManager.UNBOUNDED);
+    }
+
+    /**
+     * Конструктор для создания новой истории с ограниченным размером
+     * @param capacity наибольшее количество задач в истории
+     * @throws IllegalArgumentException если емкость не положительна
+     */
+    public ConcurrentHistoryManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Емкость истории должна быть положительной: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Добавить задачу в историю просмотров
+     * @param task задача, которая была просмотрена
+     */
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        Entry entry = new Entry(task);
+        entries.compute(task.getId(), (id, previous) -> {
+            if (previous != null) {
+                retire(previous);
+            } else {
+                liveCount.incrementAndGet();
+            }
+            // Запись попадает в очередь под блокировкой ячейки, чтобы повторные просмотры задачи не менялись местами
+            log.offer(entry);
+            return entry;
+        });
+        evictOverflow();
+        compactIfNeeded();
+    }
+
+    /**
+     * Удалить задачу из истории просмотров по идентификатору
+     * @param id идентификатор задачи, которую нужно удалить из истории
+     */
+    @Override
+    public void remove(int id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            retire(removed);
+            liveCount.decrementAndGet();
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Получить историю просмотров задач
+     * @return список задач в порядке их просмотра (от самых старых к самым новым)
+     */
+    @Override
+    public List<Task> getHistory() {
+        // Пока читатель идет по очереди, задачу могут просмотреть снова: он увидит и прежнюю запись,
+        // пока она была актуальной, и новую в конце. Повтор переносит задачу на позицию нового просмотра
+        Map<Integer, Task> history = new LinkedHashMap<>();
+        for (Entry entry : log) {
+            if (entry.live) {
+                history.remove(entry.task.getId());
+                history.put(entry.task.getId(), entry.task);
+            }
+        }
+        return new ArrayList<>(history.values());
+    }
+
+    /**
+     * Получить наибольшее количество задач в истории
+     * @return емкость истории или InMemoryHistoryManager.UNBOUNDED, если размер не ограничен
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Пометить запись устаревшей; из очереди она будет удалена при уплотнении
+    private void retire(Entry entry) {
+        entry.live = false;
+        staleCount.incrementAndGet();
+    }
+
+    // Вытеснять самые давние просмотры от головы очереди, пока история больше емкости
+    // Проход однократный: устаревшие записи по пути удаляются, а записи, которые другой поток
+    // сейчас заменяет, пропускаются; оставшееся превышение устранит следующий просмотр
+    private void evictOverflow() {
+        Iterator<Entry> iterator = log.iterator();
+        while (liveCount.get() > capacity && iterator.hasNext()) {
+            Entry oldest = iterator.next();
+            // Запись вытесняется, только если она все еще последняя для своей задачи
+            if (oldest.live && entries.remove(oldest.task.getId(), oldest)) {
+                retire(oldest);
+                liveCount.decrementAndGet();
+            }
+            if (!oldest.live && oldest.unlinked.compareAndSet(false, true)) {
+                iterator.remove();
+                staleCount.decrementAndGet();
+            }
+        }
+    }
+
+    // Удалить устаревшие записи из очереди, если их больше, чем актуальных; уплотнение выполняет один поток
+    private void compactIfNeeded() {
+        int stale = staleCount.get();
+        if (stale < MIN_COMPACTION_SIZE || stale <= liveCount.get() || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int removed = 0;
+            Iterator<Entry> iterator = log.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (!entry.live && entry.unlinked.compareAndSet(false, true)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            staleCount.addAndGet(-removed);
+        } finally {
+            compacting.set(false);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+import taskmanager.service.HistoryManager;
+import taskmanager.service.Page;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Потокобезопасный менеджер задач в памяти для многопоточного HTTP-сервера
+ * Изменения выполняются под эксклюзивной блокировкой записи StampedLock, поэтому составные операции
+ * (проверка пересечений и вставка, пересчет полей эпика, каскадное удаление подзадач) остаются атомарными.
+ * Точечные чтения обходятся без блокировки: задачи, эпики и подзадачи хранятся в ConcurrentSkipListMap,
+ * версии объектов - в ConcurrentHashMap, количество задач по статусу - в атомарных счетчиках, а версии
+ * менеджера и истории - в volatile-счетчиках. Полные списки и выборки из приоритизированного списка
+ * отдаются из неизменяемых снимков, пока снимок актуален.
+ * Под общей блокировкой чтения остаются только чтения, обходящие несколько объектов (страницы, фильтры
+ * по статусу, подзадачи эпика) и перестроение устаревшего снимка: без блокировки они могли бы увидеть
+ * составную операцию записи наполовину.
+ * Просмотр по идентификатору изменяет историю без блокировки, поэтому история должна быть
+ * потокобезопасной: ConcurrentHistoryManager используется как есть, остальные оборачиваются
+ * в SynchronizedHistoryManager. Просмотр, совпавший по времени с удалением объекта, проверяется
+ * по штампу оптимистичного чтения, чтобы удаленный объект не остался в истории
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private final StampedLock lock = new StampedLock();
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    /**
+     * Конструктор для создания нового ConcurrentTaskManager
+     */
+    public ConcurrentTaskManager() {
+        this(new InMemoryHistoryManager());
+    }
+
+    /**
+     * Конструктор для создания нового ConcurrentTaskManager с указанным HistoryManager
+     * @param historyManager менеджер истории просмотров; если он не потокобезопасен, доступ к нему будет синхронизирован
+     */
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        super(historyManager instanceof ConcurrentHistoryManager
+                ? historyManager
+                : new SynchronizedHistoryManager(historyManager), true);
+        this.readLock = lock.asReadLock();
+        this.writeLock = lock.asWriteLock();
+    }
+
+    // Методы для работы с задачами
+
+    @Override
+    public List<Task> getAllTasks() {
+        List<Task> cached = cachedAllTasks();
+        if (cached != null) {
+            return cached;
+        }
+        readLock.lock();
+        try {
+            return super.getAllTasks();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id, String clientId) {
+        long stamp = lock.tryOptimisticRead();
+        Task task = super.getTaskById(id, clientId);
+        confirmView(task, clientId, stamp);
+        return task;
+    }
+
+    @Override
+    public void createTask(Task task) {
+        writeLock.lock();
+        try {
+            super.createTask(task);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        writeLock.lock();
+        try {
+            super.updateTask(task);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        writeLock.lock();
+        try {
+            super.deleteTaskById(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        writeLock.lock();
+        try {
+            super.deleteAllTasks();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Методы для работы с эпиками
+
+    @Override
+    public List<Epic> getAllEpics() {
+        List<Epic> cached = cachedAllEpics();
+        if (cached != null) {
+            return cached;
+        }
+        readLock.lock();
+        try {
+            return super.getAllEpics();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Epic getEpicById(int id, String clientId) {
+        long stamp = lock.tryOptimisticRead();
+        Epic epic = super.getEpicById(id, clientId);
+        confirmView(epic, clientId, stamp);
+        return epic;
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        writeLock.lock();
+        try {
+            super.createEpic(epic);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        writeLock.lock();
+        try {
+            super.updateEpic(epic);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        writeLock.lock();
+        try {
+            super.deleteEpicById(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        writeLock.lock();
+        try {
+            super.deleteAllEpics();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Методы для работы с подзадачами
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        List<Subtask> cached = cachedAllSubtasks();
+        if (cached != null) {
+            return cached;
+        }
+        readLock.lock();
+        try {
+            return super.getAllSubtasks();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id, String clientId) {
+        long stamp = lock.tryOptimisticRead();
+        Subtask subtask = super.getSubtaskById(id, clientId);
+        confirmView(subtask, clientId, stamp);
+        return subtask;
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        writeLock.lock();
+        try {
+            super.createSubtask(subtask);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        writeLock.lock();
+        try {
+            super.updateSubtask(subtask);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        writeLock.lock();
+        try {
+            super.deleteSubtaskById(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        writeLock.lock();
+        try {
+            super.deleteAllSubtasks();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        readLock.lock();
+        try {
+            return super.getSubtasksByEpicId(epicId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Отсортированный список
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        TaskIntervalIndex.Snapshot cached = cachedPrioritizedTasks();
+        if (cached != null) {
+            return cached;
+        }
+        readLock.lock();
+        try {
+            return super.getPrioritizedTasks();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    protected List<Task> prioritizedRange(LocalDateTime afterStart, int afterId, LocalDateTime to, int limit) {
+        // Актуальный снимок хранит копии ключей, поэтому выборка по нему не требует блокировки
+        TaskIntervalIndex.Snapshot cached = cachedPrioritizedTasks();
+        if (cached != null) {
+            return cached.range(afterStart, afterId, to, limit);
+        }
+        readLock.lock();
+        try {
+            return super.prioritizedRange(afterStart, afterId, to, limit);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Постраничное получение списков
+
+    @Override
+    public Page<Task> getTasks(int limit, String cursor) {
+        readLock.lock();
+        try {
+            return super.getTasks(limit, cursor);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Page<Epic> getEpics(int limit, String cursor) {
+        readLock.lock();
+        try {
+            return super.getEpics(limit, cursor);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Page<Subtask> getSubtasks(int limit, String cursor) {
+        readLock.lock();
+        try {
+            return super.getSubtasks(limit, cursor);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Получение задач по статусу
+
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        readLock.lock();
+        try {
+            return super.getTasksByStatus(status);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(TaskStatus status) {
+        readLock.lock();
+        try {
+            return super.getEpicsByStatus(status);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(TaskStatus status) {
+        readLock.lock();
+        try {
+            return super.getSubtasksByStatus(status);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void addAllWithIds(Collection<? extends Task> newTasks, Collection<Epic> newEpics,
+                              Collection<Subtask> newSubtasks) {
+        writeLock.lock();
+        try {
+            super.addAllWithIds(newTasks, newEpics, newSubtasks);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Версии для условных запросов
+
+    @Override
+    public long getVersion() {
+        // Счетчик публикуется через volatile-поле и читается без блокировки
+        return super.getVersion();
+    }
+
+    @Override
+    public long getVersion(int id) {
+        // Версии объектов хранятся в ConcurrentHashMap и читаются без блокировки
+        return super.getVersion(id);
+    }
+
+    @Override
+    public long getHistoryVersion() {
+        // Счетчик публикуется через volatile-поле и читается без блокировки
+        return super.getHistoryVersion();
+    }
+
+    // Проверить, что просмотр без блокировки не записал в историю объект, удаленный одновременно с ним
+    // Если с момента stamp не было записи, удаление не могло очистить историю раньше просмотра.
+    // Иначе после завершения записи объект, которого больше нет, убирается из истории; истории клиентов
+    // сами отбрасывают удаленные объекты при чтении
+    private void confirmView(Task viewed, String clientId, long stamp) {
+        if (viewed == null || clientId != null || lock.validate(stamp)) {
+            return;
+        }
+        readLock.lock();
+        try {
+            discardViewIfDeleted(viewed.getId());
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Накопленные значения подзадач одного эпика
+ * Хранит количество подзадач по статусам, суммарную продолжительность и упорядоченные мультимножества
+ * времен начала и завершения, поэтому статус и временные поля эпика обновляются за O(log k)
+ * при изменении одной подзадачи вместо обхода всех k подзадач.
+ * Вклад каждой подзадачи запоминается отдельно: объект подзадачи может быть изменен снаружи до вызова
+ * обновления, и прежние значения нельзя прочитать из него самого
+ */
+class EpicAggregate {
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    private Duration totalDuration = Duration.ZERO;
+
+    /**
+     * Учесть подзадачу; если она уже учтена, ее прежний вклад заменяется
+     * @param subtask подзадача в актуальном состоянии
+     */
+    void put(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask);
+        contributions.put(subtask.getId(), contribution);
+        statusCounts[contribution.status.ordinal()]++;
+        if (contribution.startTime != null) {
+            increment(startTimes, contribution.startTime);
+            increment(endTimes, contribution.endTime);
+            totalDuration = totalDuration.plus(contribution.duration);
+        }
+    }
+
+    /**
+     * Исключить вклад подзадачи
+     * @param subtaskId идентификатор подзадачи
+     */
+    void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+        statusCounts[contribution.status.ordinal()]--;
+        if (contribution.startTime != null) {
+            decrement(startTimes, contribution.startTime);
+            decrement(endTimes, contribution.endTime);
+            totalDuration = totalDuration.minus(contribution.duration);
+        }
+    }
+
+    /**
+     * Исключить все подзадачи
+     */
+    void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        startTimes.clear();
+        endTimes.clear();
+        totalDuration = Duration.ZERO;
+    }
+
+    /**
+     * Установить статус эпика по количеству подзадач в каждом статусе
+     * Без подзадач или если все подзадачи новые - NEW, если все завершены - DONE, иначе IN_PROGRESS
+     * @param epic эпик
+     */
+    void applyStatus(Epic epic) {
+        int count = contributions.size();
+        if (statusCounts[TaskStatus.NEW.ordinal()] == count) {
+            epic.setStatus(TaskStatus.NEW);
+        } else if (statusCounts[TaskStatus.DONE.ordinal()] == count) {
+            epic.setStatus(TaskStatus.DONE);
+        } else {
+            epic.setStatus(TaskStatus.IN_PROGRESS);
+        }
+    }
+
+    /**
+     * Установить время начала, продолжительность и время завершения эпика
+     * Учитываются только подзадачи со временем начала
+     * @param epic эпик
+     */
+    void applyTimeFields(Epic epic) {
+        epic.setStartTime(startTimes.isEmpty() ? null : startTimes.firstKey());
+        epic.setDuration(totalDuration);
+        epic.setEndTime(endTimes.isEmpty() ? null : endTimes.lastKey());
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        times.merge(time, 1, Integer::sum);
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Значения подзадачи на момент последнего учета
+     */
+    private static class Contribution {
+        final TaskStatus status;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+        final Duration duration;
+
+        Contribution(Subtask subtask) {
+            // Подзадача без статуса не считается ни новой, ни завершенной
+            this.status = subtask.getStatus() != null ? subtask.getStatus() : TaskStatus.IN_PROGRESS;
+            this.startTime = subtask.getStartTime();
+            this.endTime = subtask.getEndTime();
+            this.duration = subtask.getDuration();
+        }
+    }
+}
@@ -10,25 +10,48 @@ import taskmanager.service.HistoryManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Реализация менеджера задач с автосохранением в файл
  */
 public class FileBackedTaskManager extends InMemoryTaskManager {
+    // Однопоточная потоковая загрузка текстового снимка
+    static final int SEQUENTIAL = 0;
+
     private final File file;
+    // Формат, в котором записывается снимок
+    private SnapshotFormat format;
+    // Признак восстановления состояния из файла, при котором изменения не сохраняются
+    private boolean restoring;
 
     /**
      * Конструктор для создания нового FileBackedTaskManager
      * @param file файл для сохранения данных
      */
     public FileBackedTaskManager(File file) {
+        this(file, SnapshotFormat.CSV);
+    }
+
+    /**
+     * Конструктор для создания нового FileBackedTaskManager с указанным форматом снимка
+     * @param file файл для сохранения данных
+     * @param format формат снимка
+     */
+    public FileBackedTaskManager(File file, SnapshotFormat format) {
         super();
         this.file = file;
+        this.format = format;
     }
 
     /**
@@ -37,66 +60,391 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
      * @param historyManager менеджер истории просмотров
      */
     public FileBackedTaskManager(File file, HistoryManager historyManager) {
+        this(file, historyManager, SnapshotFormat.CSV);
+    }
+
+    /**
+     * Конструктор для создания нового FileBackedTaskManager с указанным HistoryManager и форматом снимка
+     * @param file файл для сохранения данных
+     * @param historyManager менеджер истории просмотров
+     * @param format формат снимка
+     */
+    public FileBackedTaskManager(File file, HistoryManager historyManager, SnapshotFormat format) {
         super(historyManager);
         this.file = file;
+        this.format = format;
     }
 
     /**
      * Сохранить текущее состояние менеджера в файл
      */
     protected void save() {
-        try {
-            StringBuilder sb = new StringBuilder();
+        writeSnapshot(encodeSnapshot());
+    }
+
+    /**
+     * Сформировать содержимое файла снимка в формате менеджера
+     * Текстовый снимок дополняется заголовком с количеством записей, длиной и контрольной суммой
+     * @return содержимое файла
+     */
+    protected byte[] encodeSnapshot() {
+        if (format == SnapshotFormat.BINARY) {
+            return BinarySnapshotCodec.encode(getAllTasks(), getAllEpics(), getAllSubtasks(), getHistory());
+        }
+        String content = renderSnapshot();
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        SnapshotHeader header = SnapshotHeader.of(countRecords(content), body);
+        byte[] headerLine = (header + "\n").getBytes(StandardCharsets.UTF_8);
+
+        byte[] data = new byte[headerLine.length + body.length];
+        System.arraycopy(headerLine, 0, data, 0, headerLine.length);
+        System.arraycopy(body, 0, data, headerLine.length, body.length);
+        return data;
+    }
 
-            // Добавляем заголовок
-            sb.append("id,type,name,status,description,epic,duration,startTime\n");
+    /**
+     * Получить формат, в котором записывается снимок
+     * После загрузки он совпадает с форматом прочитанного файла
+     * @return формат снимка
+     */
+    public SnapshotFormat getSnapshotFormat() {
+        return format;
+    }
 
-            // Сохраняем задачи
-            List<Task> tasks = getAllTasks();
-            System.out.println("[DEBUG] Сохраняем " + tasks.size() + " задач");
-            for (Task task : tasks) {
-                String taskStr = toString(task);
-                sb.append(taskStr).append("\n");
-            }
+    /**
+     * Сменить формат снимка и сразу перезаписать файл в новом формате
+     * @param format новый формат снимка
+     */
+    public void setSnapshotFormat(SnapshotFormat format) {
+        this.format = format;
+        save();
+    }
 
-            // Сохраняем эпики
-            List<Epic> epics = getAllEpics();
-            for (Epic epic : epics) {
-                String epicStr = toString(epic);
-                sb.append(epicStr).append("\n");
-            }
+    /**
+     * Сформировать содержимое текстового снимка из текущего состояния менеджера
+     * @return содержимое файла без заголовка снимка
+     */
+    protected String renderSnapshot() {
+        StringBuilder sb = new StringBuilder();
+
+        // Добавляем заголовок
+        sb.append("id,type,name,status,description,epic,duration,startTime\n");
+
+        // Сохраняем задачи
+        List<Task> tasks = getAllTasks();
+        System.out.println("[DEBUG] Сохраняем " + tasks.size() + " задач");
+        for (Task task : tasks) {
+            String taskStr = toString(task);
+            sb.append(taskStr).append("\n");
+        }
 
-            // Сохраняем подзадачи
-            List<Subtask> subtasks = getAllSubtasks();
-            for (Subtask subtask : subtasks) {
-                String subtaskStr = toString(subtask);
-                sb.append(subtaskStr).append("\n");
+        // Сохраняем эпики
+        List<Epic> epics = getAllEpics();
+        for (Epic epic : epics) {
+            String epicStr = toString(epic);
+            sb.append(epicStr).append("\n");
+        }
+
+        // Сохраняем подзадачи
+        List<Subtask> subtasks = getAllSubtasks();
+        for (Subtask subtask : subtasks) {
+            String subtaskStr = toString(subtask);
+            sb.append(subtaskStr).append("\n");
+        }
+
+        // Добавляем пустую строку перед историей
+        sb.append("\n");
+
+        // Сохраняем историю просмотров
+        List<Task> history = getHistory();
+        System.out.println("[DEBUG] Сохраняем историю просмотров, размер: " + history.size());
+        if (!history.isEmpty()) {
+            List<String> historyIds = new ArrayList<>();
+            for (Task task : history) {
+                historyIds.add(String.valueOf(task.getId()));
             }
+            String historyStr = String.join(",", historyIds);
+            System.out.println("[DEBUG] Строка истории: " + historyStr);
+            sb.append(historyStr);
+        }
 
-            // Добавляем пустую строку перед историей
-            sb.append("\n");
+        return sb.toString();
+    }
 
-            // Сохраняем историю просмотров
-            List<Task> history = getHistory();
-            System.out.println("[DEBUG] Сохраняем историю просмотров, размер: " + history.size());
-            if (!history.isEmpty()) {
-                List<String> historyIds = new ArrayList<>();
-                for (Task task : history) {
-                    historyIds.add(String.valueOf(task.getId()));
+    /**
+     * Атомарно записать снимок в файл
+     * Снимок пишется во временный файл и сбрасывается на диск. Затем текущий файл переименовывается
+     * в предыдущее поколение, а временный занимает его место.
+     * При сбое на любом шаге на диске остается либо старый, либо новый полный снимок.
+     * Журнал изменений, накопленный поверх старого снимка, переименовывается вместе с ним: предыдущее
+     * поколение и его журнал дают то же состояние, что и новый снимок
+     * @param data содержимое файла, сформированное encodeSnapshot
+     */
+    protected void writeSnapshot(byte[] data) {
+        Path target = file.toPath();
+        Path temp = tempFileFor(file).toPath();
+        Path previous = previousFileFor(file).toPath();
+        Path journal = journalFileFor(file).toPath();
+        Path previousJournal = previousJournalFileFor(file).toPath();
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
                 }
-                String historyStr = String.join(",", historyIds);
-                System.out.println("[DEBUG] Строка истории: " + historyStr);
-                sb.append(historyStr);
+                channel.force(true);
             }
 
-            String content = sb.toString();
-            Files.writeString(file.toPath(), content);
+            // Журнал предыдущего поколения удаляется до того, как это поколение будет заменено,
+            // чтобы рядом с новым предыдущим поколением не оказался журнал более старого снимка
+            Files.deleteIfExists(previousJournal);
+            if (Files.exists(target)) {
+                Files.move(target, previous, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            if (Files.exists(journal)) {
+                Files.move(journal, previousJournal, StandardCopyOption.ATOMIC_MOVE);
+            }
+            syncDirectory(target);
             System.out.println("[DEBUG] Файл сохранен: " + file.getAbsolutePath());
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка при сохранении в файл: " + file.getName(), e);
         }
     }
 
+    // Подсчитать записи задач: строки между заголовком столбцов и пустой строкой перед историей
+    private static int countRecords(String content) {
+        int records = 0;
+        int lineStart = content.indexOf('\n') + 1;
+        while (lineStart > 0 && lineStart < content.length() && content.charAt(lineStart) != '\n') {
+            records++;
+            lineStart = content.indexOf('\n', lineStart) + 1;
+        }
+        return records;
+    }
+
+    // Сбросить на диск каталог, чтобы переименование файлов пережило сбой питания
+    private static void syncDirectory(Path target) {
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Некоторые файловые системы и ОС не позволяют открыть каталог, переименование уже выполнено
+        }
+    }
+
+    /**
+     * Получить временный файл, в который пишется новый снимок перед переименованием
+     * @param file файл снимка
+     * @return временный файл
+     */
+    static File tempFileFor(File file) {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    /**
+     * Получить файл предыдущего поколения снимка
+     * @param file файл снимка
+     * @return файл предыдущего поколения
+     */
+    static File previousFileFor(File file) {
+        return new File(file.getPath() + ".prev");
+    }
+
+    /**
+     * Получить файл журнала, накопленного поверх предыдущего поколения снимка
+     * @param file файл снимка
+     * @return файл журнала предыдущего поколения
+     */
+    static File previousJournalFileFor(File file) {
+        return new File(file.getPath() + ".journal.prev");
+    }
+
+    /**
+     * Сохранить изменение состояния менеджера
+     * По умолчанию после каждого изменения файл перезаписывается целиком
+     * @param record запись об изменении
+     */
+    protected void persist(JournalRecord record) {
+        save();
+    }
+
+    /**
+     * Сохранить результат пакетного добавления
+     * По умолчанию записывается один снимок на весь пакет
+     */
+    protected void persistBulk() {
+        save();
+    }
+
+    /**
+     * Получить файл, в котором хранится снимок состояния
+     * @return файл снимка
+     */
+    protected File getFile() {
+        return file;
+    }
+
+    /**
+     * Получить файл журнала изменений, соответствующий файлу снимка
+     * @param file файл снимка
+     * @return файл журнала
+     */
+    static File journalFileFor(File file) {
+        return new File(file.getPath() + ".journal");
+    }
+
+    // Передать изменение на сохранение, если менеджер не восстанавливается из файла
+    private void recordMutation(JournalRecord record) {
+        if (!restoring) {
+            persist(record);
+        }
+    }
+
+    // Зафиксировать создание или обновление, только если объект действительно попал в менеджер
+    private void recordPut(Task task, Task stored) {
+        if (stored != null && stored == task) {
+            recordMutation(JournalRecord.put(task));
+        }
+    }
+
+    /**
+     * Преобразовать запись журнала в строку
+     * @param record запись журнала
+     * @return строка для добавления в журнал
+     */
+    protected String formatRecord(JournalRecord record) {
+        switch (record.getOperation()) {
+            case PUT:
+                return JournalRecord.Operation.PUT + "," + toString(record.getTask());
+            case DELETE:
+                return JournalRecord.Operation.DELETE + "," + record.getType() + "," + record.getId();
+            default:
+                return JournalRecord.Operation.CLEAR + "," + record.getType();
+        }
+    }
+
+    /**
+     * Преобразовать строку журнала в запись
+     * @param line строка журнала
+     * @return запись журнала
+     */
+    protected JournalRecord parseRecord(String line) {
+        int separator = line.indexOf(',');
+        JournalRecord.Operation operation = JournalRecord.Operation.valueOf(line.substring(0, separator));
+        String payload = line.substring(separator + 1);
+        switch (operation) {
+            case PUT:
+                return JournalRecord.put(fromString(payload));
+            case DELETE:
+                String[] parts = payload.split(",");
+                return JournalRecord.delete(TaskType.valueOf(parts[0]), Integer.parseInt(parts[1]));
+            default:
+                return JournalRecord.clear(TaskType.valueOf(payload));
+        }
+    }
+
+    /**
+     * Применить запись журнала к текущему состоянию
+     * Записи идемпотентны: PUT заменяет объект целиком без проверки пересечений, поэтому повторное
+     * применение уже учтенной в снимке записи не меняет итоговое состояние и не прерывает восстановление
+     * @param record запись журнала
+     */
+    private void applyRecord(JournalRecord record) {
+        int id = record.getId();
+        switch (record.getOperation()) {
+            case PUT:
+                applyPut(record.getTask());
+                break;
+            case DELETE:
+                if (record.getType() == TaskType.TASK) {
+                    deleteTaskById(id);
+                } else if (record.getType() == TaskType.EPIC) {
+                    deleteEpicById(id);
+                } else {
+                    deleteSubtaskById(id);
+                }
+                break;
+            case CLEAR:
+                if (record.getType() == TaskType.TASK) {
+                    deleteAllTasks();
+                } else if (record.getType() == TaskType.EPIC) {
+                    deleteAllEpics();
+                } else {
+                    deleteAllSubtasks();
+                }
+                break;
+        }
+    }
+
+    // Создать или заменить задачу из записи журнала с сохранением ее идентификатора
+    // Запись вставляется как есть, без проверки пересечений: снимок может быть новее записи,
+    // и тогда промежуточное состояние временно пересекается с более поздними изменениями
+    private void applyPut(Task task) {
+        if (task instanceof Epic) {
+            addAllWithIds(List.of(), List.of((Epic) task), List.of());
+        } else if (task instanceof Subtask) {
+            addAllWithIds(List.of(), List.of(), List.of((Subtask) task));
+        } else {
+            addAllWithIds(List.of(task), List.of(), List.of());
+        }
+    }
+
+    /**
+     * Воспроизвести журнал изменений поверх загруженного снимка
+     * Недописанная последняя строка (без перевода строки) считается оборванной записью и пропускается
+     * @param journal файл журнала
+     * @return количество примененных записей
+     * @throws IOException если произошла ошибка при чтении файла
+     * @throws ManagerSaveException если полная запись журнала повреждена
+     */
+    private int replayJournal(File journal) throws IOException {
+        if (!journal.exists()) {
+            return 0;
+        }
+        String content = Files.readString(journal.toPath());
+        int end = content.lastIndexOf('\n');
+        if (end < 0) {
+            return 0;
+        }
+
+        int applied = 0;
+        for (String line : content.substring(0, end).split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JournalRecord record;
+            try {
+                record = parseRecord(line);
+            } catch (RuntimeException e) {
+                // Записи после поврежденной нельзя применять без нее, а пропуск молча терял бы изменения
+                throw new ManagerSaveException("Поврежденная запись журнала " + journal.getName() + " после "
+                        + applied + " примененных записей", e);
+            }
+            applyRecord(record);
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Добавить запись в конец файла журнала
+     * @param journal файл журнала
+     * @param record запись журнала
+     */
+    protected void appendToJournal(File journal, JournalRecord record) {
+        try {
+            Files.writeString(journal.toPath(), formatRecord(record) + "\n",
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал: " + journal.getName(), e);
+        }
+    }
+
     /**
      * Преобразовать задачу в строку для сохранения в файл
      * @param task задача для преобразования
@@ -132,27 +480,31 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
     /**
      * Преобразовать строку из файла в задачу
+     * Поля разбираются последовательным поиском запятых без промежуточного массива строк
      * @param value строка из файла
      * @return задача, созданная из строки
      */
-    private Task fromString(String value) {
-        String[] parts = value.split(",");
-        int id = Integer.parseInt(parts[0]);
-        TaskType type = TaskType.valueOf(parts[1]);
-        String name = parts[2];
-        TaskStatus status = TaskStatus.valueOf(parts[3]);
-        String description = parts[4];
+    static Task fromString(String value) {
+        FieldScanner fields = new FieldScanner(value);
+        int id = fields.nextInt();
+        TaskType type = TaskType.valueOf(fields.next());
+        String name = fields.next();
+        TaskStatus status = TaskStatus.valueOf(fields.next());
+        String description = fields.next();
+        String epicField = fields.next();
 
         // Парсим продолжительность и время начала
         java.time.Duration duration = null;
         java.time.LocalDateTime startTime = null;
 
-        if (parts.length > 6 && !parts[6].isEmpty()) {
-            duration = java.time.Duration.ofMinutes(Long.parseLong(parts[6]));
+        String durationField = fields.next();
+        if (!durationField.isEmpty()) {
+            duration = java.time.Duration.ofMinutes(Long.parseLong(durationField));
         }
 
-        if (parts.length > 7 && !parts[7].isEmpty()) {
-            startTime = java.time.LocalDateTime.parse(parts[7]);
+        String startTimeField = fields.next();
+        if (!startTimeField.isEmpty()) {
+            startTime = java.time.LocalDateTime.parse(startTimeField);
         }
 
         switch (type) {
@@ -161,17 +513,56 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             case EPIC:
                 return createEpicFromParts(name, description, id, status, duration, startTime);
             case SUBTASK:
-                int epicId = Integer.parseInt(parts[5]);
+                int epicId = Integer.parseInt(epicField);
                 return createSubtaskFromParts(name, description, id, status, epicId, duration, startTime);
             default:
                 throw new IllegalArgumentException("Неизвестный тип задачи: " + type);
         }
     }
 
+    /**
+     * Последовательный разбор полей строки, разделенных запятыми
+     * Отсутствующие в конце строки поля считаются пустыми
+     */
+    private static class FieldScanner {
+        private final String line;
+        private int position;
+
+        FieldScanner(String line) {
+            this.line = line;
+        }
+
+        boolean hasNext() {
+            return position < line.length();
+        }
+
+        private int fieldEnd() {
+            int end = line.indexOf(',', position);
+            return end < 0 ? line.length() : end;
+        }
+
+        String next() {
+            if (position > line.length()) {
+                return "";
+            }
+            int end = fieldEnd();
+            String field = line.substring(position, end);
+            position = end + 1;
+            return field;
+        }
+
+        int nextInt() {
+            int end = fieldEnd();
+            int value = Integer.parseInt(line, position, end, 10);
+            position = end + 1;
+            return value;
+        }
+    }
+
     /**
      * Создать задачу из частей
      */
-    private Task createTaskFromParts(String name, String description, int id, TaskStatus status,
+    private static Task createTaskFromParts(String name, String description, int id, TaskStatus status,
                                     java.time.Duration duration, java.time.LocalDateTime startTime) {
         Task task = new Task(name, description, id, status);
         task.setDuration(duration);
@@ -184,7 +575,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     /**
      * Создать эпик из частей
      */
-    private Epic createEpicFromParts(String name, String description, int id, TaskStatus status,
+    private static Epic createEpicFromParts(String name, String description, int id, TaskStatus status,
                                     java.time.Duration duration, java.time.LocalDateTime startTime) {
         Epic epic = new Epic(name, description, id, status);
         epic.setDuration(duration);
@@ -197,7 +588,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     /**
      * Создать подзадачу из частей
      */
-    private Subtask createSubtaskFromParts(String name, String description, int id, TaskStatus status, int epicId,
+    private static Subtask createSubtaskFromParts(String name, String description, int id, TaskStatus status, int epicId,
                                           java.time.Duration duration, java.time.LocalDateTime startTime) {
         Subtask subtask = new Subtask(name, description, id, status, epicId);
         subtask.setDuration(duration);
@@ -208,394 +599,287 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     /**
-     * Прочитать строки из файла
-     * @param file файл для чтения
-     * @return массив строк из файла
-     * @throws IOException если произошла ошибка при чтении файла
+     * Загрузить менеджер задач из файла
+     * @param file файл для загрузки данных
+     * @return загруженный менеджер задач
      */
-    private static String[] readFileLines(File file) throws IOException {
-        String content = Files.readString(file.toPath());
-        System.out.println("[DEBUG] Прочитан файл: " + file.getAbsolutePath());
-        System.out.println("[DEBUG] Размер содержимого: " + content.length() + " байт");
-        return content.split("\n");
+    public static FileBackedTaskManager loadFromFile(File file) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        manager.restore();
+        return manager;
     }
 
     /**
-     * Парсинг задач из строк файла
-     * @param manager менеджер задач
-     * @param lines строки из файла
-     * @return результат парсинга
+     * Загрузить менеджер задач из файла, разбирая текстовый снимок параллельно
+     * @param file файл для загрузки данных
+     * @param parallelism количество потоков разбора
+     * @return загруженный менеджер задач
      */
-    private static TaskParsingResult parseTasksFromLines(FileBackedTaskManager manager, String[] lines) {
-        Map<Integer, Task> tasksMap = new HashMap<>();
-        Map<Integer, Epic> epicsMap = new HashMap<>();
-        Map<Integer, Subtask> subtasksMap = new HashMap<>();
-
-        int lineIndex = 1; // Пропускаем заголовок
-        while (lineIndex < lines.length && !lines[lineIndex].isBlank()) {
-            String line = lines[lineIndex];
-            Task task = manager.fromString(line);
-
-            if (task instanceof Epic) {
-                epicsMap.put(task.getId(), (Epic) task);
-            } else if (task instanceof Subtask) {
-                subtasksMap.put(task.getId(), (Subtask) task);
-            } else {
-                tasksMap.put(task.getId(), task);
-            }
-
-            lineIndex++;
+    public static FileBackedTaskManager loadFromFileParallel(File file, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным: " + parallelism);
         }
-
-        System.out.println("[DEBUG] Распарсено задач: " + tasksMap.size() + ", эпиков: " + epicsMap.size() +
-                ", подзадач: " + subtasksMap.size());
-
-        return new TaskParsingResult(tasksMap, epicsMap, subtasksMap, lineIndex);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        manager.restore(parallelism);
+        return manager;
     }
 
     /**
-     * Восстановление связей между эпиками и подзадачами
-     * @param epicsMap карта эпиков
-     * @param subtasksMap карта подзадач
+     * Восстановить состояние менеджера из снимка и журнала изменений
+     * Если журнал не пуст, после воспроизведения записывается новый снимок, а журнал очищается
      */
-    private static void restoreEpicSubtaskLinks(Map<Integer, Epic> epicsMap, Map<Integer, Subtask> subtasksMap) {
-        // Восстанавливаем связи между эпиками и подзадачами
-        for (Subtask subtask : subtasksMap.values()) {
-            int epicId = subtask.getEpicId();
-            Epic epic = epicsMap.get(epicId);
-            if (epic != null) {
-                epic.addSubtaskId(subtask.getId());
-            }
-        }
-    }
-
-    /**
-     * Создать менеджер с отключенным автосохранением
-     * @param file файл для сохранения данных
-     * @return менеджер с отключенным автосохранением
-     */
-    private static FileBackedTaskManager createManagerWithDisabledAutoSave(File file) {
-        System.out.println("[DEBUG] Создаем новый менеджер с загруженными данными");
-        return new FileBackedTaskManager(file) {
-            @Override
-            protected void save() {
-                // Отключаем автосохранение при загрузке
-                System.out.println("[DEBUG] Автосохранение отключено при загрузке");
-            }
-        };
+    protected void restore() {
+        restore(SEQUENTIAL);
     }
 
     /**
-     * Добавление задач в менеджер с сохранением оригинальных ID
-     * @param loadedManager менеджер для добавления задач
-     * @param tasksMap карта обычных задач
-     * @param epicsMap карта эпиков
-     * @param subtasksMap карта подзадач
-     * @return объект, содержащий карты соответствия старых и новых ID (в данной реализации старые и новые ID совпадают)
+     * Восстановить состояние менеджера из снимка и журнала изменений
+     * Если загружено предыдущее поколение снимка, сначала воспроизводится его журнал
+     * @param parallelism количество потоков разбора текстового снимка или SEQUENTIAL для однопоточного чтения
      */
-    private static IdMappingResult addTasksToManager(
-            FileBackedTaskManager loadedManager,
-            Map<Integer, Task> tasksMap,
-            Map<Integer, Epic> epicsMap,
-            Map<Integer, Subtask> subtasksMap) {
-
-        // Создаем карты для отслеживания соответствия старых и новых ID
-        // В данной реализации старые и новые ID совпадают
-        Map<Integer, Integer> oldToNewTaskIds = new HashMap<>();
-        Map<Integer, Integer> oldToNewEpicIds = new HashMap<>();
-        Map<Integer, Integer> oldToNewSubtaskIds = new HashMap<>();
-
-        // Добавляем задачи в менеджер в правильном порядке
-        // Сначала эпики
-        for (Epic epic : epicsMap.values()) {
-            int id = epic.getId();
-
-            // Создаем новый эпик с тем же именем и описанием
-            Epic newEpic = new Epic(epic.getName(), epic.getDescription());
-            // Устанавливаем оригинальный ID
-            newEpic.setId(id);
-            // Копируем время начала и продолжительность
-            newEpic.setStartTime(epic.getStartTime());
-            newEpic.setDuration(epic.getDuration());
-            newEpic.setEndTime(epic.getEndTime());
-
-            // Добавляем эпик в менеджер, сохраняя оригинальный ID
-            loadedManager.addEpicWithId(newEpic);
-
-            // Запоминаем соответствие ID (в данном случае они совпадают)
-            oldToNewEpicIds.put(id, id);
-        }
-
-        // Затем подзадачи
-        for (Subtask subtask : subtasksMap.values()) {
-            int id = subtask.getId();
-            int epicId = subtask.getEpicId();
-
-            // Проверяем, что эпик существует
-            if (!oldToNewEpicIds.containsKey(epicId)) {
-                continue;
+    protected void restore(int parallelism) {
+        File journal = journalFileFor(file);
+        int replayed = 0;
+        restoring = true;
+        try {
+            // Снимка может не быть, если менеджер с журналом еще ни разу его не записывал
+            if (file.exists() || previousFileFor(file).exists() || !journal.exists()) {
+                if (restoreSnapshot(parallelism)) {
+                    replayed += replayJournal(previousJournalFileFor(file));
+                }
             }
-
-            // Создаем новую подзадачу с тем же именем, описанием и ID эпика
-            Subtask newSubtask = new Subtask(subtask.getName(), subtask.getDescription(), subtask.getStatus(), epicId);
-            // Устанавливаем оригинальный ID
-            newSubtask.setId(id);
-            // Копируем время начала и продолжительность
-            newSubtask.setStartTime(subtask.getStartTime());
-            newSubtask.setDuration(subtask.getDuration());
-
-            // Добавляем подзадачу в менеджер, сохраняя оригинальный ID
-            loadedManager.addSubtaskWithId(newSubtask);
-
-            // Запоминаем соответствие ID (в данном случае они совпадают)
-            oldToNewSubtaskIds.put(id, id);
+            replayed += replayJournal(journal);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке из файла: " + file.getName(), e);
+        } finally {
+            restoring = false;
         }
 
-        // И наконец обычные задачи
-        for (Task task : tasksMap.values()) {
-            int id = task.getId();
-
-            // Создаем новую задачу с тем же именем, описанием и статусом
-            Task newTask = new Task(task.getName(), task.getDescription(), task.getStatus());
-            // Устанавливаем оригинальный ID
-            newTask.setId(id);
-            // Копируем время начала и продолжительность
-            newTask.setStartTime(task.getStartTime());
-            newTask.setDuration(task.getDuration());
-
-            // Добавляем задачу в менеджер, сохраняя оригинальный ID
-            loadedManager.addTaskWithId(newTask);
-
-            // Запоминаем соответствие ID (в данном случае они совпадают)
-            oldToNewTaskIds.put(id, id);
+        // Новый снимок переносит журнал к предыдущему поколению
+        if (replayed > 0) {
+            save();
         }
-
-        return new IdMappingResult(oldToNewTaskIds, oldToNewEpicIds, oldToNewSubtaskIds);
     }
 
     /**
-     * Восстановление истории просмотров
-     * @param loadedManager менеджер для восстановления истории
-     * @param lines строки из файла
-     * @param lineIndex индекс строки с историей
-     * @param idMappingResult карты соответствия старых и новых ID
+     * Загрузить задачи и историю просмотров из файла снимка
+     * @param parallelism количество потоков разбора текстового снимка
+     * @return true, если загружено предыдущее поколение снимка
+     * @throws IOException если произошла ошибка при чтении файла
      */
-    private static void restoreHistory(
-            FileBackedTaskManager loadedManager,
-            String[] lines,
-            int lineIndex,
-            IdMappingResult idMappingResult) {
-
-        System.out.println("[DEBUG] Восстанавливаем историю, lineIndex: " + lineIndex + ", lines.length: " + lines.length);
-
-        if (lineIndex >= lines.length - 1) {
-            System.out.println("[DEBUG] Нет строки с историей");
-            return;
+    private boolean restoreSnapshot(int parallelism) throws IOException {
+        if (file.exists() && loadSnapshot(file, parallelism)) {
+            return false;
         }
-
-        lineIndex++; // Пропускаем пустую строку
-        System.out.println("[DEBUG] Новый lineIndex после пропуска пустой строки: " + lineIndex);
-
-        if (lineIndex < lines.length && !lines[lineIndex].isBlank()) {
-            String historyLine = lines[lineIndex];
-            System.out.println("[DEBUG] Загружаем историю просмотров: " + historyLine);
-            String[] historyIds = historyLine.split(",");
-            System.out.println("[DEBUG] Количество ID в истории: " + historyIds.length);
-
-            // Добавляем задачи в историю в правильном порядке
-            for (String idStr : historyIds) {
-                int oldId = Integer.parseInt(idStr);
-                System.out.println("[DEBUG] Обрабатываем ID из истории: " + oldId);
-
-                // Получаем новый ID из карты соответствия
-                Integer newTaskId = idMappingResult.oldToNewTaskIds.get(oldId);
-                Integer newEpicId = idMappingResult.oldToNewEpicIds.get(oldId);
-                Integer newSubtaskId = idMappingResult.oldToNewSubtaskIds.get(oldId);
-
-                // Определяем тип задачи и добавляем ее в историю
-                if (newTaskId != null) {
-                    System.out.println("[DEBUG] Найдена обычная задача с ID: " + newTaskId);
-                    Task task = loadedManager.getTaskById(newTaskId);
-                    if (task != null) {
-                        System.out.println("[DEBUG] Добавляем задачу в историю: " + task);
-                    } else {
-                        System.out.println("[DEBUG] Задача не найдена: " + newTaskId);
-                    }
-                } else if (newEpicId != null) {
-                    System.out.println("[DEBUG] Найден эпик с ID: " + newEpicId);
-                    Epic epic = loadedManager.getEpicById(newEpicId);
-                    if (epic != null) {
-                        System.out.println("[DEBUG] Добавляем эпик в историю: " + epic);
-                    } else {
-                        System.out.println("[DEBUG] Эпик не найден: " + newEpicId);
-                    }
-                } else if (newSubtaskId != null) {
-                    System.out.println("[DEBUG] Найдена подзадача с ID: " + newSubtaskId);
-                    Subtask subtask = loadedManager.getSubtaskById(newSubtaskId);
-                    if (subtask != null) {
-                        System.out.println("[DEBUG] Добавляем подзадачу в историю: " + subtask);
-                    } else {
-                        System.out.println("[DEBUG] Подзадача не найдена: " + newSubtaskId);
-                    }
-                } else {
-                    System.out.println("[DEBUG] Не найдено соответствие для ID: " + oldId);
-                }
+        // Текущий снимок отсутствует или поврежден: используем предыдущее поколение
+        File previous = previousFileFor(file);
+        if (!previous.exists()) {
+            if (!file.exists()) {
+                throw new NoSuchFileException(file.getPath());
             }
-        } else {
-            System.out.println("[DEBUG] Строка с историей пустая или отсутствует");
+            throw new ManagerSaveException("Файл снимка поврежден: " + file.getName());
         }
-    }
-
-    /**
-     * Результат парсинга задач из файла
-     */
-    private static class TaskParsingResult {
-        final Map<Integer, Task> tasksMap;
-        final Map<Integer, Epic> epicsMap;
-        final Map<Integer, Subtask> subtasksMap;
-        final int lineIndex;
-
-        TaskParsingResult(Map<Integer, Task> tasksMap, Map<Integer, Epic> epicsMap,
-                         Map<Integer, Subtask> subtasksMap, int lineIndex) {
-            this.tasksMap = tasksMap;
-            this.epicsMap = epicsMap;
-            this.subtasksMap = subtasksMap;
-            this.lineIndex = lineIndex;
+        if (!loadSnapshot(previous, parallelism)) {
+            throw new ManagerSaveException("Файл снимка и его предыдущее поколение повреждены: " + file.getName());
         }
+        return true;
     }
 
     /**
-     * Результат отображения старых ID на новые
+     * Загрузить снимок, определив его формат по сигнатуре в начале файла
+     * Менеджер, загруженный из двоичного снимка, продолжает записывать снимки в двоичном формате
+     * @param source файл снимка
+     * @param parallelism количество потоков разбора текстового снимка
+     * @return false, если снимок оборван или поврежден
+     * @throws IOException если произошла ошибка при чтении файла
      */
-    private static class IdMappingResult {
-        final Map<Integer, Integer> oldToNewTaskIds;
-        final Map<Integer, Integer> oldToNewEpicIds;
-        final Map<Integer, Integer> oldToNewSubtaskIds;
-
-        IdMappingResult(Map<Integer, Integer> oldToNewTaskIds, Map<Integer, Integer> oldToNewEpicIds,
-                       Map<Integer, Integer> oldToNewSubtaskIds) {
-            this.oldToNewTaskIds = oldToNewTaskIds;
-            this.oldToNewEpicIds = oldToNewEpicIds;
-            this.oldToNewSubtaskIds = oldToNewSubtaskIds;
+    private boolean loadSnapshot(File source, int parallelism) throws IOException {
+        if (BinarySnapshotCodec.isBinary(source)) {
+            if (!BinarySnapshotCodec.load(source, this)) {
+                return false;
+            }
+            format = SnapshotFormat.BINARY;
+            return true;
+        }
+        if (parallelism != SEQUENTIAL && source.length() <= Integer.MAX_VALUE) {
+            return ParallelSnapshotLoader.load(source, this, parallelism);
         }
+        return loadTextSnapshot(source);
     }
 
     /**
-     * Загрузить менеджер задач из файла
-     * @param file файл для загрузки данных
-     * @return загруженный менеджер задач
+     * Загрузить текстовый снимок за один проход
+     * Файл читается построчно через буферизованный канал, в памяти держатся только разобранные объекты.
+     * Длина из заголовка проверяется до чтения записей, а контрольная сумма считается по мере чтения
+     * и вместе с количеством записей сверяется до добавления задач, поэтому поврежденный файл
+     * не изменяет менеджер
+     * @param source файл снимка
+     * @return false, если снимок оборван или поврежден
+     * @throws IOException если произошла ошибка при чтении файла
      */
-    public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
-
-        try {
-            String[] lines = readFileLines(file);
-
-            if (lines.length <= 1) {
-                System.out.println("[DEBUG] Файл пустой или содержит только заголовок");
-                return manager; // Файл пустой или содержит только заголовок
+    private boolean loadTextSnapshot(File source) throws IOException {
+        try (SnapshotLineReader reader = new SnapshotLineReader(source)) {
+            System.out.println("[DEBUG] Читаем файл: " + source.getAbsolutePath() + ", размер: " + reader.size() + " байт");
+            String line = reader.readLine();
+            SnapshotHeader header = null;
+            if (line != null && SnapshotHeader.isHeader(line)) {
+                try {
+                    header = SnapshotHeader.parse(line);
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+                if (!header.matchesLength(reader.size() - reader.position())) {
+                    return false;
+                }
+                reader.beginChecksum();
+                line = reader.readLine();
+            }
+            if (line == null) {
+                System.out.println("[DEBUG] Файл пустой");
+                return true;
             }
 
-            // Парсим задачи из строк файла
-            TaskParsingResult parsingResult = parseTasksFromLines(manager, lines);
+            // Разобранные объекты сразу попадают в итоговые списки и добавляются в менеджер одним пакетом
+            List<Task> loadedTasks = new ArrayList<>();
+            List<Epic> loadedEpics = new ArrayList<>();
+            List<Subtask> loadedSubtasks = new ArrayList<>();
+            while ((line = reader.readLine()) != null && !line.isBlank()) {
+                Task task = fromString(line);
+                if (task instanceof Epic) {
+                    loadedEpics.add((Epic) task);
+                } else if (task instanceof Subtask) {
+                    loadedSubtasks.add((Subtask) task);
+                } else {
+                    loadedTasks.add(task);
+                }
+            }
+            String historyLine = line != null ? reader.readLine() : null;
+            // Дочитываем файл до конца, чтобы контрольная сумма покрывала все содержимое
+            while (reader.readLine() != null) {
+                // Строки после истории не используются
+            }
 
-            // Восстанавливаем связи между эпиками и подзадачами
-            restoreEpicSubtaskLinks(parsingResult.epicsMap, parsingResult.subtasksMap);
+            if (header != null && !header.matchesChecksum(reader.checksum())) {
+                return false;
+            }
+            if (header != null
+                    && !header.matchesRecords(loadedTasks.size() + loadedEpics.size() + loadedSubtasks.size())) {
+                return false;
+            }
 
-            // Создаем новый менеджер с отключенным автосохранением
-            FileBackedTaskManager loadedManager = createManagerWithDisabledAutoSave(file);
+            addAllWithIds(loadedTasks, loadedEpics, loadedSubtasks);
+            System.out.println("[DEBUG] Загружено задач: " + loadedTasks.size() + ", эпиков: " + loadedEpics.size()
+                    + ", подзадач: " + loadedSubtasks.size());
 
-            // Добавляем задачи в менеджер
-            IdMappingResult idMappingResult = addTasksToManager(
-                    loadedManager,
-                    parsingResult.tasksMap,
-                    parsingResult.epicsMap,
-                    parsingResult.subtasksMap);
+            if (historyLine != null && !historyLine.isBlank()) {
+                restoreHistory(historyLine);
+            }
+            return true;
+        }
+    }
 
-            // Восстанавливаем историю просмотров
-            restoreHistory(loadedManager, lines, parsingResult.lineIndex, idMappingResult);
+    /**
+     * Восстановить историю просмотров из строки идентификаторов
+     * Идентификаторы уникальны для всех типов задач, поэтому тип определяется поиском по менеджеру
+     * @param historyLine строка с идентификаторами через запятую
+     */
+    void restoreHistory(String historyLine) {
+        System.out.println("[DEBUG] Загружаем историю просмотров: " + historyLine);
+        FieldScanner ids = new FieldScanner(historyLine);
+        while (ids.hasNext()) {
+            int id = ids.nextInt();
+            if (peekTaskById(id) != null) {
+                getTaskById(id);
+            } else if (peekEpicById(id) != null) {
+                getEpicById(id);
+            } else if (peekSubtaskById(id) != null) {
+                getSubtaskById(id);
+            } else {
+                System.out.println("[DEBUG] Не найдено соответствие для ID: " + id);
+            }
+        }
+    }
 
-            // Сохраняем загруженные данные
-            System.out.println("[DEBUG] Сохраняем загруженные данные");
-            loadedManager.save();
+    // Переопределяем методы, изменяющие состояние менеджера, чтобы сохранять изменения
 
-            return loadedManager;
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при загрузке из файла: " + file.getName(), e);
+    @Override
+    public void addAllWithIds(Collection<? extends Task> newTasks, Collection<Epic> newEpics,
+                              Collection<Subtask> newSubtasks) {
+        super.addAllWithIds(newTasks, newEpics, newSubtasks);
+        if (!restoring) {
+            persistBulk();
         }
     }
 
-    // Переопределяем методы, изменяющие состояние менеджера, чтобы вызывать сохранение
-
     @Override
     public void createTask(Task task) {
         super.createTask(task);
-        save();
+        recordPut(task, peekTaskById(task.getId()));
     }
 
     @Override
     public void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        recordPut(task, peekTaskById(task.getId()));
     }
 
     @Override
     public void deleteTaskById(int id) {
         super.deleteTaskById(id);
-        save();
+        recordMutation(JournalRecord.delete(TaskType.TASK, id));
     }
 
     @Override
     public void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        recordMutation(JournalRecord.clear(TaskType.TASK));
     }
 
     @Override
     public void createEpic(Epic epic) {
         super.createEpic(epic);
-        save();
+        recordPut(epic, peekEpicById(epic.getId()));
     }
 
     @Override
     public void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        recordPut(epic, peekEpicById(epic.getId()));
     }
 
     @Override
     public void deleteEpicById(int id) {
         super.deleteEpicById(id);
-        save();
+        recordMutation(JournalRecord.delete(TaskType.EPIC, id));
     }
 
     @Override
     public void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        recordMutation(JournalRecord.clear(TaskType.EPIC));
     }
 
     @Override
     public void createSubtask(Subtask subtask) {
         super.createSubtask(subtask);
-        save();
+        recordPut(subtask, peekSubtaskById(subtask.getId()));
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
         super.updateSubtask(subtask);
-        save();
+        recordPut(subtask, peekSubtaskById(subtask.getId()));
     }
 
     @Override
     public void deleteSubtaskById(int id) {
         super.deleteSubtaskById(id);
-        save();
+        recordMutation(JournalRecord.delete(TaskType.SUBTASK, id));
     }
 
     @Override
     public void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        recordMutation(JournalRecord.clear(TaskType.SUBTASK));
     }
 }
\ No newline at end of file
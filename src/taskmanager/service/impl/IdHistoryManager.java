@@ -0,0 +1,302 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Task;
+import taskmanager.service.HistoryManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Реализация интерфейса HistoryManager, которая хранит только идентификаторы просмотренных задач
+ * Двусвязный список построен на массивах int: позиция в массивах - ячейка просмотра, освобожденные ячейки
+ * используются повторно. Ячейку по идентификатору находит хеш-таблица с открытой адресацией на массивах int.
+ * Запись истории занимает несколько десятков байт и не удерживает в памяти старые версии задач,
+ * а при чтении идентификаторы разрешаются через менеджер задач, поэтому история отражает текущее состояние.
+ * Реализация не потокобезопасна
+ */
+public class IdHistoryManager implements HistoryManager {
+    // Отсутствие ячейки: конец списка или пустая позиция хеш-таблицы
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] ids;
+    private int[] prev;
+    private int[] next;
+    // Количество ячеек, которые когда-либо использовались; ячейки за этой границей свободны
+    private int allocated;
+    // Начало цепочки освобожденных ячеек, связанных через next
+    private int free = NIL;
+    private int head = NIL;
+    private int tail = NIL;
+    private int size;
+    private final SlotTable slots = new SlotTable();
+    private final int capacity;
+    private IntFunction<? extends Task> resolver;
+
+    /**
+     * Хеш-таблица "идентификатор задачи -> ячейка списка" с линейным пробированием
+     */
+    private static class SlotTable {
+        private int[] keys = new int[INITIAL_CAPACITY * 2];
+        private int[] values = newValues(INITIAL_CAPACITY * 2);
+        private int count;
+
+        private static int[] newValues(int length) {
+            int[] values = new int[length];
+            Arrays.fill(values, NIL);
+            return values;
+        }
+
+        // Исходная позиция ключа: перемешиваем биты, чтобы идущие подряд идентификаторы не образовывали кластеров
+        private static int home(int key, int mask) {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ hash >>> 16) & mask;
+        }
+
+        // Позиция ключа или первая пустая позиция на его пути
+        private int position(int key) {
+            int mask = keys.length - 1;
+            int i = home(key, mask);
+            while (values[i] != NIL && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        int get(int key) {
+            return values[position(key)];
+        }
+
+        void put(int key, int value) {
+            int i = position(key);
+            if (values[i] == NIL) {
+                keys[i] = key;
+                count++;
+            }
+            values[i] = value;
+            // Таблица заполняется не больше чем наполовину, чтобы цепочки пробирования оставались короткими
+            if (count * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        int remove(int key) {
+            int i = position(key);
+            int removed = values[i];
+            if (removed == NIL) {
+                return NIL;
+            }
+            count--;
+            // Сдвигаем следующие ключи цепочки на освободившееся место, чтобы поиск не прерывался на дыре
+            int mask = keys.length - 1;
+            int hole = i;
+            int j = (i + 1) & mask;
+            while (values[j] != NIL) {
+                int home = home(keys[j], mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+                j = (j + 1) & mask;
+            }
+            values[hole] = NIL;
+            return removed;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = newValues(oldValues.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != NIL) {
+                    int j = position(oldKeys[i]);
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Конструктор для создания нового IdHistoryManager без ограничения размера
+     */
+    public IdHistoryManager() {
+        this(InMemoryHistoryManager.UNBOUNDED);
+    }
+
+    /**
+     * Конструктор для создания нового IdHistoryManager с ограниченным размером
+     * @param capacity наибольшее количество задач в истории
+     * @throws IllegalArgumentException если емкость не положительна
+     */
+    public IdHistoryManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Емкость истории должна быть положительной: " + capacity);
+        }
+        this.capacity = capacity;
+        int initial = Math.min(capacity, INITIAL_CAPACITY);
+        ids = new int[initial];
+        prev = new int[initial];
+        next = new int[initial];
+    }
+
+    /**
+     * Получить наибольшее количество задач в истории
+     * @return емкость истории или InMemoryHistoryManager.UNBOUNDED, если размер не ограничен
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Задать способ получения актуальной задачи по идентификатору
+     * Менеджер задач вызывает этот метод при создании
+     * @param resolver функция, возвращающая текущую задачу по идентификатору или null, если задачи нет
+     */
+    @Override
+    public void setTaskResolver(IntFunction<? extends Task> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Добавить задачу в историю просмотров
+     * Сохраняется только идентификатор задачи
+     * @param task задача, которая была просмотрена
+     */
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        int id = task.getId();
+        int slot = slots.get(id);
+        if (slot != NIL) {
+            // Повторный просмотр: переносим ячейку в конец списка без выделения памяти
+            if (slot != tail) {
+                unlink(slot);
+                linkLast(slot);
+            }
+            return;
+        }
+        if (size == capacity) {
+            // При переполнении освобождаем ячейку самого давнего просмотра
+            remove(ids[head]);
+        }
+        slot = allocate();
+        ids[slot] = id;
+        linkLast(slot);
+        slots.put(id, slot);
+        size++;
+    }
+
+    /**
+     * Удалить задачу из истории просмотров по идентификатору
+     * @param id идентификатор задачи, которую нужно удалить из истории
+     */
+    @Override
+    public void remove(int id) {
+        int slot = slots.remove(id);
+        if (slot == NIL) {
+            return;
+        }
+        unlink(slot);
+        next[slot] = free;
+        free = slot;
+        size--;
+    }
+
+    /**
+     * Получить историю просмотров задач
+     * Идентификаторы разрешаются в текущие объекты задач; задачи, которых уже нет, пропускаются,
+     * сама история при этом не меняется
+     * @return список задач в порядке их просмотра (от самых старых к самым новым)
+     * @throws IllegalStateException если способ получения задач по идентификатору не задан
+     */
+    @Override
+    public List<Task> getHistory() {
+        if (resolver == null) {
+            throw new IllegalStateException("Не задан способ получения задач по идентификатору");
+        }
+        List<Task> history = new ArrayList<>(size);
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            Task task = resolver.apply(ids[slot]);
+            if (task != null) {
+                history.add(task);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Удалить из истории идентификаторы задач, которых уже нет
+     * @return количество удаленных идентификаторов
+     * @throws IllegalStateException если способ получения задач по идентификатору не задан
+     */
+    public int removeUnresolved() {
+        if (resolver == null) {
+            throw new IllegalStateException("Не задан способ получения задач по идентификатору");
+        }
+        int before = size;
+        int slot = head;
+        while (slot != NIL) {
+            int following = next[slot];
+            if (resolver.apply(ids[slot]) == null) {
+                remove(ids[slot]);
+            }
+            slot = following;
+        }
+        return before - size;
+    }
+
+    /**
+     * Получить количество задач в истории
+     * @return количество сохраненных идентификаторов
+     */
+    public int size() {
+        return size;
+    }
+
+    // Взять свободную ячейку, при необходимости увеличив массивы
+    private int allocate() {
+        if (free != NIL) {
+            int slot = free;
+            free = next[slot];
+            return slot;
+        }
+        if (allocated == ids.length) {
+            int length = (int) Math.min((long) ids.length * 2, capacity);
+            ids = Arrays.copyOf(ids, length);
+            prev = Arrays.copyOf(prev, length);
+            next = Arrays.copyOf(next, length);
+        }
+        return allocated++;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NIL) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NIL) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+}
@@ -10,9 +10,13 @@ import java.util.Map;
 
 /**
  * Реализация интерфейса HistoryManager для хранения истории просмотров задач в памяти
- * с использованием двусвязного списка и HashMap для эффективного удаления задач из истории
+ * с использованием двусвязного списка и HashMap для эффективного удаления задач из истории.
+ * Размер истории можно ограничить: при переполнении за O(1) вытесняется самый давний просмотр
  */
 public class InMemoryHistoryManager implements HistoryManager {
+    // Емкость истории без ограничения размера
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
     /**
      * Узел двусвязного списка
      */
@@ -85,6 +89,16 @@ public class InMemoryHistoryManager implements HistoryManager {
             size--;
         }
 
+        /**
+         * Удалить первый, самый давний узел списка
+         * @return удаленный узел или null, если список пуст
+         */
+        Node removeFirst() {
+            Node first = head;
+            removeNode(first);
+            return first;
+        }
+
         /**
          * Получить все задачи из списка
          * @return список задач
@@ -102,15 +116,37 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     private final CustomLinkedList linkedList;
     private final Map<Integer, Node> nodeMap;
+    private final int capacity;
 
     /**
-     * Конструктор для создания нового InMemoryHistoryManager
+     * Конструктор для создания нового InMemoryHistoryManager без ограничения размера
      */
     public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Конструктор для создания нового InMemoryHistoryManager с ограниченным размером
+     * @param capacity наибольшее количество задач в истории
+     * @throws IllegalArgumentException если емкость не положительна
+     */
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Емкость истории должна быть положительной: " + capacity);
+        }
+        this.capacity = capacity;
         linkedList = new CustomLinkedList();
         nodeMap = new HashMap<>();
     }
 
+    /**
+     * Получить наибольшее количество задач в истории
+     * @return емкость истории или UNBOUNDED, если размер не ограничен
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
     /**
      * Добавить задачу в историю просмотров
      * @param task задача, которая была просмотрена
@@ -125,6 +161,11 @@ public class InMemoryHistoryManager implements HistoryManager {
         // Добавляем задачу в конец списка и сохраняем узел в HashMap
         Node node = linkedList.linkLast(task);
         nodeMap.put(task.getId(), node);
+        // При переполнении вытесняем самый давний просмотр из начала списка
+        if (nodeMap.size() > capacity) {
+            Node oldest = linkedList.removeFirst();
+            nodeMap.remove(oldest.task.getId());
+        }
     }
 
     /**
@@ -5,66 +5,199 @@ import taskmanager.model.Subtask;
 import taskmanager.model.Task;
 import taskmanager.model.TaskStatus;
 import taskmanager.service.HistoryManager;
+import taskmanager.service.Page;
 import taskmanager.service.TaskManager;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Класс менеджера для управления задачами, эпиками и подзадачами в памяти
  */
 public class InMemoryTaskManager implements TaskManager {
-    private final Map<Integer, Task> tasks;
-    private final Map<Integer, Epic> epics;
-    private final Map<Integer, Subtask> subtasks;
+    // Задачи упорядочены по идентификатору, чтобы страницу можно было получить с позиции курсора
+    private final NavigableMap<Integer, Task> tasks;
+    private final NavigableMap<Integer, Epic> epics;
+    private final NavigableMap<Integer, Subtask> subtasks;
     private int nextId = 1;
     private final HistoryManager historyManager;
-    // Отсортированный набор задач и подзадач по времени начала
-    private final Set<Task> prioritizedTasks;
+    // Индекс задач и подзадач по паре (время начала, id): задает порядок приоритизированного списка
+    // и используется для проверки пересечений; задачи с одинаковым временем начала не вытесняют друг друга
+    private final TaskIntervalIndex intervalIndex = new TaskIntervalIndex();
+    // Накопленные значения подзадач каждого эпика для пересчета статуса и времени без обхода подзадач
+    private final Map<Integer, EpicAggregate> epicAggregates = new HashMap<>();
+    // Индексы по статусу, обновляются при каждом изменении задач и пересчете статуса эпика
+    private final StatusIndex<Task> taskStatusIndex;
+    private final StatusIndex<Epic> epicStatusIndex;
+    private final StatusIndex<Subtask> subtaskStatusIndex;
+    // Неизменяемые снимки списков: перестраиваются при первом чтении после изменения, а не при каждом запросе
+    private final SnapshotCache<List<Task>> tasksSnapshot = new SnapshotCache<>();
+    private final SnapshotCache<List<Epic>> epicsSnapshot = new SnapshotCache<>();
+    private final SnapshotCache<List<Subtask>> subtasksSnapshot = new SnapshotCache<>();
+    private final SnapshotCache<TaskIntervalIndex.Snapshot> prioritizedSnapshot = new SnapshotCache<>();
+    // Версия состояния менеджера и версии отдельных объектов для условных запросов клиентов
+    private volatile long version;
+    private final Map<Integer, Long> entityVersions;
+    // Версия истории просмотров: просмотры могут выполняться одновременно в нескольких потоках, поэтому счетчик атомарный
+    private final AtomicLong historyVersion = new AtomicLong();
+    // Истории просмотров отдельных клиентов с общим бюджетом записей
+    private final PartitionedHistoryStore clientHistories = new PartitionedHistoryStore(
+            PartitionedHistoryStore.DEFAULT_CLIENT_CAPACITY, PartitionedHistoryStore.DEFAULT_TOTAL_BUDGET,
+            this::findById);
 
     /**
      * Конструктор для создания нового InMemoryTaskManager
      */
     public InMemoryTaskManager() {
-        tasks = new HashMap<>();
-        epics = new HashMap<>();
-        subtasks = new HashMap<>();
-        historyManager = new InMemoryHistoryManager();
-        // Инициализация отсортированного набора задач
-        prioritizedTasks = new TreeSet<>(Comparator.comparing(
-                task -> task.getStartTime(), // Сортировка по времени начала
-                Comparator.nullsLast(Comparator.naturalOrder()) // Задачи без времени начала в конце
-        ));
+        this(new InMemoryHistoryManager());
     }
 
     /**
      * Конструктор для создания нового InMemoryTaskManager с указанным HistoryManager
      */
     public InMemoryTaskManager(HistoryManager historyManager) {
-        tasks = new HashMap<>();
-        epics = new HashMap<>();
-        subtasks = new HashMap<>();
-        this.historyManager = historyManager;
-        // Инициализация отсортированного набора задач
-        prioritizedTasks = new TreeSet<>(Comparator.comparing(
-                task -> task.getStartTime(), // Сортировка по времени начала
-                Comparator.nullsLast(Comparator.naturalOrder()) // Задачи без времени начала в конце
-        ));
+        this(historyManager, false);
     }
+
     /**
-     * Получить список задач и подзадач, отсортированных по времени начала
-     * Задачи без времени начала не включаются в список
-     * @return отсортированный список задач и подзадач
+     * Конструктор для подклассов, читающих задачи без блокировки
+     * Изменения по-прежнему должны выполняться из одного потока за раз; в режиме одновременного чтения
+     * коллекции задач, версии и индексы по статусу можно читать, пока другой поток их изменяет
+     * @param historyManager менеджер истории просмотров
+     * @param concurrentReads true - использовать ConcurrentSkipListMap и ConcurrentHashMap вместо TreeMap и HashMap
      */
+    protected InMemoryTaskManager(HistoryManager historyManager, boolean concurrentReads) {
+        tasks = concurrentReads ? new ConcurrentSkipListMap<>() : new TreeMap<>();
+        epics = concurrentReads ? new ConcurrentSkipListMap<>() : new TreeMap<>();
+        subtasks = concurrentReads ? new ConcurrentSkipListMap<>() : new TreeMap<>();
+        entityVersions = concurrentReads ? new ConcurrentHashMap<>() : new HashMap<>();
+        taskStatusIndex = new StatusIndex<>(concurrentReads);
+        epicStatusIndex = new StatusIndex<>(concurrentReads);
+        subtaskStatusIndex = new StatusIndex<>(concurrentReads);
+        this.historyManager = historyManager;
+        // История, хранящая идентификаторы, получает по ним актуальные объекты при чтении
+        historyManager.setTaskResolver(this::findById);
+    }
 
+    // Получить задачи и подзадачи в порядке времени начала; возвращается неизменяемый снимок индекса
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return prioritizedSnapshot.get(intervalIndex::toList);
+    }
+
+    // Получить задачи и подзадачи со временем начала в интервале [from, to) за O(log n + k)
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        PageCursor.checkLimit(limit);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало интервала позже его конца: " + from + " > " + to);
+        }
+        // Наименьший id означает, что в интервал попадают все задачи, начинающиеся ровно в from
+        return prioritizedRange(from, Integer.MIN_VALUE, to, limit);
+    }
+
+    // Получить страницу задач и подзадач, отсортированных по времени начала
+    @Override
+    public Page<Task> getPrioritizedTasks(int limit, String cursor) {
+        PageCursor.checkLimit(limit);
+        LocalDateTime afterStart = null;
+        int afterId = Integer.MIN_VALUE;
+        if (cursor != null) {
+            PageCursor.StartPosition position = PageCursor.parseStart(cursor);
+            afterStart = position.startTime;
+            afterId = position.id;
+        }
+        // Лишний элемент показывает, есть ли следующая страница
+        List<Task> items = prioritizedRange(afterStart, afterId, null, limit == Integer.MAX_VALUE ? limit : limit + 1);
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items.remove(limit);
+            Task last = items.get(limit - 1);
+            nextCursor = PageCursor.ofStart(last.getStartTime(), last.getId());
+        }
+        return new Page<>(items, nextCursor);
+    }
+
+    // Получить задачи и подзадачи, следующие в порядке времени начала за позицией (afterStart, afterId);
+    // возвращается новый изменяемый список. Подкласс может выбрать их из актуального снимка без блокировки
+    protected List<Task> prioritizedRange(LocalDateTime afterStart, int afterId, LocalDateTime to, int limit) {
+        return intervalIndex.range(afterStart, afterId, to, limit);
+    }
+
+    // Получить страницу задач
+    @Override
+    public Page<Task> getTasks(int limit, String cursor) {
+        return pageById(tasks, limit, cursor);
+    }
+
+    // Получить страницу эпиков
+    @Override
+    public Page<Epic> getEpics(int limit, String cursor) {
+        return pageById(epics, limit, cursor);
+    }
+
+    // Получить страницу подзадач
+    @Override
+    public Page<Subtask> getSubtasks(int limit, String cursor) {
+        return pageById(subtasks, limit, cursor);
+    }
+
+    // Получить страницу элементов, следующих за идентификатором из курсора
+    private static <T extends Task> Page<T> pageById(NavigableMap<Integer, T> items, int limit, String cursor) {
+        PageCursor.checkLimit(limit);
+        Map<Integer, T> tail = cursor == null ? items : items.tailMap(PageCursor.parseId(cursor), false);
+        // Размер ConcurrentSkipListMap вычисляется обходом, поэтому емкость страницы заранее не задается
+        List<T> page = new ArrayList<>();
+        Iterator<T> iterator = tail.values().iterator();
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add(iterator.next());
+        }
+        String nextCursor = iterator.hasNext() ? PageCursor.ofId(page.get(page.size() - 1).getId()) : null;
+        return new Page<>(page, nextCursor);
+    }
+
+    // Отметить изменение объекта: его версия становится новой версией менеджера
+    private void touch(int id) {
+        entityVersions.put(id, ++version);
+    }
+
+    // Отметить удаление объекта
+    private void forget(int id) {
+        entityVersions.remove(id);
+        version++;
+    }
+
+    // Отметить изменение задач: устаревают снимки списка задач и приоритизированного списка
+    private void tasksChanged() {
+        version++;
+        tasksSnapshot.invalidate();
+        prioritizedSnapshot.invalidate();
+    }
+
+    // Отметить изменение эпиков
+    private void epicsChanged() {
+        version++;
+        epicsSnapshot.invalidate();
+    }
+
+    // Отметить изменение подзадач: устаревают снимки списка подзадач и приоритизированного списка
+    private void subtasksChanged() {
+        version++;
+        subtasksSnapshot.invalidate();
+        prioritizedSnapshot.invalidate();
     }
 
     // Сгенерировать новый уникальный идентификатор для задачи
@@ -85,10 +218,11 @@ public class InMemoryTaskManager implements TaskManager {
         // Обновляем nextId, если нужно
         updateNextId(id);
         tasks.put(id, task);
-        // Добавляем задачу в отсортированный набор, если у нее есть время начала
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        taskStatusIndex.put(task);
+        touch(id);
+        // Добавляем задачу в индекс по времени начала, если у нее есть время начала
+        intervalIndex.put(task);
+        tasksChanged();
     }
 
     // Добавить эпик с предопределенным ID
@@ -97,6 +231,10 @@ public class InMemoryTaskManager implements TaskManager {
         // Обновляем nextId, если нужно
         updateNextId(id);
         epics.put(id, epic);
+        epicStatusIndex.put(epic);
+        touch(id);
+        epicAggregates.put(id, new EpicAggregate());
+        epicsChanged();
     }
 
     // Добавить подзадачу с предопределенным ID
@@ -113,31 +251,170 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         subtasks.put(id, subtask);
+        subtaskStatusIndex.put(subtask);
+        touch(id);
         epic.addSubtaskId(id);
+        aggregateOf(epicId).put(subtask);
 
-        // Добавляем подзадачу в отсортированный набор, если у нее есть время начала
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        // Добавляем подзадачу в индекс по времени начала, если у нее есть время начала
+        intervalIndex.put(subtask);
 
         // Обновляем статус и временные поля эпика
         updateEpicStatus(epicId);
         updateEpicTimeFields(epicId);
+        subtasksChanged();
     }
 
-    // Получить все задачи
+    /**
+     * Пакетно добавить задачи, эпики и подзадачи с сохранением их идентификаторов
+     * Используется при загрузке из файла, импорте и догоняющей репликации. Объекты вставляются без
+     * промежуточных пересчетов: отсортированный набор заполняется одним вызовом, а статус и временные поля
+     * каждого затронутого эпика выставляются один раз после вставки по накопленным значениям его подзадач.
+     * Объект с уже существующим идентификатором заменяет прежний. Пересечения по времени не проверяются,
+     * так как данные приходят из согласованного источника
+     * @param newTasks обычные задачи
+     * @param newEpics эпики; подзадачи заменяемого эпика сохраняются
+     * @param newSubtasks подзадачи; подзадачи несуществующих эпиков пропускаются
+     */
+    public void addAllWithIds(Collection<? extends Task> newTasks, Collection<Epic> newEpics,
+                              Collection<Subtask> newSubtasks) {
+        List<Task> timedTasks = new ArrayList<>();
+        for (Task task : newTasks) {
+            int id = task.getId();
+            updateNextId(id);
+            Task oldTask = tasks.put(id, task);
+            taskStatusIndex.put(task);
+            touch(id);
+            if (oldTask != null) {
+                intervalIndex.remove(id);
+            }
+            if (task.getStartTime() != null) {
+                timedTasks.add(task);
+            }
+        }
+
+        Set<Integer> affectedEpicIds = new HashSet<>();
+        for (Epic epic : newEpics) {
+            int id = epic.getId();
+            updateNextId(id);
+            Epic oldEpic = epics.put(id, epic);
+            epicStatusIndex.put(epic);
+            touch(id);
+            if (oldEpic != null) {
+                for (Integer subtaskId : oldEpic.getSubtaskIds()) {
+                    epic.addSubtaskId(subtaskId);
+                }
+                affectedEpicIds.add(id);
+            } else {
+                epicAggregates.put(id, new EpicAggregate());
+            }
+        }
+
+        for (Subtask subtask : newSubtasks) {
+            int id = subtask.getId();
+            updateNextId(id);
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                continue;
+            }
+            Subtask oldSubtask = subtasks.put(id, subtask);
+            subtaskStatusIndex.put(subtask);
+            touch(id);
+            if (oldSubtask != null) {
+                intervalIndex.remove(id);
+                Epic oldEpic = epics.get(oldSubtask.getEpicId());
+                if (oldEpic != null && oldEpic != epic) {
+                    oldEpic.removeSubtaskId(id);
+                    aggregateOf(oldEpic.getId()).remove(id);
+                    affectedEpicIds.add(oldEpic.getId());
+                }
+            }
+            epic.addSubtaskId(id);
+            aggregateOf(epic.getId()).put(subtask);
+            affectedEpicIds.add(epic.getId());
+            if (subtask.getStartTime() != null) {
+                timedTasks.add(subtask);
+            }
+        }
+
+        // Индексы по времени строятся после вставки всех объектов
+        for (Task task : timedTasks) {
+            intervalIndex.put(task);
+        }
+        for (Integer epicId : affectedEpicIds) {
+            updateEpicStatus(epicId);
+            updateEpicTimeFields(epicId);
+        }
+        tasksChanged();
+        epicsChanged();
+        subtasksChanged();
+    }
+
+    // Получить готовые снимки списков без обращения к коллекциям или null, если снимок нужно перестроить;
+    // подкласс с блокировками может отдать актуальный снимок, не захватывая блокировку
+    protected List<Task> cachedAllTasks() {
+        return tasksSnapshot.peek();
+    }
+
+    protected List<Epic> cachedAllEpics() {
+        return epicsSnapshot.peek();
+    }
+
+    protected List<Subtask> cachedAllSubtasks() {
+        return subtasksSnapshot.peek();
+    }
+
+    protected TaskIntervalIndex.Snapshot cachedPrioritizedTasks() {
+        return prioritizedSnapshot.peek();
+    }
+
+    // Получить задачу по идентификатору без записи в историю просмотров
+    @Override
+    public Task peekTaskById(int id) {
+        return tasks.get(id);
+    }
+
+    // Получить эпик по идентификатору без записи в историю просмотров
+    @Override
+    public Epic peekEpicById(int id) {
+        return epics.get(id);
+    }
+
+    // Получить подзадачу по идентификатору без записи в историю просмотров
+    @Override
+    public Subtask peekSubtaskById(int id) {
+        return subtasks.get(id);
+    }
+
+    // Найти задачу, эпик или подзадачу по идентификатору без записи в историю
+    private Task findById(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task;
+    }
+
+    // Получить все задачи; возвращается неизменяемый снимок, общий для чтений между изменениями
     @Override
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks.values());
+        return tasksSnapshot.get(() -> Collections.unmodifiableList(new ArrayList<>(tasks.values())));
     }
 
     // Получить задачу по идентификатору
     @Override
     public Task getTaskById(int id) {
+        return getTaskById(id, null);
+    }
+
+    // Получить задачу по идентификатору и записать просмотр в историю клиента
+    @Override
+    public Task getTaskById(int id, String clientId) {
         Task task = tasks.get(id);
-        if (task != null) {
-            historyManager.add(task);
-        }
+        recordView(task, clientId);
         return task;
     }
 
@@ -151,10 +428,11 @@ public class InMemoryTaskManager implements TaskManager {
         int id = generateId();
         task.setId(id);
         tasks.put(id, task);
-        // Добавляем задачу в отсортированный набор, если у нее есть время начала
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        taskStatusIndex.put(task);
+        touch(id);
+        // Добавляем задачу в индекс по времени начала, если у нее есть время начала
+        intervalIndex.put(task);
+        tasksChanged();
     }
 
     // Обновить существующую задачу
@@ -162,23 +440,18 @@ public class InMemoryTaskManager implements TaskManager {
     public void updateTask(Task task) {
         int id = task.getId();
         if (tasks.containsKey(id)) {
-            Task oldTask = tasks.get(id);
-            // Удаляем старую версию задачи из отсортированного набора
-            prioritizedTasks.remove(oldTask);
             // Проверяем, не пересекается ли обновленная задача с существующими задачами
+            // Старая версия задачи исключается из проверки по идентификатору
             if (task.getStartTime() != null && hasOverlaps(task)) {
-                // Возвращаем старую версию задачи в отсортированный набор
-                if (oldTask.getStartTime() != null) {
-                    prioritizedTasks.add(oldTask);
-                }
                 throw new IllegalStateException("Задача пересекается по времени с уже существующими задачами");
             }
             // Обновляем задачу
             tasks.put(id, task);
-            // Добавляем обновленную задачу в отсортированный набор, если у нее есть время начала
-            if (task.getStartTime() != null) {
-                prioritizedTasks.add(task);
-            }
+            taskStatusIndex.put(task);
+            touch(id);
+            // Добавляем обновленную задачу в индекс по времени начала, если у нее есть время начала
+            intervalIndex.put(task);
+            tasksChanged();
         }
     }
 
@@ -186,11 +459,13 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteTaskById(int id) {
         if (tasks.containsKey(id)) {
-            Task task = tasks.get(id);
-            // Удаляем задачу из отсортированного набора
-            prioritizedTasks.remove(task);
+            // Удаляем задачу из индекса по времени начала
+            intervalIndex.remove(id);
             tasks.remove(id);
+            taskStatusIndex.remove(id);
             historyManager.remove(id);
+            forget(id);
+            tasksChanged();
         }
     }
 
@@ -201,26 +476,33 @@ public class InMemoryTaskManager implements TaskManager {
         for (Integer id : tasks.keySet()) {
             historyManager.remove(id);
         }
-        // Удаляем все задачи из отсортированного набора
+        // Удаляем все задачи из индекса по времени начала
         for (Task task : tasks.values()) {
-            prioritizedTasks.remove(task);
+            intervalIndex.remove(task.getId());
+            forget(task.getId());
         }
         tasks.clear();
+        taskStatusIndex.clear();
+        tasksChanged();
     }
 
-    // Получить все эпики
+    // Получить все эпики в виде неизменяемого снимка
     @Override
     public List<Epic> getAllEpics() {
-        return new ArrayList<>(epics.values());
+        return epicsSnapshot.get(() -> Collections.unmodifiableList(new ArrayList<>(epics.values())));
     }
 
     // Получить эпик по идентификатору
     @Override
     public Epic getEpicById(int id) {
+        return getEpicById(id, null);
+    }
+
+    // Получить эпик по идентификатору и записать просмотр в историю клиента
+    @Override
+    public Epic getEpicById(int id, String clientId) {
         Epic epic = epics.get(id);
-        if (epic != null) {
-            historyManager.add(epic);
-        }
+        recordView(epic, clientId);
         return epic;
     }
 
@@ -230,6 +512,10 @@ public class InMemoryTaskManager implements TaskManager {
         int id = generateId();
         epic.setId(id);
         epics.put(id, epic);
+        epicStatusIndex.put(epic);
+        touch(id);
+        epicAggregates.put(id, new EpicAggregate());
+        epicsChanged();
     }
 
     // Обновить существующий эпик
@@ -252,6 +538,7 @@ public class InMemoryTaskManager implements TaskManager {
             updateEpicStatus(id);
             // Обновляем временные поля эпика на основе его подзадач
             updateEpicTimeFields(id);
+            epicsChanged();
         }
     }
 
@@ -263,17 +550,20 @@ public class InMemoryTaskManager implements TaskManager {
 
             // Удаляем все подзадачи этого эпика
             for (Integer subtaskId : epic.getSubtaskIds()) {
-                Subtask subtask = subtasks.get(subtaskId);
-                if (subtask != null) {
-                    // Удаляем подзадачу из отсортированного набора
-                    prioritizedTasks.remove(subtask);
-                }
+                intervalIndex.remove(subtaskId);
                 subtasks.remove(subtaskId);
+                subtaskStatusIndex.remove(subtaskId);
                 historyManager.remove(subtaskId);
+                forget(subtaskId);
             }
 
             epics.remove(id);
+            epicStatusIndex.remove(id);
+            epicAggregates.remove(id);
             historyManager.remove(id);
+            forget(id);
+            epicsChanged();
+            subtasksChanged();
         }
     }
 
@@ -283,6 +573,7 @@ public class InMemoryTaskManager implements TaskManager {
         // Удаляем все эпики и их подзадачи из истории просмотров перед очисткой
         for (Integer epicId : epics.keySet()) {
             historyManager.remove(epicId);
+            forget(epicId);
 
             Epic epic = epics.get(epicId);
             for (Integer subtaskId : epic.getSubtaskIds()) {
@@ -290,29 +581,39 @@ public class InMemoryTaskManager implements TaskManager {
             }
         }
 
-        // Удаляем все подзадачи из отсортированного набора
+        // Удаляем все подзадачи из индекса по времени начала
         for (Subtask subtask : subtasks.values()) {
-            prioritizedTasks.remove(subtask);
+            intervalIndex.remove(subtask.getId());
+            forget(subtask.getId());
         }
 
         // Очищаем коллекции эпиков и подзадач
         epics.clear();
+        epicStatusIndex.clear();
+        epicAggregates.clear();
         subtasks.clear();
+        subtaskStatusIndex.clear();
+        epicsChanged();
+        subtasksChanged();
     }
 
-    // Получить все подзадачи
+    // Получить все подзадачи в виде неизменяемого снимка
     @Override
     public List<Subtask> getAllSubtasks() {
-        return new ArrayList<>(subtasks.values());
+        return subtasksSnapshot.get(() -> Collections.unmodifiableList(new ArrayList<>(subtasks.values())));
     }
 
     // Получить подзадачу по идентификатору
     @Override
     public Subtask getSubtaskById(int id) {
+        return getSubtaskById(id, null);
+    }
+
+    // Получить подзадачу по идентификатору и записать просмотр в историю клиента
+    @Override
+    public Subtask getSubtaskById(int id, String clientId) {
         Subtask subtask = subtasks.get(id);
-        if (subtask != null) {
-            historyManager.add(subtask);
-        }
+        recordView(subtask, clientId);
         return subtask;
     }
 
@@ -335,19 +636,21 @@ public class InMemoryTaskManager implements TaskManager {
         int id = generateId();
         subtask.setId(id);
         subtasks.put(id, subtask);
+        subtaskStatusIndex.put(subtask);
+        touch(id);
 
         // Добавляем подзадачу в эпик
         epic.addSubtaskId(id);
+        aggregateOf(epicId).put(subtask);
 
-        // Добавляем подзадачу в отсортированный набор, если у нее есть время начала
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        // Добавляем подзадачу в индекс по времени начала, если у нее есть время начала
+        intervalIndex.put(subtask);
 
         // Обновляем статус эпика
         updateEpicStatus(epicId);
         // Обновляем временные поля эпика
         updateEpicTimeFields(epicId);
+        subtasksChanged();
     }
 
     // Обновить существующую подзадачу
@@ -364,15 +667,9 @@ public class InMemoryTaskManager implements TaskManager {
                 return;
             }
 
-            // Удаляем старую версию подзадачи из отсортированного набора
-            prioritizedTasks.remove(oldSubtask);
-
             // Проверяем, не пересекается ли обновленная подзадача с существующими задачами
+            // Старая версия подзадачи исключается из проверки по идентификатору
             if (subtask.getStartTime() != null && hasOverlaps(subtask)) {
-                // Возвращаем старую версию подзадачи в отсортированный набор
-                if (oldSubtask.getStartTime() != null) {
-                    prioritizedTasks.add(oldSubtask);
-                }
                 throw new IllegalStateException("Подзадача пересекается по времени с уже существующими задачами");
             }
 
@@ -382,24 +679,28 @@ public class InMemoryTaskManager implements TaskManager {
                 Epic oldEpic = epics.get(oldEpicId);
                 if (oldEpic != null) {
                     oldEpic.removeSubtaskId(id);
+                    aggregateOf(oldEpicId).remove(id);
                     updateEpicStatus(oldEpicId);
                     updateEpicTimeFields(oldEpicId);
                 }
                 epic.addSubtaskId(id);
             }
+            // Заменяем вклад подзадачи в накопленные значения эпика
+            aggregateOf(epicId).put(subtask);
 
             // Обновляем подзадачу
             subtasks.put(id, subtask);
+            subtaskStatusIndex.put(subtask);
+            touch(id);
 
-            // Добавляем обновленную подзадачу в отсортированный набор, если у нее есть время начала
-            if (subtask.getStartTime() != null) {
-                prioritizedTasks.add(subtask);
-            }
+            // Добавляем обновленную подзадачу в индекс по времени начала, если у нее есть время начала
+            intervalIndex.put(subtask);
 
             // Обновляем статус эпика
             updateEpicStatus(epicId);
             // Обновляем временные поля эпика
             updateEpicTimeFields(epicId);
+            subtasksChanged();
         }
     }
 
@@ -410,20 +711,24 @@ public class InMemoryTaskManager implements TaskManager {
             Subtask subtask = subtasks.get(id);
             int epicId = subtask.getEpicId();
 
-            // Удаляем подзадачу из отсортированного набора
-            prioritizedTasks.remove(subtask);
+            // Удаляем подзадачу из индекса по времени начала
+            intervalIndex.remove(id);
 
             // Удаляем подзадачу
             subtasks.remove(id);
+            subtaskStatusIndex.remove(id);
             historyManager.remove(id);
+            forget(id);
 
             // Удаляем подзадачу из эпика и обновляем его статус
             Epic epic = epics.get(epicId);
             if (epic != null) {
                 epic.removeSubtaskId(id);
+                aggregateOf(epicId).remove(id);
                 updateEpicStatus(epicId);
                 updateEpicTimeFields(epicId);
             }
+            subtasksChanged();
         }
     }
 
@@ -435,20 +740,24 @@ public class InMemoryTaskManager implements TaskManager {
             historyManager.remove(id);
         }
 
-        // Удаляем все подзадачи из отсортированного набора
+        // Удаляем все подзадачи из индекса по времени начала
         for (Subtask subtask : subtasks.values()) {
-            prioritizedTasks.remove(subtask);
+            intervalIndex.remove(subtask.getId());
+            forget(subtask.getId());
         }
 
         // Очищаем список подзадач
         subtasks.clear();
+        subtaskStatusIndex.clear();
 
         // Очищаем списки подзадач у всех эпиков и обновляем их статусы
         for (Epic epic : epics.values()) {
             epic.clearSubtasks();
+            aggregateOf(epic.getId()).clear();
             updateEpicStatus(epic.getId());
             updateEpicTimeFields(epic.getId());
         }
+        subtasksChanged();
     }
 
     // Получить список подзадач для эпика
@@ -469,102 +778,66 @@ public class InMemoryTaskManager implements TaskManager {
         return result;
     }
 
-    // Обновить статус эпика на основе статусов его подзадач
-    protected void updateEpicStatus(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) {
-            return;
-        }
-
-        List<Integer> subtaskIds = epic.getSubtaskIds();
-
-        // Если у эпика нет подзадач, его статус - NEW
-        if (subtaskIds.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
-            return;
-        }
+    // Получить задачи в указанном статусе
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        return taskStatusIndex.list(status);
+    }
 
-        // Проверяем статусы всех подзадач
-        boolean allNew = true;
-        boolean allDone = true;
+    // Получить эпики в указанном статусе
+    @Override
+    public List<Epic> getEpicsByStatus(TaskStatus status) {
+        return epicStatusIndex.list(status);
+    }
 
-        for (Integer subtaskId : subtaskIds) {
-            Subtask subtask = subtasks.get(subtaskId);
-            if (subtask == null) {
-                continue;
-            }
+    // Получить подзадачи в указанном статусе
+    @Override
+    public List<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return subtaskStatusIndex.list(status);
+    }
 
-            TaskStatus status = subtask.getStatus();
+    // Получить количество задач в указанном статусе
+    @Override
+    public int countTasksByStatus(TaskStatus status) {
+        return taskStatusIndex.count(status);
+    }
 
-            if (status != TaskStatus.NEW) {
-                allNew = false;
-            }
+    // Получить количество эпиков в указанном статусе
+    @Override
+    public int countEpicsByStatus(TaskStatus status) {
+        return epicStatusIndex.count(status);
+    }
 
-            if (status != TaskStatus.DONE) {
-                allDone = false;
-            }
-        }
+    // Получить количество подзадач в указанном статусе
+    @Override
+    public int countSubtasksByStatus(TaskStatus status) {
+        return subtaskStatusIndex.count(status);
+    }
 
-        // Определяем статус эпика на основе статусов подзадач
-        if (allNew) {
-            epic.setStatus(TaskStatus.NEW);
-        } else if (allDone) {
-            epic.setStatus(TaskStatus.DONE);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
-        }
+    // Получить накопленные значения подзадач эпика
+    private EpicAggregate aggregateOf(int epicId) {
+        return epicAggregates.computeIfAbsent(epicId, id -> new EpicAggregate());
     }
 
-    // Обновить временные поля эпика на основе его подзадач
-    protected void updateEpicTimeFields(int epicId) {
+    // Обновить статус эпика на основе количества его подзадач в каждом статусе за O(1)
+    protected void updateEpicStatus(int epicId) {
         Epic epic = epics.get(epicId);
         if (epic == null) {
             return;
         }
+        aggregateOf(epicId).applyStatus(epic);
+        epicStatusIndex.put(epic);
+    }
 
-        List<Integer> subtaskIds = epic.getSubtaskIds();
-
-        // Если у эпика нет подзадач, сбрасываем временные поля
-        if (subtaskIds.isEmpty()) {
-            epic.setStartTime(null);
-            epic.setDuration(null);
-            epic.setEndTime(null);
+    // Обновить временные поля эпика по минимальному началу и максимальному завершению подзадач за O(log k)
+    protected void updateEpicTimeFields(int epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
             return;
         }
-
-        // Находим минимальное время начала и максимальное время завершения среди подзадач
-        java.time.LocalDateTime minStartTime = null;
-        java.time.LocalDateTime maxEndTime = null;
-        java.time.Duration totalDuration = java.time.Duration.ZERO;
-
-        for (Integer subtaskId : subtaskIds) {
-            Subtask subtask = subtasks.get(subtaskId);
-            if (subtask == null || subtask.getStartTime() == null) {
-                continue;
-            }
-
-            java.time.LocalDateTime startTime = subtask.getStartTime();
-            java.time.LocalDateTime endTime = subtask.getEndTime();
-            java.time.Duration duration = subtask.getDuration();
-
-            // Обновляем минимальное время начала
-            if (minStartTime == null || startTime.isBefore(minStartTime)) {
-                minStartTime = startTime;
-            }
-
-            // Обновляем максимальное время завершения
-            if (maxEndTime == null || endTime.isAfter(maxEndTime)) {
-                maxEndTime = endTime;
-            }
-
-            // Суммируем продолжительности подзадач
-            totalDuration = totalDuration.plus(duration);
-        }
-
-        // Устанавливаем временные поля эпика
-        epic.setStartTime(minStartTime);
-        epic.setDuration(totalDuration);
-        epic.setEndTime(maxEndTime);
+        aggregateOf(epicId).applyTimeFields(epic);
+        // Пересчет вызывается при каждом изменении подзадач, поэтому версия эпика учитывает и их
+        touch(epicId);
     }
 
     // Получить историю просмотров
@@ -573,28 +846,51 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
-    // Проверить, пересекаются ли две задачи по времени
-    protected boolean tasksOverlap(Task task1, Task task2) {
-        // Если у одной из задач нет времени начала, они не пересекаются
-        if (task1.getStartTime() == null || task2.getStartTime() == null) {
-            return false;
+    // Получить историю просмотров клиента
+    @Override
+    public List<Task> getHistory(String clientId) {
+        return clientId == null ? getHistory() : clientHistories.getHistory(clientId);
+    }
+
+    // Записать просмотр в общую историю или в историю клиента
+    private void recordView(Task task, String clientId) {
+        if (task == null) {
+            return;
+        }
+        if (clientId == null) {
+            historyManager.add(task);
+        } else {
+            clientHistories.add(clientId, task);
         }
+        historyVersion.incrementAndGet();
+    }
 
-        // Если это одна и та же задача, она не пересекается сама с собой
-        if (task1.getId() == task2.getId()) {
-            return false;
+    // Убрать из общей истории просмотр объекта, если объект был удален одновременно с просмотром:
+    // удаление очищает историю, но просмотр без блокировки мог записать объект уже после этого
+    protected void discardViewIfDeleted(int id) {
+        if (findById(id) == null) {
+            historyManager.remove(id);
+            historyVersion.incrementAndGet();
         }
+    }
 
-        // Проверяем, пересекаются ли интервалы времени задач
-        java.time.LocalDateTime start1 = task1.getStartTime();
-        java.time.LocalDateTime end1 = task1.getEndTime();
-        java.time.LocalDateTime start2 = task2.getStartTime();
-        java.time.LocalDateTime end2 = task2.getEndTime();
+    // Получить версию состояния менеджера
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    // Получить версию задачи, эпика или подзадачи
+    @Override
+    public long getVersion(int id) {
+        Long entityVersion = entityVersions.get(id);
+        return entityVersion != null ? entityVersion : -1;
+    }
 
-        // Задачи пересекаются, если:
-        // - начало одной задачи находится внутри интервала другой задачи, или
-        // - конец одной задачи находится внутри интервала другой задачи
-        return (start1.isBefore(end2) && start2.isBefore(end1));
+    // Получить версию истории просмотров
+    @Override
+    public long getHistoryVersion() {
+        return historyVersion.get();
     }
 
     // Проверить, пересекается ли задача с другими задачами
@@ -604,20 +900,7 @@ public class InMemoryTaskManager implements TaskManager {
             return false;
         }
 
-        // Проверяем пересечения с обычными задачами
-        for (Task otherTask : tasks.values()) {
-            if (tasksOverlap(task, otherTask)) {
-                return true;
-            }
-        }
-
-        // Проверяем пересечения с подзадачами
-        for (Subtask otherSubtask : subtasks.values()) {
-            if (tasksOverlap(task, otherSubtask)) {
-                return true;
-            }
-        }
-
-        return false;
+        // Ищем пересечения с задачами и подзадачами в индексе интервалов за O(log n)
+        return intervalIndex.overlaps(task.getStartTime(), task.getEndTime(), task.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+import taskmanager.model.TaskType;
+
+/**
+ * Запись об одном изменении состояния менеджера задач
+ * Используется для журналирования изменений и их воспроизведения при загрузке
+ */
+class JournalRecord {
+    /**
+     * Тип операции
+     */
+    enum Operation {
+        // Создание или обновление задачи, эпика или подзадачи
+        PUT,
+        // Удаление по идентификатору
+        DELETE,
+        // Удаление всех задач одного типа
+        CLEAR
+    }
+
+    private final Operation operation;
+    private final TaskType type;
+    private final int id;
+    private final Task task;
+
+    private JournalRecord(Operation operation, TaskType type, int id, Task task) {
+        this.operation = operation;
+        this.type = type;
+        this.id = id;
+        this.task = task;
+    }
+
+    /**
+     * Создать запись о создании или обновлении задачи
+     * @param task задача, эпик или подзадача в актуальном состоянии
+     * @return запись журнала
+     */
+    static JournalRecord put(Task task) {
+        return new JournalRecord(Operation.PUT, typeOf(task), task.getId(), task);
+    }
+
+    /**
+     * Создать запись об удалении по идентификатору
+     * @param type тип удаляемой задачи
+     * @param id идентификатор
+     * @return запись журнала
+     */
+    static JournalRecord delete(TaskType type, int id) {
+        return new JournalRecord(Operation.DELETE, type, id, null);
+    }
+
+    /**
+     * Создать запись об удалении всех задач одного типа
+     * @param type тип задач
+     * @return запись журнала
+     */
+    static JournalRecord clear(TaskType type) {
+        return new JournalRecord(Operation.CLEAR, type, 0, null);
+    }
+
+    /**
+     * Определить тип задачи для сериализации
+     * @param task задача
+     * @return тип задачи
+     */
+    static TaskType typeOf(Task task) {
+        if (task instanceof Epic) {
+            return TaskType.EPIC;
+        } else if (task instanceof Subtask) {
+            return TaskType.SUBTASK;
+        }
+        return TaskType.TASK;
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    TaskType getType() {
+        return type;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    Task getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,105 @@
+package taskmanager.service.impl;
+
+import taskmanager.service.HistoryManager;
+
+import java.io.File;
+
+/**
+ * Менеджер задач с журналированием изменений
+ * Каждое создание, обновление или удаление дописывает одну короткую запись в файл журнала
+ * вместо перезаписи всего файла. Через каждые snapshotInterval записей состояние целиком
+ * сохраняется в снимок, а журнал переносится к предыдущему поколению снимка, что ограничивает время
+ * восстановления
+ * История просмотров сохраняется только вместе со снимком
+ */
+public class JournaledTaskManager extends FileBackedTaskManager {
+    // Количество записей журнала между снимками по умолчанию
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+
+    private final File journal;
+    private final int snapshotInterval;
+    private int recordsSinceSnapshot;
+
+    /**
+     * Конструктор для создания нового JournaledTaskManager
+     * @param file файл снимка, журнал хранится рядом с ним с расширением .journal
+     */
+    public JournaledTaskManager(File file) {
+        this(file, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Конструктор для создания нового JournaledTaskManager с указанным интервалом снимков
+     * @param file файл снимка
+     * @param snapshotInterval количество записей журнала, после которого записывается снимок
+     */
+    public JournaledTaskManager(File file, int snapshotInterval) {
+        super(file);
+        this.journal = journalFileFor(file);
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Конструктор для создания нового JournaledTaskManager с указанным HistoryManager
+     * @param file файл снимка
+     * @param historyManager менеджер истории просмотров
+     * @param snapshotInterval количество записей журнала, после которого записывается снимок
+     */
+    public JournaledTaskManager(File file, HistoryManager historyManager, int snapshotInterval) {
+        super(file, historyManager);
+        this.journal = journalFileFor(file);
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Загрузить менеджер из снимка и журнала изменений
+     * @param file файл снимка
+     * @param snapshotInterval количество записей журнала, после которого записывается снимок
+     * @return загруженный менеджер задач
+     */
+    public static JournaledTaskManager loadFromFile(File file, int snapshotInterval) {
+        JournaledTaskManager manager = new JournaledTaskManager(file, snapshotInterval);
+        manager.restore();
+        return manager;
+    }
+
+    /**
+     * Дописать изменение в журнал и при необходимости записать снимок
+     * @param record запись об изменении
+     */
+    @Override
+    protected void persist(JournalRecord record) {
+        appendToJournal(journal, record);
+        recordsSinceSnapshot++;
+        if (recordsSinceSnapshot >= snapshotInterval) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Записать пакет сразу в снимок: одна запись снимка дешевле, чем запись журнала на каждый объект
+     */
+    @Override
+    protected void persistBulk() {
+        snapshot();
+    }
+
+    /**
+     * Записать снимок текущего состояния и начать новый журнал
+     * Журнал переносится к предыдущему поколению снимка и воспроизводится поверх него, если новый снимок
+     * окажется поврежден. Если сбой произойдет между записью снимка и переносом журнала, повторное
+     * воспроизведение журнала при загрузке даст то же состояние, так как записи идемпотентны
+     */
+    public void snapshot() {
+        save();
+        recordsSinceSnapshot = 0;
+    }
+
+    /**
+     * Получить файл журнала изменений
+     * @return файл журнала
+     */
+    public File getJournalFile() {
+        return journal;
+    }
+}
@@ -0,0 +1,121 @@
+package taskmanager.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Непрозрачные курсоры постраничного получения списков
+ * Курсор хранит позицию последнего элемента страницы: идентификатор для списков по идентификатору,
+ * время начала и идентификатор для приоритизированного списка. Позиция кодируется в Base64 (URL-safe),
+ * чтобы клиенты не разбирали курсор и передавали его в адресе запроса без экранирования
+ */
+class PageCursor {
+    private static final String ID_PREFIX = "id:";
+    private static final String START_PREFIX = "start:";
+
+    private PageCursor() {
+    }
+
+    /**
+     * Проверить размер страницы
+     * @param limit размер страницы
+     * @throws IllegalArgumentException если размер не положителен
+     */
+    static void checkLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным: " + limit);
+        }
+    }
+
+    /**
+     * Сформировать курсор позиции в списке по идентификатору
+     * @param id идентификатор последнего элемента страницы
+     * @return курсор
+     */
+    static String ofId(int id) {
+        return encode(ID_PREFIX + id);
+    }
+
+    /**
+     * Прочитать идентификатор из курсора
+     * @param cursor курсор
+     * @return идентификатор последнего элемента предыдущей страницы
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    static int parseId(String cursor) {
+        String value = decode(cursor);
+        if (!value.startsWith(ID_PREFIX)) {
+            throw invalid(cursor);
+        }
+        try {
+            return Integer.parseInt(value, ID_PREFIX.length(), value.length(), 10);
+        } catch (NumberFormatException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    /**
+     * Сформировать курсор позиции в списке по времени начала
+     * @param startTime время начала последнего элемента страницы
+     * @param id идентификатор последнего элемента страницы
+     * @return курсор
+     */
+    static String ofStart(LocalDateTime startTime, int id) {
+        return encode(START_PREFIX + startTime.toEpochSecond(ZoneOffset.UTC) + ":" + startTime.getNano() + ":" + id);
+    }
+
+    /**
+     * Прочитать позицию по времени начала из курсора
+     * @param cursor курсор
+     * @return время начала и идентификатор последнего элемента предыдущей страницы
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    static StartPosition parseStart(String cursor) {
+        String value = decode(cursor);
+        if (!value.startsWith(START_PREFIX)) {
+            throw invalid(cursor);
+        }
+        String[] parts = value.substring(START_PREFIX.length()).split(":");
+        if (parts.length != 3) {
+            throw invalid(cursor);
+        }
+        try {
+            LocalDateTime startTime = LocalDateTime.ofEpochSecond(Long.parseLong(parts[0]),
+                    Integer.parseInt(parts[1]), ZoneOffset.UTC);
+            return new StartPosition(startTime, Integer.parseInt(parts[2]));
+        } catch (RuntimeException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+    }
+
+    private static IllegalArgumentException invalid(String cursor) {
+        return new IllegalArgumentException("Некорректный курсор: " + cursor);
+    }
+
+    /**
+     * Позиция в списке, упорядоченном по времени начала
+     */
+    static class StartPosition {
+        final LocalDateTime startTime;
+        final int id;
+
+        StartPosition(LocalDateTime startTime, int id) {
+            this.startTime = startTime;
+            this.id = id;
+        }
+    }
+}
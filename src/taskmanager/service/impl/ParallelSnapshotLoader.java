@@ -0,0 +1,212 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32C;
+
+/**
+ * Параллельная загрузка текстового снимка
+ * Файл отображается в память, область записей делится на части по границам строк, и части
+ * разбираются независимо на пуле ForkJoinPool. Разобранные задачи добавляются в менеджер одной
+ * операцией addAllWithIds, поэтому связи эпиков и индексы по времени строятся один раз в конце
+ */
+class ParallelSnapshotLoader {
+    // Минимальный размер части, меньшие части не окупают накладные расходы на задачу пула
+    private static final int MIN_CHUNK_BYTES = 64 * 1024;
+    // Частей больше, чем потоков, чтобы потоки, закончившие раньше, забирали оставшуюся работу
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelSnapshotLoader() {
+    }
+
+    /**
+     * Загрузить текстовый снимок в менеджер
+     * Длина и контрольная сумма из заголовка проверяются до разбора записей, а количество записей -
+     * до добавления задач в менеджер
+     * @param file файл снимка размером не более 2 ГБ
+     * @param manager менеджер, в который добавляются задачи
+     * @param parallelism количество потоков разбора
+     * @return false, если снимок оборван или поврежден; в этом случае менеджер не изменяется
+     * @throws IOException если произошла ошибка при чтении файла
+     */
+    static boolean load(File file, FileBackedTaskManager manager, int parallelism) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = buffer.capacity();
+
+        int bodyStart = 0;
+        SnapshotHeader header = null;
+        if (startsWithHeader(buffer)) {
+            int headerEnd = indexOf(buffer, '\n', 0, size);
+            if (headerEnd < 0) {
+                return false;
+            }
+            try {
+                header = SnapshotHeader.parse(decode(buffer, 0, headerEnd));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            bodyStart = headerEnd + 1;
+            if (!header.matchesLength(size - bodyStart)) {
+                return false;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().position(bodyStart));
+            if (!header.matchesChecksum(crc.getValue())) {
+                return false;
+            }
+        }
+
+        // Пропускаем строку с названиями столбцов
+        int columnsEnd = indexOf(buffer, '\n', bodyStart, size);
+        if (columnsEnd < 0) {
+            return true;
+        }
+        int recordsStart = columnsEnd + 1;
+
+        // Записи заканчиваются первой пустой строкой, после которой идет строка истории, как и при
+        // последовательной загрузке. Каждая часть останавливается на своей первой пустой строке, а части
+        // объединяются по порядку до первой из них; результаты следующих частей не используются
+        String historyLine = null;
+        List<ForkJoinTask<Chunk>> parts = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int[] bounds : split(buffer, recordsStart, size, parallelism)) {
+                parts.add(pool.submit(() -> parse(buffer, bounds[0], bounds[1])));
+            }
+            List<Task> tasks = new ArrayList<>();
+            List<Epic> epics = new ArrayList<>();
+            List<Subtask> subtasks = new ArrayList<>();
+            for (ForkJoinTask<Chunk> part : parts) {
+                Chunk chunk = part.join();
+                tasks.addAll(chunk.tasks);
+                epics.addAll(chunk.epics);
+                subtasks.addAll(chunk.subtasks);
+                if (chunk.blankLineEnd >= 0) {
+                    historyLine = decodeLine(buffer, chunk.blankLineEnd + 1, size);
+                    break;
+                }
+            }
+            if (header != null && !header.matchesRecords(tasks.size() + epics.size() + subtasks.size())) {
+                return false;
+            }
+            manager.addAllWithIds(tasks, epics, subtasks);
+        } finally {
+            pool.shutdown();
+        }
+
+        if (historyLine != null && !historyLine.isBlank()) {
+            manager.restoreHistory(historyLine);
+        }
+        return true;
+    }
+
+    // Разделить область записей на части, каждая граница сдвигается к началу следующей строки
+    private static List<int[]> split(MappedByteBuffer buffer, int start, int end, int parallelism) {
+        int length = end - start;
+        int count = Math.max(1, Math.min(parallelism * CHUNKS_PER_THREAD, length / MIN_CHUNK_BYTES));
+        List<int[]> chunks = new ArrayList<>(count);
+        int chunkStart = start;
+        for (int i = 1; i <= count && chunkStart < end; i++) {
+            int chunkEnd = i == count ? end : start + (int) ((long) length * i / count);
+            if (chunkEnd <= chunkStart) {
+                continue;
+            }
+            int newline = indexOf(buffer, '\n', chunkEnd == 0 ? 0 : chunkEnd - 1, end);
+            chunkEnd = newline < 0 ? end : newline + 1;
+            chunks.add(new int[] {chunkStart, chunkEnd});
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    // Разобрать строки части до первой пустой строки
+    private static Chunk parse(MappedByteBuffer buffer, int start, int end) {
+        Chunk chunk = new Chunk();
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = indexOf(buffer, '\n', lineStart, end);
+            if (lineEnd < 0) {
+                lineEnd = end;
+            }
+            String line = decode(buffer, lineStart, lineEnd);
+            if (line.isBlank()) {
+                chunk.blankLineEnd = lineEnd;
+                break;
+            }
+            Task task = FileBackedTaskManager.fromString(line);
+            if (task instanceof Epic) {
+                chunk.epics.add((Epic) task);
+            } else if (task instanceof Subtask) {
+                chunk.subtasks.add((Subtask) task);
+            } else {
+                chunk.tasks.add(task);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    private static boolean startsWithHeader(MappedByteBuffer buffer) {
+        String prefix = SnapshotHeader.PREFIX;
+        if (buffer.capacity() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, char value, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Прочитать строку до перевода строки или до конца области
+    private static String decodeLine(MappedByteBuffer buffer, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        int newline = indexOf(buffer, '\n', start, end);
+        return decode(buffer, start, newline < 0 ? end : newline);
+    }
+
+    // Абсолютное чтение не меняет позицию буфера, поэтому безопасно из нескольких потоков
+    private static String decode(MappedByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Задачи, разобранные из одной части файла
+     */
+    private static class Chunk {
+        final List<Task> tasks = new ArrayList<>();
+        final List<Epic> epics = new ArrayList<>();
+        final List<Subtask> subtasks = new ArrayList<>();
+        // Позиция перевода строки в конце первой пустой строки части или -1, если ее нет
+        int blankLineEnd = -1;
+    }
+}
@@ -0,0 +1,229 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * Истории просмотров, разделенные по идентификатору клиента
+ * История каждого клиента - IdHistoryManager ограниченного размера, поэтому запись занимает несколько
+ * десятков байт, а задачи разрешаются через менеджер задач при чтении. Все истории делят общий бюджет памяти,
+ * измеряемый в записях: кроме самих записей каждый клиент расходует бюджет на служебные структуры своей истории,
+ * поэтому число хранимых клиентов ограничено даже при истории из одной записи. Когда бюджет превышен,
+ * целиком вытесняются истории клиентов, дольше всех не обращавшихся к менеджеру.
+ * Идентификаторы удаленных задач не ищутся по всем историям, а удаляются из истории клиента при ее чтении;
+ * опустевшая после этого история убирается из хранилища.
+ * Обращения разных клиентов не блокируют друг друга: история клиента защищена собственным монитором,
+ * а общий размер считается атомарно. Вытеснение выполняется под отдельной блокировкой одним потоком
+ * и освобождает запас бюджета, чтобы упорядочивание клиентов по давности обращения выполнялось редко
+ */
+public class PartitionedHistoryStore {
+    // Размер истории одного клиента по умолчанию
+    public static final int DEFAULT_CLIENT_CAPACITY = 100;
+    // Служебные структуры истории клиента по умолчанию в записях: пустые массивы IdHistoryManager, объект истории,
+    // строка идентификатора и узел ConcurrentHashMap занимают 600-800 байт, запись - около 28 байт
+    public static final int DEFAULT_CLIENT_OVERHEAD = 32;
+    // Общий бюджет по умолчанию в записях, около 30 МБ: семь с половиной тысяч клиентов с полной историей
+    // или тридцать тысяч клиентов с одним просмотром
+    public static final int DEFAULT_TOTAL_BUDGET = 1_000_000;
+    // Доля бюджета, освобождаемая одним вытеснением сверх превышения
+    private static final int EVICTION_SLACK_DIVISOR = 16;
+
+    private final Map<String, ClientHistory> histories = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Счетчик обращений, по которому определяется давность обращения клиента
+    private final AtomicLong accessClock = new AtomicLong();
+    private final AtomicInteger totalSize = new AtomicInteger();
+    private final int clientCapacity;
+    private final int clientOverhead;
+    private final int totalBudget;
+    // Размер, до которого вытеснение сокращает истории; не меньше истории одного клиента
+    private final int evictionTarget;
+    private final IntFunction<? extends Task> resolver;
+
+    // История клиента; изменяется под монитором объекта
+    private static final class ClientHistory {
+        private final String clientId;
+        private final IdHistoryManager history;
+        private volatile long lastAccess;
+        // Вытесненная история уже убрана из хранилища и больше не изменяется
+        private boolean evicted;
+
+        private ClientHistory(String clientId, IdHistoryManager history) {
+            this.clientId = clientId;
+            this.history = history;
+        }
+    }
+
+    /**
+     * Конструктор со служебными расходами клиента по умолчанию
+     * @param clientCapacity наибольшее количество задач в истории одного клиента
+     * @param totalBudget общий бюджет всех историй в записях
+     * @param resolver функция, возвращающая текущую задачу по идентификатору или null, если задачи нет
+     * @throws IllegalArgumentException если размеры не положительны или история клиента больше общего бюджета
+     */
+    public PartitionedHistoryStore(int clientCapacity, int totalBudget, IntFunction<? extends Task> resolver) {
+        this(clientCapacity, DEFAULT_CLIENT_OVERHEAD, totalBudget, resolver);
+    }
+
+    /**
+     * Конструктор
+     * @param clientCapacity наибольшее количество задач в истории одного клиента
+     * @param clientOverhead служебные расходы истории одного клиента в записях
+     * @param totalBudget общий бюджет всех историй в записях
+     * @param resolver функция, возвращающая текущую задачу по идентификатору или null, если задачи нет
+     * @throws IllegalArgumentException если размеры некорректны или полная история клиента больше общего бюджета
+     */
+    public PartitionedHistoryStore(int clientCapacity, int clientOverhead, int totalBudget,
+                                   IntFunction<? extends Task> resolver) {
+        if (clientCapacity < 1 || clientOverhead < 0 || totalBudget < clientCapacity + clientOverhead) {
+            throw new IllegalArgumentException("Некорректные размеры историй: история клиента " + clientCapacity
+                    + ", служебные расходы " + clientOverhead + ", общий бюджет " + totalBudget);
+        }
+        this.clientCapacity = clientCapacity;
+        this.clientOverhead = clientOverhead;
+        this.totalBudget = totalBudget;
+        this.evictionTarget = Math.max(clientCapacity + clientOverhead,
+                totalBudget - totalBudget / EVICTION_SLACK_DIVISOR);
+        this.resolver = resolver;
+    }
+
+    /**
+     * Записать просмотр задачи в историю клиента
+     * Новая история сразу расходует бюджет на служебные структуры.
+     * При превышении общего бюджета вытесняются истории наименее активных клиентов
+     * @param clientId идентификатор клиента
+     * @param task задача, которая была просмотрена
+     */
+    public void add(String clientId, Task task) {
+        if (task == null) {
+            return;
+        }
+        int delta;
+        while (true) {
+            ClientHistory client = histories.computeIfAbsent(clientId, this::createHistory);
+            synchronized (client) {
+                // История вытеснена после получения из хранилища: берется новая
+                if (client.evicted) {
+                    continue;
+                }
+                int before = client.history.size();
+                client.history.add(task);
+                client.lastAccess = accessClock.incrementAndGet();
+                delta = client.history.size() - before;
+            }
+            break;
+        }
+        if (totalSize.addAndGet(delta) > totalBudget) {
+            evictIdle();
+        }
+    }
+
+    /**
+     * Получить историю просмотров клиента
+     * Если все задачи истории удалены, история убирается из хранилища и возвращает бюджет
+     * @param clientId идентификатор клиента
+     * @return список задач в порядке их просмотра; пустой список, если у клиента нет истории
+     */
+    public List<Task> getHistory(String clientId) {
+        ClientHistory client = histories.get(clientId);
+        if (client == null) {
+            return List.of();
+        }
+        List<Task> tasks;
+        int released;
+        synchronized (client) {
+            if (client.evicted) {
+                return List.of();
+            }
+            // Идентификаторы удаленных задач освобождают бюджет при чтении истории клиента
+            released = client.history.removeUnresolved();
+            client.lastAccess = accessClock.incrementAndGet();
+            tasks = client.history.getHistory();
+            // Пустая история не хранится: обращение add после пометки создаст новую
+            if (tasks.isEmpty()) {
+                client.evicted = true;
+                released += clientOverhead;
+            }
+        }
+        if (tasks.isEmpty()) {
+            histories.remove(clientId, client);
+        }
+        totalSize.addAndGet(-released);
+        return tasks;
+    }
+
+    /**
+     * Удалить истории всех клиентов
+     */
+    public void clear() {
+        for (ClientHistory client : histories.values()) {
+            evict(client);
+        }
+    }
+
+    /**
+     * Получить количество клиентов, история которых хранится
+     * @return количество историй
+     */
+    public int getClientCount() {
+        return histories.size();
+    }
+
+    /**
+     * Получить израсходованный бюджет: записи всех историй и служебные расходы хранимых клиентов
+     * @return суммарный размер историй в записях
+     */
+    public int getTotalSize() {
+        return totalSize.get();
+    }
+
+    private ClientHistory createHistory(String clientId) {
+        IdHistoryManager history = new IdHistoryManager(clientCapacity);
+        history.setTaskResolver(resolver);
+        totalSize.addAndGet(clientOverhead);
+        return new ClientHistory(clientId, history);
+    }
+
+    // Вытеснить истории наименее активных клиентов до целевого размера; если вытеснение уже выполняет
+    // другой поток, текущий не ждет его. Только что обратившийся клиент стоит последним и не вытесняется,
+    // так как его история не больше целевого размера
+    private void evictIdle() {
+        while (totalSize.get() > totalBudget && evictionLock.tryLock()) {
+            try {
+                // Время обращения меняется другими потоками, поэтому сортируется его снимок
+                List<Map.Entry<Long, ClientHistory>> clients = new ArrayList<>(histories.size());
+                for (ClientHistory client : histories.values()) {
+                    clients.add(Map.entry(client.lastAccess, client));
+                }
+                clients.sort(Map.Entry.comparingByKey());
+                for (int i = 0; i < clients.size() && totalSize.get() > evictionTarget; i++) {
+                    evict(clients.get(i).getValue());
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    // Убрать историю клиента из хранилища и вернуть в бюджет ее записи и служебные расходы
+    private void evict(ClientHistory client) {
+        histories.remove(client.clientId, client);
+        int size;
+        synchronized (client) {
+            if (client.evicted) {
+                return;
+            }
+            client.evicted = true;
+            size = client.history.size() + clientOverhead;
+        }
+        totalSize.addAndGet(-size);
+    }
+}
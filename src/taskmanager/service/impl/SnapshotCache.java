@@ -0,0 +1,65 @@
+package taskmanager.service.impl;
+
+import java.util.function.Supplier;
+
+/**
+ * Неизменяемый снимок коллекции, перестраиваемый только после изменения исходной коллекции
+ * Каждое изменение увеличивает версию; при чтении снимок строится заново, только если он был
+ * построен для более ранней версии, поэтому повторные чтения между записями возвращают готовый снимок.
+ * Версия и снимок публикуются через volatile-поля: несколько читателей под общей блокировкой чтения
+ * могут одновременно перестроить снимок, но получат одинаковое содержимое
+ * @param <S> тип снимка; построенный снимок не должен изменяться
+ */
+class SnapshotCache<S> {
+    private volatile long version;
+    private volatile Snapshot<S> snapshot;
+
+    /**
+     * Отметить, что исходная коллекция изменилась; снимок будет перестроен при следующем чтении
+     */
+    void invalidate() {
+        version++;
+    }
+
+    /**
+     * Получить снимок для текущей версии
+     * @param source построение нового неизменяемого снимка по исходной коллекции, вызывается только
+     *               при устаревшем снимке
+     * @return снимок
+     */
+    S get(Supplier<? extends S> source) {
+        long current = version;
+        Snapshot<S> cached = snapshot;
+        if (cached != null && cached.version == current) {
+            return cached.value;
+        }
+        S value = source.get();
+        snapshot = new Snapshot<>(current, value);
+        return value;
+    }
+
+    /**
+     * Получить снимок, только если он построен для текущей версии
+     * Метод ничего не строит и не читает исходную коллекцию, поэтому его можно вызывать без блокировки:
+     * версия увеличивается после изменения, и актуальный снимок соответствует состоянию до начатой записи
+     * @return снимок или null, если снимок устарел или еще не построен
+     */
+    S peek() {
+        long current = version;
+        Snapshot<S> cached = snapshot;
+        return cached != null && cached.version == current ? cached.value : null;
+    }
+
+    /**
+     * Снимок вместе с версией, для которой он построен
+     */
+    private static class Snapshot<S> {
+        final long version;
+        final S value;
+
+        Snapshot(long version, S value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package taskmanager.service.impl;
+
+/**
+ * Формат файла снимка менеджера задач
+ */
+public enum SnapshotFormat {
+    // Текстовый CSV-формат с заголовком столбцов и строкой истории
+    CSV,
+    // Компактный двоичный формат с записями фиксированной длины и таблицей строк
+    BINARY
+}
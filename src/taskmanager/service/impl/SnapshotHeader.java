@@ -0,0 +1,120 @@
+package taskmanager.service.impl;
+
+import java.util.zip.CRC32C;
+
+/**
+ * Заголовок файла снимка
+ * Содержит количество записей, длину содержимого в байтах и контрольную сумму CRC32C,
+ * что позволяет обнаружить оборванный или поврежденный файл до разбора его содержимого
+ * Формат: {@code #snapshot records=<n> bytes=<длина> crc32c=<hex>}
+ */
+class SnapshotHeader {
+    static final String PREFIX = "#snapshot";
+
+    private final int records;
+    private final long bytes;
+    private final long checksum;
+
+    SnapshotHeader(int records, long bytes, long checksum) {
+        this.records = records;
+        this.bytes = bytes;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Создать заголовок для содержимого снимка
+     * @param records количество записей задач в снимке
+     * @param body содержимое снимка без заголовка
+     * @return заголовок
+     */
+    static SnapshotHeader of(int records, byte[] body) {
+        return new SnapshotHeader(records, body.length, checksum(body, 0, body.length));
+    }
+
+    /**
+     * Проверить, является ли первая строка файла заголовком снимка
+     * Файлы, записанные до появления заголовка, загружаются без проверки
+     * @param line первая строка файла
+     * @return true, если строка является заголовком
+     */
+    static boolean isHeader(String line) {
+        return line.startsWith(PREFIX);
+    }
+
+    /**
+     * Разобрать строку заголовка
+     * @param line строка заголовка без перевода строки
+     * @return заголовок
+     * @throws IllegalArgumentException если строка не является корректным заголовком
+     */
+    static SnapshotHeader parse(String line) {
+        int records = -1;
+        long bytes = -1;
+        long checksum = -1;
+        for (String part : line.substring(PREFIX.length()).trim().split(" ")) {
+            int separator = part.indexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            String key = part.substring(0, separator);
+            String value = part.substring(separator + 1);
+            switch (key) {
+                case "records":
+                    records = Integer.parseInt(value);
+                    break;
+                case "bytes":
+                    bytes = Long.parseLong(value);
+                    break;
+                case "crc32c":
+                    checksum = Long.parseLong(value, 16);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (records < 0 || bytes < 0 || checksum < 0) {
+            throw new IllegalArgumentException("Некорректный заголовок снимка: " + line);
+        }
+        return new SnapshotHeader(records, bytes, checksum);
+    }
+
+    /**
+     * Проверить длину содержимого снимка
+     * Проверяется до чтения записей, поэтому оборванный файл обнаруживается без его разбора
+     * @param length длина содержимого снимка без заголовка
+     * @return true, если длина совпадает с заголовком
+     */
+    boolean matchesLength(long length) {
+        return length == bytes;
+    }
+
+    /**
+     * Проверить контрольную сумму содержимого снимка
+     * @param actual контрольная сумма CRC32C, посчитанная при чтении
+     * @return true, если контрольная сумма совпадает с заголовком
+     */
+    boolean matchesChecksum(long actual) {
+        return actual == checksum;
+    }
+
+    /**
+     * Проверить количество записей снимка
+     * Проверяется после разбора и до добавления задач в менеджер
+     * @param actual количество разобранных записей задач, эпиков и подзадач
+     * @return true, если количество совпадает с заголовком
+     */
+    boolean matchesRecords(int actual) {
+        return actual == records;
+    }
+
+    static long checksum(byte[] content, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(content, offset, length);
+        return crc.getValue();
+    }
+
+    @Override
+    public String toString() {
+        return PREFIX + " records=" + records + " bytes=" + bytes + " crc32c=" + String.format("%08x", checksum);
+    }
+}
@@ -0,0 +1,131 @@
+package taskmanager.service.impl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Построчное чтение текстового снимка через буферизованный канал
+ * Файл не загружается в память целиком: в памяти находятся только буфер чтения и текущая строка.
+ * Контрольная сумма прочитанных байтов считается по мере чтения, поэтому ее можно сравнить
+ * с заголовком снимка сразу после последней строки
+ */
+class SnapshotLineReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CRC32C crc = new CRC32C();
+    // Начало строки, которая не поместилась в буфер целиком
+    private byte[] pending = new byte[256];
+    private int pendingLength;
+    private boolean checksumEnabled;
+    private boolean endOfFile;
+    private long position;
+
+    /**
+     * Открыть файл снимка для чтения
+     * @param file файл снимка
+     * @throws IOException если файл не удалось открыть
+     */
+    SnapshotLineReader(File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        buffer.flip();
+    }
+
+    /**
+     * Получить размер файла в байтах
+     * @return размер файла
+     * @throws IOException если произошла ошибка при обращении к файлу
+     */
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Получить количество байтов, уже отданных в виде строк, включая переводы строк
+     * @return позиция чтения
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * Начать подсчет контрольной суммы со следующей строки
+     */
+    void beginChecksum() {
+        checksumEnabled = true;
+        crc.reset();
+    }
+
+    /**
+     * Получить контрольную сумму CRC32C строк, прочитанных после вызова beginChecksum
+     * @return контрольная сумма
+     */
+    long checksum() {
+        return crc.getValue();
+    }
+
+    /**
+     * Прочитать следующую строку
+     * @return строка без перевода строки или null, если файл прочитан до конца
+     * @throws IOException если произошла ошибка при чтении файла
+     */
+    String readLine() throws IOException {
+        pendingLength = 0;
+        while (true) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+            byte[] array = buffer.array();
+            for (int i = start; i < limit; i++) {
+                if (array[i] == '\n') {
+                    buffer.position(i + 1);
+                    consumed(array, start, i + 1 - start);
+                    if (pendingLength == 0) {
+                        return new String(array, start, i - start, StandardCharsets.UTF_8);
+                    }
+                    appendPending(array, start, i - start);
+                    return new String(pending, 0, pendingLength, StandardCharsets.UTF_8);
+                }
+            }
+
+            // Перевод строки не найден: сохраняем начало строки и дочитываем буфер
+            appendPending(array, start, limit - start);
+            consumed(array, start, limit - start);
+            buffer.clear();
+            int read = endOfFile ? -1 : channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                endOfFile = true;
+                // Последняя строка без перевода строки
+                return pendingLength > 0 ? new String(pending, 0, pendingLength, StandardCharsets.UTF_8) : null;
+            }
+        }
+    }
+
+    private void appendPending(byte[] source, int offset, int length) {
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        System.arraycopy(source, offset, pending, pendingLength, length);
+        pendingLength += length;
+    }
+
+    private void consumed(byte[] source, int offset, int length) {
+        position += length;
+        if (checksumEnabled) {
+            crc.update(source, offset, length);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
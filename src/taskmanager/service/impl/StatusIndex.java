@@ -0,0 +1,104 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Вторичный индекс задач одного типа по статусу
+ * Для каждого статуса хранит задачи, упорядоченные по идентификатору, поэтому количество задач
+ * в статусе доступно за O(1), а список - без обхода всех задач.
+ * Статус, под которым задача проиндексирована, запоминается отдельно: объект задачи может быть
+ * изменен снаружи до вызова обновления, и прежний статус нельзя прочитать из него самого.
+ * Изменения индекса должны выполняться из одного потока; в режиме одновременного чтения списки и количества
+ * можно читать без блокировки, пока другой поток изменяет индекс
+ * @param <T> тип задач
+ */
+class StatusIndex<T extends Task> {
+    private final Map<TaskStatus, NavigableMap<Integer, T>> byStatus = new EnumMap<>(TaskStatus.class);
+    private final Map<Integer, TaskStatus> indexedStatuses = new HashMap<>();
+    // Количество задач в каждом статусе: размер ConcurrentSkipListMap вычисляется обходом, поэтому хранится отдельно
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(TaskStatus.values().length);
+
+    /**
+     * Создать пустой индекс
+     * @param concurrentReads true - списки статусов допускают чтение одновременно с изменением индекса
+     */
+    StatusIndex(boolean concurrentReads) {
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, concurrentReads ? new ConcurrentSkipListMap<>() : new TreeMap<>());
+        }
+    }
+
+    /**
+     * Проиндексировать задачу по ее текущему статусу; прежняя запись с тем же идентификатором заменяется
+     * Задача без статуса в индекс не попадает
+     * @param task задача
+     */
+    void put(T task) {
+        int id = task.getId();
+        TaskStatus status = task.getStatus();
+        // При неизменном статусе запись заменяется на месте, и читатель списка не увидит задачу пропавшей
+        if (status == null || status != indexedStatuses.get(id)) {
+            remove(id);
+        }
+        if (status != null) {
+            if (byStatus.get(status).put(id, task) == null) {
+                counts.incrementAndGet(status.ordinal());
+            }
+            indexedStatuses.put(id, status);
+        }
+    }
+
+    /**
+     * Исключить задачу из индекса
+     * @param id идентификатор задачи
+     */
+    void remove(int id) {
+        TaskStatus status = indexedStatuses.remove(id);
+        if (status != null) {
+            byStatus.get(status).remove(id);
+            counts.decrementAndGet(status.ordinal());
+        }
+    }
+
+    /**
+     * Очистить индекс
+     */
+    void clear() {
+        indexedStatuses.clear();
+        for (NavigableMap<Integer, T> tasks : byStatus.values()) {
+            tasks.clear();
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Получить задачи в статусе
+     * @param status статус
+     * @return новый список задач, упорядоченных по идентификатору
+     */
+    List<T> list(TaskStatus status) {
+        return new ArrayList<>(byStatus.get(status).values());
+    }
+
+    /**
+     * Получить количество задач в статусе за O(1)
+     * @param status статус
+     * @return количество задач
+     */
+    int count(TaskStatus status) {
+        return counts.get(status.ordinal());
+    }
+}
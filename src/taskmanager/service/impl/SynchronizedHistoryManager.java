@@ -0,0 +1,43 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Task;
+import taskmanager.service.HistoryManager;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Потокобезопасная обертка над HistoryManager
+ * Просмотр задачи изменяет историю даже при чтении, поэтому каждый вызов выполняется под монитором обертки
+ */
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    /**
+     * Конструктор для создания обертки
+     * @param delegate менеджер истории, доступ к которому синхронизируется
+     */
+    public SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public synchronized void setTaskResolver(IntFunction<? extends Task> resolver) {
+        delegate.setTaskResolver(resolver);
+    }
+}
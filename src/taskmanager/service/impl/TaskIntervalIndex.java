@@ -0,0 +1,338 @@
+package taskmanager.service.impl;
+
+import taskmanager.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Индекс временных интервалов задач и подзадач для быстрой проверки пересечений и упорядоченного обхода
+ * Реализован как декартово дерево (treap), упорядоченное по паре (время начала, id),
+ * где каждый узел хранит максимальное время окончания в своем поддереве.
+ * Идентификатор в ключе делает ключи уникальными, поэтому задачи с одинаковым временем начала
+ * (например, нулевой продолжительности) хранятся рядом и не вытесняют друг друга.
+ * Вставка, удаление и перемещение задачи при изменении времени выполняются за O(log n),
+ * выборка k задач из диапазона - за O(log n + k)
+ */
+class TaskIntervalIndex {
+    /**
+     * Узел дерева
+     * Границы интервала копируются при вставке, поэтому изменение полей задачи
+     * после добавления в индекс не нарушает его структуру
+     */
+    private static class Node {
+        final Task task;
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final int priority;
+        LocalDateTime maxEnd;
+        Node left;
+        Node right;
+
+        Node(Task task, LocalDateTime start, LocalDateTime end) {
+            this.task = task;
+            this.id = task.getId();
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private Node root;
+    // Узлы по идентификатору задачи для удаления без обращения к самой задаче
+    private final Map<Integer, Node> nodesById = new HashMap<>();
+
+    /**
+     * Добавить задачу в индекс или переместить ее, если она уже была добавлена
+     * Задачи без времени начала в индекс не попадают
+     * @param task задача или подзадача
+     */
+    void put(Task task) {
+        remove(task.getId());
+        if (task.getStartTime() == null) {
+            return;
+        }
+        Node node = new Node(task, task.getStartTime(), task.getEndTime());
+        nodesById.put(node.id, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Удалить задачу из индекса по идентификатору
+     * @param id идентификатор задачи
+     */
+    void remove(int id) {
+        Node node = nodesById.remove(id);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Очистить индекс
+     */
+    void clear() {
+        root = null;
+        nodesById.clear();
+    }
+
+    /**
+     * Получить количество интервалов в индексе
+     * @return количество интервалов
+     */
+    int size() {
+        return nodesById.size();
+    }
+
+    /**
+     * Проверить, пересекается ли интервал [start, end) с каким-либо интервалом индекса,
+     * кроме интервала задачи с указанным идентификатором
+     * @param start время начала
+     * @param end время окончания
+     * @param excludedId идентификатор задачи, которую нужно исключить из проверки
+     * @return true, если найдено пересечение
+     */
+    boolean overlaps(LocalDateTime start, LocalDateTime end, int excludedId) {
+        return overlaps(root, start, end, excludedId);
+    }
+
+    private static boolean overlaps(Node node, LocalDateTime start, LocalDateTime end, int excludedId) {
+        // Ни один интервал поддерева не заканчивается после начала запроса
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return false;
+        }
+        if (overlaps(node.left, start, end, excludedId)) {
+            return true;
+        }
+        // Узел и все правое поддерево начинаются не раньше окончания запроса
+        if (!node.start.isBefore(end)) {
+            return false;
+        }
+        if (node.id != excludedId && node.end.isAfter(start)) {
+            return true;
+        }
+        return overlaps(node.right, start, end, excludedId);
+    }
+
+    /**
+     * Получить все задачи индекса в порядке (время начала, id)
+     * @return неизменяемый снимок индекса
+     */
+    Snapshot toList() {
+        int size = nodesById.size();
+        Snapshot snapshot = new Snapshot(new Task[size], new LocalDateTime[size], new int[size]);
+        fill(root, snapshot, 0);
+        return snapshot;
+    }
+
+    // Заполнить снимок узлами поддерева в порядке обхода, вернуть следующую свободную позицию
+    private static int fill(Node node, Snapshot snapshot, int position) {
+        if (node == null) {
+            return position;
+        }
+        position = fill(node.left, snapshot, position);
+        snapshot.tasks[position] = node.task;
+        snapshot.starts[position] = node.start;
+        snapshot.ids[position] = node.id;
+        return fill(node.right, snapshot, position + 1);
+    }
+
+    /**
+     * Получить задачи, следующие за позицией (afterStart, afterId) и начинающиеся раньше to,
+     * в порядке (время начала, id)
+     * Обходятся только поддеревья, пересекающие диапазон, поэтому выборка занимает O(log n + k)
+     * @param afterStart время начала позиции, после которой начинается выборка, или null - с начала индекса
+     * @param afterId идентификатор позиции; Integer.MIN_VALUE включает все задачи, начинающиеся в afterStart
+     * @param to время начала, до которого (не включительно) идет выборка, или null - до конца индекса
+     * @param limit максимальное количество задач
+     * @return новый список задач
+     */
+    List<Task> range(LocalDateTime afterStart, int afterId, LocalDateTime to, int limit) {
+        List<Task> result = new ArrayList<>();
+        collect(root, afterStart, afterId, to, limit, result);
+        return result;
+    }
+
+    // Симметричный обход с отсечением поддеревьев вне диапазона
+    private static void collect(Node node, LocalDateTime afterStart, int afterId, LocalDateTime to, int limit,
+                                List<Task> result) {
+        if (node == null || result.size() >= limit) {
+            return;
+        }
+        boolean afterLower = afterStart == null || compare(node, afterStart, afterId) > 0;
+        boolean beforeUpper = to == null || node.start.isBefore(to);
+        // Левое поддерево меньше узла, поэтому оно вне диапазона, если узел не правее нижней границы
+        if (afterLower) {
+            collect(node.left, afterStart, afterId, to, limit, result);
+        }
+        if (afterLower && beforeUpper && result.size() < limit) {
+            result.add(node.task);
+        }
+        // Правое поддерево больше узла, поэтому оно вне диапазона, если узел не левее верхней границы
+        if (beforeUpper) {
+            collect(node.right, afterStart, afterId, to, limit, result);
+        }
+    }
+
+    /**
+     * Неизменяемый снимок индекса в порядке (время начала, id)
+     * Ключи копируются из узлов, поэтому выборка по снимку не зависит от последующих изменений индекса
+     * и полей задач; снимок можно читать из нескольких потоков без блокировки
+     */
+    static class Snapshot extends AbstractList<Task> implements RandomAccess {
+        private final Task[] tasks;
+        private final LocalDateTime[] starts;
+        private final int[] ids;
+
+        private Snapshot(Task[] tasks, LocalDateTime[] starts, int[] ids) {
+            this.tasks = tasks;
+            this.starts = starts;
+            this.ids = ids;
+        }
+
+        @Override
+        public Task get(int index) {
+            return tasks[index];
+        }
+
+        @Override
+        public int size() {
+            return tasks.length;
+        }
+
+        /**
+         * Получить задачи, следующие за позицией (afterStart, afterId) и начинающиеся раньше to
+         * Начало выборки находится двоичным поиском, поэтому выборка занимает O(log n + k)
+         * @param afterStart время начала позиции, после которой начинается выборка, или null - с начала снимка
+         * @param afterId идентификатор позиции; Integer.MIN_VALUE включает все задачи, начинающиеся в afterStart
+         * @param to время начала, до которого (не включительно) идет выборка, или null - до конца снимка
+         * @param limit максимальное количество задач
+         * @return новый список задач
+         */
+        List<Task> range(LocalDateTime afterStart, int afterId, LocalDateTime to, int limit) {
+            int position = afterStart == null ? 0 : firstAfter(afterStart, afterId);
+            List<Task> result = new ArrayList<>();
+            while (position < tasks.length && result.size() < limit
+                    && (to == null || starts[position].isBefore(to))) {
+                result.add(tasks[position++]);
+            }
+            return result;
+        }
+
+        // Найти первую позицию, ключ которой больше (start, id)
+        private int firstAfter(LocalDateTime start, int id) {
+            int low = 0;
+            int high = tasks.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int result = starts[middle].compareTo(start);
+                if (result < 0 || result == 0 && ids[middle] <= id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static int compare(Node node, LocalDateTime start, int id) {
+        int result = node.start.compareTo(start);
+        return result != 0 ? result : Integer.compare(node.id, id);
+    }
+
+    private static int compare(Node a, Node b) {
+        int result = a.start.compareTo(b.start);
+        return result != 0 ? result : Integer.compare(a.id, b.id);
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode, node) < 0) {
+            node.left = insert(node.left, newNode);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, newNode);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, Node target) {
+        if (node == null) {
+            return null;
+        }
+        if (node == target) {
+            return merge(node.left, node.right);
+        }
+        if (compare(target, node) < 0) {
+            node.left = delete(node.left, target);
+        } else {
+            node.right = delete(node.right, target);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    // Пересчитать максимальное время окончания в поддереве узла
+    private static void update(Node node) {
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+}
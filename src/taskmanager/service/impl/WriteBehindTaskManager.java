@@ -0,0 +1,456 @@
+package taskmanager.service.impl;
+
+import taskmanager.exceptions.ManagerSaveException;
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+import taskmanager.service.HistoryManager;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Менеджер задач с отложенной пакетной записью в файл (write-behind)
+ * Изменения только помечают менеджер как измененный, а фоновый поток объединяет их
+ * в одну запись снимка раз в flushIntervalMillis миллисекунд или после maxPendingMutations изменений
+ */
+public class WriteBehindTaskManager extends FileBackedTaskManager implements AutoCloseable {
+    /**
+     * Политика надежности записи
+     */
+    public enum DurabilityPolicy {
+        // Изменяющий метод возвращается только после того, как покрывающая его запись сброшена на диск
+        SYNC,
+        // Изменяющий метод возвращается сразу, запись выполняется в фоне
+        ASYNC
+    }
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 50;
+    public static final int DEFAULT_MAX_PENDING_MUTATIONS = 256;
+
+    private final int maxPendingMutations;
+    private final DurabilityPolicy policy;
+    private final ScheduledExecutorService flusher;
+
+    // Состояние сброса на диск, защищено flushLock
+    private final Object flushLock = new Object();
+    // Порядковый номер последнего изменения
+    private long mutationSeq;
+    // Номер последнего изменения, попавшего в сброшенный на диск снимок
+    private long durableSeq;
+    // Количество изменений, накопленных с момента последнего запроса записи
+    private int pendingMutations;
+    private boolean flushQueued;
+    // Ошибка последней записи и номер изменения, который она должна была покрыть
+    private RuntimeException flushFailure;
+    private long failedSeq;
+    private boolean closed;
+
+    /**
+     * Конструктор для создания нового WriteBehindTaskManager с параметрами по умолчанию
+     * @param file файл для сохранения данных
+     */
+    public WriteBehindTaskManager(File file) {
+        this(file, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_PENDING_MUTATIONS, DurabilityPolicy.ASYNC);
+    }
+
+    /**
+     * Конструктор для создания нового WriteBehindTaskManager
+     * @param file файл для сохранения данных
+     * @param flushIntervalMillis максимальная задержка записи в миллисекундах
+     * @param maxPendingMutations количество изменений, после которого запись запускается немедленно
+     * @param policy политика надежности записи
+     */
+    public WriteBehindTaskManager(File file, long flushIntervalMillis, int maxPendingMutations,
+                                  DurabilityPolicy policy) {
+        super(file);
+        this.maxPendingMutations = maxPendingMutations;
+        this.policy = policy;
+        this.flusher = createFlusher(flushIntervalMillis);
+    }
+
+    /**
+     * Конструктор для создания нового WriteBehindTaskManager с указанным HistoryManager
+     * @param file файл для сохранения данных
+     * @param historyManager менеджер истории просмотров
+     * @param flushIntervalMillis максимальная задержка записи в миллисекундах
+     * @param maxPendingMutations количество изменений, после которого запись запускается немедленно
+     * @param policy политика надежности записи
+     */
+    public WriteBehindTaskManager(File file, HistoryManager historyManager, long flushIntervalMillis,
+                                  int maxPendingMutations, DurabilityPolicy policy) {
+        super(file, historyManager);
+        this.maxPendingMutations = maxPendingMutations;
+        this.policy = policy;
+        this.flusher = createFlusher(flushIntervalMillis);
+    }
+
+    /**
+     * Загрузить менеджер из файла
+     * @param file файл для загрузки данных
+     * @param flushIntervalMillis максимальная задержка записи в миллисекундах
+     * @param maxPendingMutations количество изменений, после которого запись запускается немедленно
+     * @param policy политика надежности записи
+     * @return загруженный менеджер задач
+     */
+    public static WriteBehindTaskManager loadFromFile(File file, long flushIntervalMillis, int maxPendingMutations,
+                                                      DurabilityPolicy policy) {
+        WriteBehindTaskManager manager = new WriteBehindTaskManager(file, flushIntervalMillis,
+                maxPendingMutations, policy);
+        manager.restore();
+        return manager;
+    }
+
+    private ScheduledExecutorService createFlusher(long flushIntervalMillis) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-manager-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushPending, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    /**
+     * Пометить менеджер измененным вместо немедленной записи
+     * Вызывается под монитором менеджера из изменяющих методов
+     * @param record запись об изменении
+     */
+    @Override
+    protected void persist(JournalRecord record) {
+        markDirty();
+    }
+
+    /**
+     * Пакетное добавление учитывается как одно изменение
+     */
+    @Override
+    protected void persistBulk() {
+        markDirty();
+    }
+
+    // Учесть изменение и запросить запись, если накопилось достаточно изменений
+    private void markDirty() {
+        synchronized (flushLock) {
+            if (closed) {
+                // После закрытия фонового потока нет, поэтому пишем синхронно
+                save();
+                durableSeq = ++mutationSeq;
+                return;
+            }
+            mutationSeq++;
+            pendingMutations++;
+            if (pendingMutations >= maxPendingMutations) {
+                requestFlush();
+            }
+        }
+    }
+
+    // Запросить внеочередную запись, если она еще не запрошена
+    private void requestFlush() {
+        synchronized (flushLock) {
+            if (!flushQueued && !closed) {
+                flushQueued = true;
+                pendingMutations = 0;
+                flusher.execute(this::flushPending);
+            }
+        }
+    }
+
+    /**
+     * Записать накопленные изменения одним снимком
+     * Снимок формируется под монитором менеджера, а запись на диск выполняется уже без него.
+     * Ошибка формирования или записи снимка передается ожидающим барьера и не прерывает
+     * периодическую запись
+     */
+    private void flushPending() {
+        byte[] content;
+        long coveredSeq;
+        synchronized (this) {
+            synchronized (flushLock) {
+                flushQueued = false;
+                pendingMutations = 0;
+                if (mutationSeq == durableSeq) {
+                    return;
+                }
+                coveredSeq = mutationSeq;
+            }
+            try {
+                content = encodeSnapshot();
+            } catch (RuntimeException e) {
+                recordFlushFailure(e, coveredSeq);
+                return;
+            }
+        }
+
+        try {
+            writeSnapshot(content);
+            synchronized (flushLock) {
+                durableSeq = Math.max(durableSeq, coveredSeq);
+                flushFailure = null;
+                flushLock.notifyAll();
+            }
+        } catch (RuntimeException e) {
+            recordFlushFailure(e, coveredSeq);
+        }
+    }
+
+    // Запомнить ошибку записи изменений до указанного номера и разбудить ожидающих барьера
+    private void recordFlushFailure(RuntimeException failure, long coveredSeq) {
+        synchronized (flushLock) {
+            flushFailure = failure;
+            failedSeq = coveredSeq;
+            flushLock.notifyAll();
+        }
+    }
+
+    /**
+     * Барьер записи: дождаться, пока все изменения, сделанные до вызова, будут сброшены на диск
+     * @throws ManagerSaveException если покрывающая запись завершилась ошибкой
+     */
+    public void awaitFlush() {
+        long target;
+        synchronized (flushLock) {
+            target = mutationSeq;
+        }
+        requestFlush();
+        awaitDurable(target);
+    }
+
+    // Дождаться записи изменения с указанным номером
+    private void awaitDurable(long target) {
+        synchronized (flushLock) {
+            while (durableSeq < target) {
+                if (flushFailure != null && failedSeq >= target) {
+                    throw new ManagerSaveException("Ошибка при отложенной записи в файл: " + getFile().getName(),
+                            flushFailure);
+                }
+                try {
+                    flushLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ManagerSaveException("Ожидание записи в файл прервано: " + getFile().getName(), e);
+                }
+            }
+        }
+    }
+
+    // Дождаться записи изменения, если этого требует политика надежности
+    private void completeMutation(long seq) {
+        if (policy == DurabilityPolicy.SYNC) {
+            awaitDurable(seq);
+        }
+    }
+
+    // Номер последнего изменения, вызывается под монитором менеджера сразу после изменения
+    private long currentSeq() {
+        synchronized (flushLock) {
+            return mutationSeq;
+        }
+    }
+
+    /**
+     * Остановить фоновую запись, предварительно записав все накопленные изменения
+     */
+    @Override
+    public void close() {
+        synchronized (flushLock) {
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Фоновый поток остановлен, оставшиеся изменения записываем в текущем потоке
+        flushPending();
+        synchronized (flushLock) {
+            if (flushFailure != null && failedSeq > durableSeq) {
+                throw new ManagerSaveException("Ошибка при отложенной записи в файл: " + getFile().getName(),
+                        flushFailure);
+            }
+        }
+    }
+
+    // Изменяющие методы выполняются под монитором менеджера, чтобы фоновая запись видела согласованное состояние
+
+    @Override
+    public void createTask(Task task) {
+        long seq;
+        synchronized (this) {
+            super.createTask(task);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long seq;
+        synchronized (this) {
+            super.updateTask(task);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        long seq;
+        synchronized (this) {
+            super.deleteTaskById(id);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        long seq;
+        synchronized (this) {
+            super.deleteAllTasks();
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        long seq;
+        synchronized (this) {
+            super.createEpic(epic);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long seq;
+        synchronized (this) {
+            super.updateEpic(epic);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        long seq;
+        synchronized (this) {
+            super.deleteEpicById(id);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        long seq;
+        synchronized (this) {
+            super.deleteAllEpics();
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        long seq;
+        synchronized (this) {
+            super.createSubtask(subtask);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        long seq;
+        synchronized (this) {
+            super.updateSubtask(subtask);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        long seq;
+        synchronized (this) {
+            super.deleteSubtaskById(id);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        long seq;
+        synchronized (this) {
+            super.deleteAllSubtasks();
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    @Override
+    public void addAllWithIds(Collection<? extends Task> newTasks, Collection<Epic> newEpics,
+                              Collection<Subtask> newSubtasks) {
+        long seq;
+        synchronized (this) {
+            super.addAllWithIds(newTasks, newEpics, newSubtasks);
+            seq = currentSeq();
+        }
+        completeMutation(seq);
+    }
+
+    // Просмотр по идентификатору изменяет историю, которую читает фоновая запись;
+    // чтение истории выполняется под тем же монитором, чтобы не пересекаться с просмотрами
+
+    @Override
+    public synchronized Task getTaskById(int id) {
+        return super.getTaskById(id);
+    }
+
+    @Override
+    public synchronized Epic getEpicById(int id) {
+        return super.getEpicById(id);
+    }
+
+    @Override
+    public synchronized Subtask getSubtaskById(int id) {
+        return super.getSubtaskById(id);
+    }
+
+    @Override
+    public synchronized Task getTaskById(int id, String clientId) {
+        return super.getTaskById(id, clientId);
+    }
+
+    @Override
+    public synchronized Epic getEpicById(int id, String clientId) {
+        return super.getEpicById(id, clientId);
+    }
+
+    @Override
+    public synchronized Subtask getSubtaskById(int id, String clientId) {
+        return super.getSubtaskById(id, clientId);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return super.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(String clientId) {
+        return super.getHistory(clientId);
+    }
+}
@@ -0,0 +1,105 @@
+package taskmanager.benchmark;
+
+import taskmanager.http.HttpTaskServer;
+import taskmanager.http.ServerConfig;
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+import taskmanager.service.Managers;
+import taskmanager.service.TaskManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Бенчмарк сжатия ответов: размер тела и время ответа GET /tasks без сжатия, с gzip и с deflate,
+ * а также процессорное время, которое тратится на сжатие того же JSON
+ * Запуск: java -cp out/production/java-kanban:out/test/java-kanban:gson.jar taskmanager.benchmark.CompressionBenchmark [задач]
+ */
+public class CompressionBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int ROUNDS = 15;
+    private static final String[] ENCODINGS = {"identity", "gzip", "deflate"};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        TaskManager manager = Managers.getConcurrent();
+        for (int i = 1; i <= total; i++) {
+            Task task = new Task("Task " + i, "Description of task " + i, TaskStatus.NEW);
+            task.setDuration(Duration.ofMinutes(30));
+            task.setStartTime(START.plusHours(i));
+            manager.createTask(task);
+        }
+        byte[] json = HttpTaskServer.getGson().toJson(manager.getAllTasks()).getBytes(StandardCharsets.UTF_8);
+
+        HttpTaskServer server = new HttpTaskServer(manager,
+                new ServerConfig("localhost", 0, ServerConfig.ExecutorMode.FIXED));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            URI uri = URI.create("http://localhost:" + server.getPort() + "/tasks");
+
+            // Прогрев JIT
+            for (int i = 0; i < 3; i++) {
+                for (String encoding : ENCODINGS) {
+                    fetch(client, uri, encoding);
+                    compress(encoding, json);
+                }
+            }
+
+            System.out.printf("%10s %12s %10s %16s %12s%n", "сжатие", "байт", "степень", "CPU сжатия, мс",
+                    "ответ, мс");
+            for (String encoding : ENCODINGS) {
+                int size = fetch(client, uri, encoding);
+                long responseNanos = Long.MAX_VALUE;
+                long cpuNanos = Long.MAX_VALUE;
+                for (int i = 0; i < ROUNDS; i++) {
+                    long started = System.nanoTime();
+                    fetch(client, uri, encoding);
+                    responseNanos = Math.min(responseNanos, System.nanoTime() - started);
+                    cpuNanos = Math.min(cpuNanos, compress(encoding, json));
+                }
+                System.out.printf("%10s %12d %10.1f %16.1f %12.1f%n", encoding, size, (double) json.length / size,
+                        cpuNanos / 1e6, responseNanos / 1e6);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    // Запросить список задач с указанным кодированием, вернуть размер тела в байтах
+    private static int fetch(HttpClient client, URI uri, String encoding) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(uri).header("Accept-Encoding", encoding).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+
+    // Сжать JSON так же, как это делает сервер, вернуть процессорное время текущего потока в наносекундах
+    private static long compress(String encoding, byte[] json) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long started = threads.getCurrentThreadCpuTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        OutputStream out;
+        if (encoding.equals("gzip")) {
+            out = new GZIPOutputStream(buffer, 8 * 1024);
+        } else if (encoding.equals("deflate")) {
+            out = new DeflaterOutputStream(buffer);
+        } else {
+            out = buffer;
+        }
+        try (out) {
+            out.write(json);
+        }
+        return threads.getCurrentThreadCpuTime() - started;
+    }
+}
@@ -0,0 +1,96 @@
+package taskmanager.benchmark;
+
+import taskmanager.model.Task;
+import taskmanager.service.HistoryManager;
+import taskmanager.service.impl.ConcurrentHistoryManager;
+import taskmanager.service.impl.InMemoryHistoryManager;
+import taskmanager.service.impl.SynchronizedHistoryManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Бенчмарк пропускной способности истории просмотров при росте числа потоков:
+ * история под общим монитором против ConcurrentHistoryManager
+ * Нагрузка похожа на работу HTTP-сервера: почти все операции - просмотры случайных задач,
+ * редкие удаления и чтения истории
+ * Запуск: java -cp out/production/java-kanban:out/test/java-kanban taskmanager.benchmark.HistoryThroughputBenchmark [задач] [операций на поток]
+ */
+public class HistoryThroughputBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Task[] tasks = new Task[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            tasks[i] = new Task("Task " + i, "Description " + i);
+            tasks[i].setId(i + 1);
+        }
+
+        // Прогрев JIT
+        run(() -> new SynchronizedHistoryManager(new InMemoryHistoryManager()), tasks, 4, operations);
+        run(ConcurrentHistoryManager::new, tasks, 4, operations);
+
+        System.out.printf("%8s %22s %22s%n", "потоков", "монитор, оп/мс", "concurrent, оп/мс");
+        for (int threads : THREAD_COUNTS) {
+            double synchronizedThroughput = 0;
+            double concurrentThroughput = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                synchronizedThroughput = Math.max(synchronizedThroughput,
+                        run(() -> new SynchronizedHistoryManager(new InMemoryHistoryManager()), tasks, threads, operations));
+                concurrentThroughput = Math.max(concurrentThroughput,
+                        run(ConcurrentHistoryManager::new, tasks, threads, operations));
+            }
+            System.out.printf("%8d %22.0f %22.0f%n", threads, synchronizedThroughput, concurrentThroughput);
+        }
+    }
+
+    // Выполнить нагрузку в указанном числе потоков, вернуть количество операций в миллисекунду
+    private static double run(Supplier<HistoryManager> factory, Task[] tasks, int threads, int operations)
+            throws Exception {
+        HistoryManager history = factory.get();
+        for (Task task : tasks) {
+            history.add(task);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations; i++) {
+                        Task task = tasks[random.nextInt(tasks.length)];
+                        int choice = random.nextInt(1000);
+                        if (choice == 0) {
+                            history.getHistory();
+                        } else if (choice < 20) {
+                            history.remove(task.getId());
+                        } else {
+                            history.add(task);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - started;
+            return (double) threads * operations / (elapsed / 1_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package taskmanager.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import com.google.gson.reflect.TypeToken;
+import taskmanager.http.HttpTaskServer;
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Бенчмарк сериализации и разбора задач в JSON: потоковые адаптеры против отражения
+ * с древовидными адаптерами дат, которые использовались раньше
+ * Запуск: java -cp out/production/java-kanban:out/test/java-kanban:gson.jar taskmanager.benchmark.JsonCodecBenchmark [задач]
+ */
+public class JsonCodecBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int ROUNDS = 15;
+
+    public static void main(String[] args) {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<Task> tasks = createTasks(total);
+        Type listType = new TypeToken<List<Task>>() {}.getType();
+        Gson streaming = HttpTaskServer.getGson();
+        Gson reflective = reflectiveGson();
+
+        // Прогрев JIT
+        for (int i = 0; i < 3; i++) {
+            streaming.fromJson(streaming.toJson(tasks), listType);
+            reflective.fromJson(reflective.toJson(tasks), listType);
+        }
+
+        System.out.printf("%12s %14s %14s %14s%n", "адаптеры", "байт", "запись, мс", "разбор, мс");
+        print("отражение", reflective, tasks, listType);
+        print("потоковые", streaming, tasks, listType);
+    }
+
+    private static void print(String label, Gson gson, List<Task> tasks, Type listType) {
+        String json = gson.toJson(tasks);
+        long writeNanos = Long.MAX_VALUE;
+        long readNanos = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            gson.toJson(tasks);
+            writeNanos = Math.min(writeNanos, System.nanoTime() - started);
+
+            started = System.nanoTime();
+            gson.fromJson(json, listType);
+            readNanos = Math.min(readNanos, System.nanoTime() - started);
+        }
+        System.out.printf("%12s %14d %14d %14d%n", label, json.length(), writeNanos / 1_000_000,
+                readNanos / 1_000_000);
+    }
+
+    // Задачи трех типов вперемешку: на каждые восемь задач один эпик и одна подзадача
+    private static List<Task> createTasks(int total) {
+        List<Task> tasks = new ArrayList<>(total);
+        int epicId = 0;
+        for (int i = 1; i <= total; i++) {
+            if (i % 8 == 1) {
+                Epic epic = new Epic("Epic " + i, "Description", i, TaskStatus.IN_PROGRESS);
+                epic.addSubtaskId(i + 1);
+                epic.setStartTime(START.plusHours(i));
+                epic.setDuration(Duration.ofMinutes(30));
+                epic.setEndTime(START.plusHours(i).plusMinutes(30));
+                epicId = i;
+                tasks.add(epic);
+            } else if (i % 8 == 2) {
+                tasks.add(new Subtask("Subtask " + i, "Description", i, TaskStatus.DONE, epicId,
+                        Duration.ofMinutes(30), START.plusHours(i)));
+            } else {
+                tasks.add(new Task("Task " + i, "Description", i, TaskStatus.NEW,
+                        Duration.ofMinutes(30), START.plusHours(i)));
+            }
+        }
+        return tasks;
+    }
+
+    // Прежняя настройка: модели через отражение, даты и продолжительность через дерево JsonElement
+    private static Gson reflectiveGson() {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        JsonSerializer<LocalDateTime> dateTimeSerializer = (src, type, context) ->
+                src == null ? JsonNull.INSTANCE : new JsonPrimitive(formatter.format(src));
+        JsonDeserializer<LocalDateTime> dateTimeDeserializer = (json, type, context) ->
+                json.isJsonNull() ? null : LocalDateTime.parse(json.getAsString(), formatter);
+        JsonSerializer<Duration> durationSerializer = (src, type, context) ->
+                src == null ? JsonNull.INSTANCE : new JsonPrimitive(src.toMinutes());
+        JsonDeserializer<Duration> durationDeserializer = (json, type, context) ->
+                json.isJsonNull() ? null : Duration.ofMinutes(json.getAsLong());
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, dateTimeSerializer)
+                .registerTypeAdapter(LocalDateTime.class, dateTimeDeserializer)
+                .registerTypeAdapter(Duration.class, durationSerializer)
+                .registerTypeAdapter(Duration.class, durationDeserializer)
+                .create();
+    }
+}
@@ -0,0 +1,44 @@
+package taskmanager.benchmark;
+
+import taskmanager.model.Task;
+import taskmanager.service.impl.InMemoryTaskManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Бенчмарк стоимости создания задач с проверкой пересечений по мере роста доски
+ * Запуск: java -cp out/production/java-kanban:out/test/java-kanban taskmanager.benchmark.OverlapCheckBenchmark [задач] [порций]
+ * При индексе интервалов среднее время вставки в каждой порции должно оставаться примерно постоянным
+ */
+public class OverlapCheckBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int batches = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int batchSize = total / batches;
+
+        // Прогрев JIT на отдельном менеджере
+        fill(new InMemoryTaskManager(), 50_000, 0);
+
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        System.out.printf("%12s %16s%n", "размер доски", "нс на вставку");
+        for (int batch = 0; batch < batches; batch++) {
+            long started = System.nanoTime();
+            fill(manager, batchSize, batch * batchSize);
+            long elapsed = System.nanoTime() - started;
+            System.out.printf("%12d %16d%n", (batch + 1) * batchSize, elapsed / batchSize);
+        }
+    }
+
+    // Создать count задач по 30 минут с шагом в час, начиная со слота first
+    private static void fill(InMemoryTaskManager manager, int count, int first) {
+        for (int i = first; i < first + count; i++) {
+            Task task = new Task("Task " + i, "Description " + i);
+            task.setStartTime(START.plusHours(i));
+            task.setDuration(Duration.ofMinutes(30));
+            manager.createTask(task);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package taskmanager.benchmark;
+
+import taskmanager.service.impl.FileBackedTaskManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+/**
+ * Бенчмарк параллельной загрузки текстового снимка на 1, 2, 4 и 8 потоках
+ * Запуск: java -cp out/production/java-kanban:out/test/java-kanban taskmanager.benchmark.ParallelLoadBenchmark [задач]
+ * Снимок содержит эпики по 100 подзадач и обычные задачи; для сравнения выводится и время однопоточной загрузки
+ */
+public class ParallelLoadBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int SUBTASKS_PER_EPIC = 100;
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws IOException {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File file = File.createTempFile("snapshot-parallel", ".csv");
+        file.deleteOnExit();
+
+        PrintStream out = System.out;
+        // Отладочный вывод менеджера не должен попадать в замеры
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            writeCsv(file, total);
+
+            // Прогрев JIT
+            for (int i = 0; i < 2; i++) {
+                FileBackedTaskManager.loadFromFile(file);
+                for (int threads : THREADS) {
+                    FileBackedTaskManager.loadFromFileParallel(file, threads);
+                }
+            }
+
+            out.printf("%10s %12s%n", "потоков", "мс загрузки");
+            long started = System.nanoTime();
+            FileBackedTaskManager.loadFromFile(file);
+            out.printf("%10s %12d%n", "поток.", (System.nanoTime() - started) / 1_000_000);
+            for (int threads : THREADS) {
+                started = System.nanoTime();
+                FileBackedTaskManager.loadFromFileParallel(file, threads);
+                out.printf("%10d %12d%n", threads, (System.nanoTime() - started) / 1_000_000);
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    // Записать снимок: половина записей - обычные задачи, половина - эпики с подзадачами
+    private static void writeCsv(File file, int total) throws IOException {
+        StringBuilder sb = new StringBuilder("id,type,name,status,description,epic,duration,startTime\n");
+        int id = 1;
+        while (id <= total / 2) {
+            sb.append(id).append(",TASK,Task ").append(id).append(",NEW,Description,,30,")
+                    .append(START.plusHours(id)).append('\n');
+            id++;
+        }
+        while (id <= total) {
+            int epicId = id++;
+            sb.append(epicId).append(",EPIC,Epic ").append(epicId).append(",NEW,Description,,0,\n");
+            for (int i = 0; i < SUBTASKS_PER_EPIC && id <= total; i++, id++) {
+                sb.append(id).append(",SUBTASK,Subtask ").append(id).append(i % 2 == 0 ? ",DONE" : ",NEW")
+                        .append(",Description,").append(epicId).append(",30,").append(START.plusHours(id)).append('\n');
+            }
+        }
+        sb.append('\n');
+        Files.writeString(file.toPath(), sb, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package taskmanager.benchmark;
+
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+import taskmanager.service.TaskManager;
+import taskmanager.service.impl.ConcurrentTaskManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Бенчмарк масштабирования чтений ConcurrentTaskManager при росте числа потоков
+ * Сравниваются чтение полного списка из снимка, поиск по идентификатору без записи в историю,
+ * просмотр по идентификатору с записью в историю и чтение версии объекта для условных запросов;
+ * каждая нагрузка запускается без записей и с одним процентом изменений
+ * Запуск: java -cp out/production/java-kanban:out/test/java-kanban taskmanager.benchmark.ReadScalingBenchmark [задач] [операций на поток]
+ */
+public class ReadScalingBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        TaskManager manager = new ConcurrentTaskManager();
+        for (int i = 0; i < taskCount; i++) {
+            manager.createTask(new Task("Task " + i, "Description " + i, TaskStatus.NEW));
+        }
+
+        String[] names = {"список", "по id", "просмотр", "версия"};
+        IntConsumer[] reads = {
+                id -> manager.getAllTasks(),
+                manager::peekTaskById,
+                manager::getTaskById,
+                manager::getVersion
+        };
+
+        // Прогрев JIT
+        for (int writePercent : new int[] {0, 1}) {
+            for (IntConsumer read : reads) {
+                run(manager, taskCount, 4, operations, read, writePercent);
+            }
+        }
+
+        System.out.printf("%8s %10s", "потоков", "записей, %");
+        for (String name : names) {
+            System.out.printf(" %16s", name + ", оп/мс");
+        }
+        System.out.println();
+        for (int writePercent : new int[] {0, 1}) {
+            for (int threads : THREAD_COUNTS) {
+                System.out.printf("%8d %10d", threads, writePercent);
+                for (IntConsumer read : reads) {
+                    double throughput = 0;
+                    for (int i = 0; i < ROUNDS; i++) {
+                        throughput = Math.max(throughput,
+                                run(manager, taskCount, threads, operations, read, writePercent));
+                    }
+                    System.out.printf(" %16.0f", throughput);
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    // Выполнить нагрузку в указанном числе потоков, вернуть количество операций в миллисекунду
+    private static double run(TaskManager manager, int taskCount, int threads, int operations, IntConsumer read,
+                              int writePercent) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations; i++) {
+                        int id = random.nextInt(taskCount) + 1;
+                        if (random.nextInt(100) < writePercent) {
+                            Task task = manager.peekTaskById(id);
+                            manager.updateTask(new Task(task.getName(), task.getDescription(), id,
+                                    TaskStatus.IN_PROGRESS));
+                        } else {
+                            read.accept(id);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - started;
+            return (double) threads * operations / (elapsed / 1_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
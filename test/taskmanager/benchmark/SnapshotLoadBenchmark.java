@@ -0,0 +1,68 @@
+package taskmanager.benchmark;
+
+import taskmanager.service.impl.FileBackedTaskManager;
+import taskmanager.service.impl.SnapshotFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+
+/**
+ * Бенчмарк холодной загрузки снимка в текстовом и двоичном форматах
+ * Запуск: java -cp out/production/java-kanban:out/test/java-kanban taskmanager.benchmark.SnapshotLoadBenchmark [задач]
+ */
+public class SnapshotLoadBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File csv = File.createTempFile("snapshot-csv", ".csv");
+        File binary = File.createTempFile("snapshot-bin", ".bin");
+        csv.deleteOnExit();
+        binary.deleteOnExit();
+
+        PrintStream out = System.out;
+        // Отладочный вывод менеджера не должен попадать в замеры
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            writeCsv(csv, total);
+            // Двоичный снимок получаем переводом того же состояния в другой формат
+            Files.copy(csv.toPath(), binary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            FileBackedTaskManager.loadFromFile(binary).setSnapshotFormat(SnapshotFormat.BINARY);
+
+            // Прогрев JIT
+            for (int i = 0; i < 3; i++) {
+                FileBackedTaskManager.loadFromFile(csv);
+                FileBackedTaskManager.loadFromFile(binary);
+            }
+
+            out.printf("%8s %12s %12s%n", "формат", "байт", "мс загрузки");
+            out.printf("%8s %12d %12d%n", "CSV", csv.length(), measure(csv));
+            out.printf("%8s %12d %12d%n", "BINARY", binary.length(), measure(binary));
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static long measure(File file) {
+        long started = System.nanoTime();
+        FileBackedTaskManager.loadFromFile(file);
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    // Записать текстовый снимок с total задачами по 30 минут с шагом в час
+    private static void writeCsv(File file, int total) throws IOException {
+        StringBuilder sb = new StringBuilder("id,type,name,status,description,epic,duration,startTime\n");
+        for (int i = 1; i <= total; i++) {
+            sb.append(i).append(",TASK,Task ").append(i).append(",NEW,Description,,30,")
+                    .append(START.plusHours(i)).append('\n');
+        }
+        sb.append('\n');
+        Files.writeString(file.toPath(), sb, StandardCharsets.UTF_8);
+    }
+}
@@ -12,14 +12,19 @@ import taskmanager.model.TaskStatus;
 import taskmanager.service.Managers;
 import taskmanager.service.TaskManager;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -69,6 +74,211 @@ public class HttpTaskServerTest {
         assertEquals("Тестовая задача", tasks.get(0).getName());
     }
 
+    @Test
+    public void testGetAllTasksIsStreamedInChunks() throws IOException, InterruptedException {
+        // Создаем достаточно задач, чтобы ответ занял несколько частей
+        for (int i = 0; i < 5000; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        // Размер тела заранее не известен, поэтому ответ передается частями
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(""));
+        assertEquals(gson.toJson(manager.getAllTasks()), response.body());
+    }
+
+    @Test
+    public void testConditionalGetReturnsNotModifiedUntilTaskChanges() throws IOException, InterruptedException {
+        Task task = new Task("Тестовая задача", "Описание тестовой задачи", TaskStatus.NEW);
+        manager.createTask(task);
+
+        for (String path : List.of("/tasks", "/tasks/" + task.getId(), "/prioritized", "/history")) {
+            HttpResponse<String> first = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(BASE_URL + path))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            String etag = first.headers().firstValue("ETag").orElse(null);
+            assertNotNull(etag, "Ответ " + path + " должен содержать ETag");
+
+            HttpResponse<String> second = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(BASE_URL + path))
+                    .header("If-None-Match", etag)
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(304, second.statusCode(), "Неизмененный ресурс " + path + " не должен загружаться заново");
+            assertTrue(second.body().isEmpty());
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks/" + task.getId()))
+                .GET()
+                .build();
+        String etag = client.send(request, HttpResponse.BodyHandlers.ofString()).headers().firstValue("ETag").get();
+        task.setStatus(TaskStatus.DONE);
+        manager.updateTask(task);
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks/" + task.getId()))
+                .header("If-None-Match", etag)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), "После изменения задача должна загружаться заново");
+        assertNotEquals(etag, response.headers().firstValue("ETag").orElse(null));
+    }
+
+    @Test
+    public void testConditionalGetOfEpicSubtasksTracksSubtaskChanges() throws IOException, InterruptedException {
+        Epic epic = new Epic("Тестовый эпик", "Описание тестового эпика");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Тестовая подзадача", "Описание тестовой подзадачи", epic.getId());
+        manager.createSubtask(subtask);
+        URI uri = URI.create(BASE_URL + "/epics/" + epic.getId() + "/subtasks");
+
+        String etag = client.send(HttpRequest.newBuilder().uri(uri).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag);
+        HttpRequest conditional = HttpRequest.newBuilder().uri(uri).header("If-None-Match", etag).GET().build();
+        assertEquals(304, client.send(conditional, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        subtask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubtask(subtask);
+
+        assertEquals(200, client.send(conditional, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Изменение подзадачи должно менять версию списка подзадач эпика");
+    }
+
+    @Test
+    public void testListIsCompressedWhenClientAcceptsGzip() throws IOException, InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks"))
+                .header("Accept-Encoding", "deflate;q=0.5, gzip")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(""));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(gson.toJson(manager.getAllTasks()), body);
+            assertTrue(response.body().length < body.length(), "Сжатый ответ должен быть меньше исходного");
+        }
+    }
+
+    @Test
+    public void testSmallResponseIsNotCompressed() throws IOException, InterruptedException {
+        manager.createTask(new Task("Тестовая задача", "Описание тестовой задачи", TaskStatus.NEW));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks"))
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty(),
+                "Ответ меньше порога должен отправляться без сжатия");
+        assertEquals(gson.toJson(manager.getAllTasks()), response.body());
+    }
+
+    @Test
+    public void testEtagDependsOnActualEncoding() throws IOException, InterruptedException {
+        manager.createTask(new Task("Тестовая задача", "Описание тестовой задачи", TaskStatus.NEW));
+        URI uri = URI.create(BASE_URL + "/tasks");
+
+        // Короткий ответ не сжимается, поэтому его ETag не зависит от Accept-Encoding
+        String plain = client.send(HttpRequest.newBuilder().uri(uri).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).headers().firstValue("ETag").orElse(null);
+        String smallGzip = client.send(HttpRequest.newBuilder().uri(uri).header("Accept-Encoding", "gzip").GET().build(),
+                HttpResponse.BodyHandlers.ofString()).headers().firstValue("ETag").orElse(null);
+        assertNotNull(plain);
+        assertEquals(plain, smallGzip);
+
+        for (int i = 0; i < 1000; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW));
+        }
+        HttpRequest gzipRequest = HttpRequest.newBuilder().uri(uri).header("Accept-Encoding", "gzip").GET().build();
+        String compressed = client.send(gzipRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .headers().firstValue("ETag").orElse("");
+        assertTrue(compressed.endsWith("-gzip\""), "ETag сжатого тела должен содержать метку кодирования");
+
+        HttpResponse<byte[]> notModified = client.send(HttpRequest.newBuilder().uri(uri)
+                .header("Accept-Encoding", "gzip").header("If-None-Match", compressed).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(304, notModified.statusCode());
+        assertEquals(compressed, notModified.headers().firstValue("ETag").orElse(null));
+        assertTrue(notModified.headers().allValues("Vary").contains("Accept-Encoding"),
+                "Ответ 304 должен содержать Vary: Accept-Encoding");
+    }
+
+    @Test
+    public void testGetTasksWithLimitAndCursor() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW));
+        }
+
+        HttpResponse<String> first = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks?limit=2"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String cursor = first.headers().firstValue("X-Next-Cursor").orElseThrow();
+        HttpResponse<String> second = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks?limit=2&cursor=" + cursor))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, first.statusCode());
+        List<Task> page = gson.fromJson(first.body(), new TypeToken<List<Task>>() {}.getType());
+        assertEquals(2, page.size());
+        List<Task> rest = gson.fromJson(second.body(), new TypeToken<List<Task>>() {}.getType());
+        assertEquals(1, rest.size());
+        assertEquals("Задача 2", rest.get(0).getName());
+        assertTrue(second.headers().firstValue("X-Next-Cursor").isEmpty());
+    }
+
+    @Test
+    public void testGetTasksWithInvalidCursor() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks?limit=2&cursor=broken"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    public void testGetTasksByStatusAndCount() throws IOException, InterruptedException {
+        manager.createTask(new Task("Новая задача", "Описание", TaskStatus.NEW));
+        manager.createTask(new Task("Завершенная задача", "Описание", TaskStatus.DONE));
+
+        HttpResponse<String> filtered = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks?status=DONE"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> count = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks/count?status=NEW"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, filtered.statusCode());
+        List<Task> tasks = gson.fromJson(filtered.body(), new TypeToken<List<Task>>() {}.getType());
+        assertEquals(1, tasks.size());
+        assertEquals("Завершенная задача", tasks.get(0).getName());
+        assertEquals(200, count.statusCode());
+        assertEquals("{\"status\":\"NEW\",\"count\":1}", count.body());
+    }
+
     @Test
     public void testGetTaskById() throws IOException, InterruptedException {
         // Создаем задачу
@@ -330,6 +540,56 @@ public class HttpTaskServerTest {
         assertEquals(task.getId(), history.get(0).getId());
     }
 
+    @Test
+    public void testHistoryIsSeparatedByClientId() throws IOException, InterruptedException {
+        Task first = new Task("Первая задача", "Описание задачи", TaskStatus.NEW);
+        manager.createTask(first);
+        Task second = new Task("Вторая задача", "Описание задачи", TaskStatus.NEW);
+        manager.createTask(second);
+
+        // Каждый клиент просматривает свою задачу
+        client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks/" + first.getId()))
+                .header("X-Client-Id", "alice").GET().build(), HttpResponse.BodyHandlers.ofString());
+        client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks/" + second.getId()))
+                .header("X-Client-Id", "bob").GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        HttpResponse<String> alice = client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/history"))
+                .header("X-Client-Id", "alice").GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, alice.statusCode());
+        List<Task> aliceHistory = gson.fromJson(alice.body(), new TypeToken<List<Task>>() {}.getType());
+        assertEquals(1, aliceHistory.size());
+        assertEquals(first.getId(), aliceHistory.get(0).getId());
+
+        // Просмотры клиентов не попадают в общую историю
+        HttpResponse<String> shared = client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/history"))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals("[]", shared.body());
+
+        HttpResponse<String> invalid = client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/history"))
+                .header("X-Client-Id", "x".repeat(65)).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, invalid.statusCode());
+    }
+
+    @Test
+    public void testUpdateAndDeleteDoNotRecordHistory() throws IOException, InterruptedException {
+        Task task = new Task("Задача", "Описание задачи", TaskStatus.NEW);
+        manager.createTask(task);
+        Task other = new Task("Другая задача", "Описание задачи", TaskStatus.NEW);
+        manager.createTask(other);
+
+        task.setName("Обновленная задача");
+        HttpResponse<String> updated = client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, updated.statusCode());
+        HttpResponse<String> deleted = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks/" + other.getId())).DELETE().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, deleted.statusCode());
+
+        assertTrue(manager.getHistory().isEmpty(), "Проверка существования задачи не является ее просмотром");
+    }
+
     // Тесты для приоритизированных задач
     @Test
     public void testGetPrioritizedTasks() throws IOException, InterruptedException {
@@ -364,4 +624,63 @@ public class HttpTaskServerTest {
         // Проверяем, что задачи отсортированы по времени начала
         assertTrue(prioritizedTasks.get(0).getStartTime().isBefore(prioritizedTasks.get(1).getStartTime()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPrioritizedTasksInTimeRange() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            Task task = new Task("Задача " + i, "Описание задачи " + i, TaskStatus.NEW);
+            task.setStartTime(start.plusDays(i));
+            task.setDuration(Duration.ofMinutes(30));
+            manager.createTask(task);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/prioritized?from=2025-01-02T00:00:00&to=2025-01-04T00:00:00&limit=1"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {}.getType());
+        assertEquals(1, tasks.size());
+        assertEquals("Задача 1", tasks.get(0).getName());
+    }
+
+    // Тесты для параметров сервера
+    @Test
+    public void testSlowClientDoesNotBlockOtherRequests() throws IOException, InterruptedException {
+        HttpTaskServer pooledServer = new HttpTaskServer(Managers.getConcurrent(),
+                new ServerConfig("localhost", 0, ServerConfig.ExecutorMode.FIXED));
+        pooledServer.start();
+        try (Socket slowClient = new Socket("localhost", pooledServer.getPort())) {
+            // Клиент объявляет тело запроса, но не отправляет его, и обработчик ждет данных
+            OutputStream out = slowClient.getOutputStream();
+            out.write(("POST /tasks HTTP/1.1\r\nHost: localhost\r\nContent-Length: 1000\r\n\r\n{")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + pooledServer.getPort() + "/tasks"))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            // Запрос другого клиента обработан, пока первый занимает поток обработчика
+            assertEquals(200, response.statusCode());
+        } finally {
+            pooledServer.stop();
+        }
+    }
+
+    @Test
+    public void testServerConfigRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ServerConfig("localhost", 70000, ServerConfig.ExecutorMode.FIXED));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ServerConfig("localhost", 8080, 0, ServerConfig.ExecutorMode.FIXED, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ServerConfig("localhost", 8080, -1, ServerConfig.ExecutorMode.VIRTUAL, 4));
+    }
+}
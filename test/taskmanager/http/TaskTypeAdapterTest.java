@@ -0,0 +1,79 @@
+package taskmanager.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для потоковых JSON-адаптеров задач
+ */
+class TaskTypeAdapterTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 10, 0);
+    private final Gson gson = HttpTaskServer.getGson();
+
+    @Test
+    @DisplayName("Задача должна записываться с вычисляемым временем завершения")
+    void write_Task_ShouldIncludeEndTime() {
+        Task task = new Task("Задача", "Описание", 1, TaskStatus.NEW, Duration.ofMinutes(30), START);
+
+        String json = gson.toJson(task);
+
+        assertEquals("{\"id\":1,\"name\":\"Задача\",\"description\":\"Описание\",\"status\":\"NEW\","
+                + "\"duration\":30,\"startTime\":\"2025-01-01T10:00:00\",\"endTime\":\"2025-01-01T10:30:00\"}", json);
+    }
+
+    @Test
+    @DisplayName("Эпик должен сохранять подзадачи и время завершения при записи и чтении")
+    void readWrite_Epic_ShouldRoundTripSubtaskIdsAndEndTime() {
+        Epic epic = new Epic("Эпик", "Описание", 1, TaskStatus.IN_PROGRESS);
+        epic.addSubtaskId(2);
+        epic.addSubtaskId(3);
+        epic.setStartTime(START);
+        epic.setDuration(Duration.ofMinutes(90));
+        epic.setEndTime(START.plusDays(1));
+
+        Epic restored = gson.fromJson(gson.toJson(epic), Epic.class);
+
+        assertEquals(List.of(2, 3), restored.getSubtaskIds());
+        assertEquals(START.plusDays(1), restored.getEndTime());
+        assertEquals(Duration.ofMinutes(90), restored.getDuration());
+        assertEquals(TaskStatus.IN_PROGRESS, restored.getStatus());
+    }
+
+    @Test
+    @DisplayName("Подзадача в общем списке должна записываться с идентификатором эпика")
+    void write_MixedList_ShouldUseRuntimeTypeOfEachElement() {
+        Subtask subtask = new Subtask("Подзадача", "Описание", 2, TaskStatus.DONE, 1, Duration.ofMinutes(5), START);
+        List<Task> tasks = List.of(new Task("Задача", "Описание", 3, TaskStatus.NEW), subtask);
+
+        String json = gson.toJson(tasks, new TypeToken<List<Task>>() {}.getType());
+        Subtask restored = gson.fromJson(gson.toJson(subtask), Subtask.class);
+
+        assertTrue(json.contains("\"epicId\":1"));
+        assertEquals(1, restored.getEpicId());
+        assertEquals(START, restored.getStartTime());
+    }
+
+    @Test
+    @DisplayName("Неизвестные поля должны пропускаться, а некорректный статус - отклоняться")
+    void read_UnknownFieldsAndInvalidStatus_ShouldSkipOrReject() {
+        Task task = gson.fromJson("{\"name\":\"Задача\",\"extra\":{\"a\":[1,2]},\"startTime\":\"2025-01-01T10:00\"}",
+                Task.class);
+
+        assertEquals("Задача", task.getName());
+        assertEquals(START, task.getStartTime());
+        assertThrows(JsonSyntaxException.class, () -> gson.fromJson("{\"status\":\"UNKNOWN\"}", Task.class));
+    }
+}
@@ -34,6 +34,23 @@ class ManagersTest {
         assertTrue(historyManager instanceof InMemoryHistoryManager, "HistoryManager должен быть экземпляром InMemoryHistoryManager");
     }
 
+    @Test
+    @DisplayName("Managers.getDefaultHistory(capacity) должен возвращать историю с указанной емкостью")
+    void getDefaultHistory_WithCapacity_ShouldReturnBoundedHistoryManager() {
+        HistoryManager historyManager = Managers.getDefaultHistory(1);
+        Task first = new Task(TASK_NAME, TASK_DESCRIPTION);
+        first.setId(TASK_ID);
+        Task second = new Task(TASK_NAME, TASK_DESCRIPTION);
+        second.setId(TASK_ID + 1);
+
+        historyManager.add(first);
+        historyManager.add(second);
+
+        assertEquals(1, ((InMemoryHistoryManager) historyManager).getCapacity());
+        assertEquals(1, historyManager.getHistory().size(), "История не должна превышать емкость");
+        assertEquals(second, historyManager.getHistory().get(0), "В истории должен остаться последний просмотр");
+    }
+
     @Test
     @DisplayName("TaskManager и HistoryManager должны использовать одну и ту же историю")
     void getDefault_AndGetDefaultHistory_ShouldReturnSameHistoryManagerInstance() {
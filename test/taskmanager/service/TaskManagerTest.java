@@ -10,6 +10,7 @@ import taskmanager.service.TaskManager;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -265,7 +266,104 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(task2.getId(), prioritizedTasks.get(0).getId(), "Первой должна быть задача с более ранним временем начала");
         assertEquals(task1.getId(), prioritizedTasks.get(1).getId(), "Второй должна быть задача с более поздним временем начала");
     }
+
+    @Test
+    public void testPrioritizedTasksWithSameStartTime() {
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+        Task first = new Task("Task 1", "Description 1");
+        first.setStartTime(start);
+        first.setDuration(Duration.ZERO);
+        Task second = new Task("Task 2", "Description 2");
+        second.setStartTime(start);
+        second.setDuration(Duration.ZERO);
+        taskManager.createTask(first);
+        taskManager.createTask(second);
+
+        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
+        assertEquals(2, prioritizedTasks.size(), "Задачи с одинаковым временем начала не должны вытеснять друг друга");
+        assertEquals(first.getId(), prioritizedTasks.get(0).getId(), "При равном времени начала порядок определяется id");
+
+        first.setStartTime(start.plusHours(1));
+        taskManager.updateTask(first);
+        prioritizedTasks = taskManager.getPrioritizedTasks();
+        assertEquals(2, prioritizedTasks.size(), "После переноса задача не должна дублироваться");
+        assertEquals(second.getId(), prioritizedTasks.get(0).getId(), "Перенесенная задача должна сместиться в конец");
+    }
     
+    @Test
+    public void testVersionsChangeOnModification() {
+        Task task = new Task("Test Task", "Test Description");
+        taskManager.createTask(task);
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Test Subtask", "Test Description", epic.getId());
+        taskManager.createSubtask(subtask);
+
+        long version = taskManager.getVersion();
+        long taskVersion = taskManager.getVersion(task.getId());
+        long epicVersion = taskManager.getVersion(epic.getId());
+        long historyVersion = taskManager.getHistoryVersion();
+
+        taskManager.getTaskById(task.getId());
+        assertEquals(version, taskManager.getVersion(), "Просмотр не должен менять версию менеджера");
+        assertTrue(taskManager.getHistoryVersion() > historyVersion, "Просмотр должен менять версию истории");
+
+        subtask.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask);
+        assertTrue(taskManager.getVersion() > version, "Изменение должно увеличивать версию менеджера");
+        assertEquals(taskVersion, taskManager.getVersion(task.getId()), "Версия неизмененной задачи не должна меняться");
+        assertTrue(taskManager.getVersion(epic.getId()) > epicVersion, "Изменение подзадачи должно менять версию эпика");
+
+        taskManager.deleteTaskById(task.getId());
+        assertEquals(-1, taskManager.getVersion(task.getId()), "У удаленной задачи нет версии");
+    }
+
+    @Test
+    public void testClientHistoriesAreSeparated() {
+        Task task = new Task("Test Task", "Test Description");
+        taskManager.createTask(task);
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Test Subtask", "Test Description", epic.getId());
+        taskManager.createSubtask(subtask);
+
+        assertEquals(task, taskManager.getTaskById(task.getId(), "first"));
+        assertEquals(subtask, taskManager.getSubtaskById(subtask.getId(), "first"));
+        assertEquals(epic, taskManager.getEpicById(epic.getId(), "second"));
+        taskManager.getTaskById(task.getId(), "first");
+
+        assertEquals(List.of(subtask, task), taskManager.getHistory("first"));
+        assertEquals(List.of(epic), taskManager.getHistory("second"));
+        assertTrue(taskManager.getHistory("unknown").isEmpty());
+        assertTrue(taskManager.getHistory().isEmpty(), "Просмотры клиентов не должны попадать в общую историю");
+
+        taskManager.deleteTaskById(task.getId());
+        assertEquals(List.of(subtask), taskManager.getHistory("first"), "Удаленная задача должна пропасть из истории");
+    }
+
+    @Test
+    public void testPeekDoesNotRecordView() {
+        Task task = new Task("Test Task", "Test Description");
+        taskManager.createTask(task);
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Test Subtask", "Test Description", epic.getId());
+        taskManager.createSubtask(subtask);
+        long historyVersion = taskManager.getHistoryVersion();
+
+        assertEquals(task, taskManager.peekTaskById(task.getId()));
+        assertEquals(epic, taskManager.peekEpicById(epic.getId()));
+        assertEquals(subtask, taskManager.peekSubtaskById(subtask.getId()));
+        assertTrue(taskManager.containsTask(task.getId()));
+        assertTrue(taskManager.containsEpic(epic.getId()));
+        assertTrue(taskManager.containsSubtask(subtask.getId()));
+        assertFalse(taskManager.containsTask(epic.getId()), "Эпик не должен считаться задачей");
+        assertNull(taskManager.peekSubtaskById(999));
+
+        assertTrue(taskManager.getHistory().isEmpty(), "Служебные проверки не должны попадать в историю");
+        assertEquals(historyVersion, taskManager.getHistoryVersion());
+    }
+
     @Test
     public void testHistory() {
         Task task = new Task("Test Task", "Test Description");
@@ -289,4 +387,112 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(epic.getId(), history.get(1).getId(), "Второй в истории должен быть эпик");
         assertEquals(subtask.getId(), history.get(2).getId(), "Третьей в истории должна быть подзадача");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetTasksPageByPage() {
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task("Task " + i, "Test Description"));
+        }
+
+        Page<Task> first = taskManager.getTasks(2, null);
+        Page<Task> second = taskManager.getTasks(2, first.getNextCursor());
+        Page<Task> third = taskManager.getTasks(2, second.getNextCursor());
+
+        assertEquals(2, first.getItems().size(), "Первая страница должна быть заполнена");
+        assertTrue(first.hasNext(), "После первой страницы должны быть задачи");
+        assertEquals(1, third.getItems().size(), "На последней странице должна остаться одна задача");
+        assertFalse(third.hasNext(), "Последняя страница не должна содержать курсор");
+        List<Task> pages = new ArrayList<>(first.getItems());
+        pages.addAll(second.getItems());
+        pages.addAll(third.getItems());
+        assertEquals(taskManager.getAllTasks(), pages, "Страницы должны содержать все задачи по порядку");
+    }
+
+    @Test
+    public void testGetPrioritizedTasksPageByPage() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 3; i >= 0; i--) {
+            Task task = new Task("Task " + i, "Test Description");
+            task.setStartTime(start.plusHours(i));
+            task.setDuration(Duration.ofMinutes(30));
+            taskManager.createTask(task);
+        }
+
+        Page<Task> first = taskManager.getPrioritizedTasks(3, null);
+        Page<Task> second = taskManager.getPrioritizedTasks(3, first.getNextCursor());
+
+        assertEquals(start, first.getItems().get(0).getStartTime(), "Страница должна начинаться с самой ранней задачи");
+        assertEquals(1, second.getItems().size(), "На второй странице должна остаться одна задача");
+        assertEquals(start.plusHours(3), second.getItems().get(0).getStartTime(), "Последней должна быть самая поздняя задача");
+        assertFalse(second.hasNext(), "Последняя страница не должна содержать курсор");
+    }
+
+    @Test
+    public void testGetTasksPageWithInvalidArguments() {
+        taskManager.createTask(new Task("Test Task", "Test Description"));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasks(0, null), "Размер страницы должен быть положительным");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getEpics(10, "not-a-cursor"), "Некорректный курсор должен отклоняться");
+        assertTrue(taskManager.getSubtasks(10, null).getItems().isEmpty(), "Страница подзадач должна быть пустой");
+    }
+
+    @Test
+    public void testGetTasksByStatusFollowsUpdatesAndDeletes() {
+        Task first = new Task("Task 1", "Test Description", TaskStatus.NEW);
+        Task second = new Task("Task 2", "Test Description", TaskStatus.NEW);
+        taskManager.createTask(first);
+        taskManager.createTask(second);
+
+        Task updated = new Task("Task 1", "Test Description", first.getId(), TaskStatus.DONE);
+        taskManager.updateTask(updated);
+        taskManager.deleteTaskById(second.getId());
+
+        assertEquals(0, taskManager.countTasksByStatus(TaskStatus.NEW), "Новых задач не должно остаться");
+        assertEquals(1, taskManager.countTasksByStatus(TaskStatus.DONE), "Должна быть одна завершенная задача");
+        assertEquals(List.of(updated), taskManager.getTasksByStatus(TaskStatus.DONE), "Индекс должен содержать обновленную задачу");
+    }
+
+    @Test
+    public void testGetEpicsByStatusFollowsEpicRecalculation() {
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Test Subtask", "Test Description", TaskStatus.IN_PROGRESS, epic.getId());
+        taskManager.createSubtask(subtask);
+
+        assertEquals(1, taskManager.countEpicsByStatus(TaskStatus.IN_PROGRESS), "Эпик должен перейти в статус IN_PROGRESS");
+        assertEquals(1, taskManager.countSubtasksByStatus(TaskStatus.IN_PROGRESS), "Подзадача должна быть в индексе");
+
+        taskManager.updateSubtask(new Subtask("Test Subtask", "Test Description", subtask.getId(), TaskStatus.DONE, epic.getId()));
+
+        assertEquals(0, taskManager.countEpicsByStatus(TaskStatus.IN_PROGRESS), "Эпик должен покинуть статус IN_PROGRESS");
+        assertEquals(epic.getId(), taskManager.getEpicsByStatus(TaskStatus.DONE).get(0).getId(), "Эпик должен перейти в статус DONE");
+        assertEquals(1, taskManager.getSubtasksByStatus(TaskStatus.DONE).size(), "Подзадача должна быть завершенной");
+
+        taskManager.deleteEpicById(epic.getId());
+
+        assertEquals(0, taskManager.countEpicsByStatus(TaskStatus.DONE), "Удаленный эпик не должен учитываться");
+        assertEquals(0, taskManager.countSubtasksByStatus(TaskStatus.DONE), "Подзадачи удаленного эпика не должны учитываться");
+    }
+
+    @Test
+    public void testGetPrioritizedTasksInTimeRange() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task("Task " + i, "Test Description");
+            task.setStartTime(start.plusDays(i));
+            task.setDuration(Duration.ofMinutes(30));
+            taskManager.createTask(task);
+        }
+        taskManager.createTask(new Task("Task without time", "Test Description"));
+
+        List<Task> week = taskManager.getPrioritizedTasks(start.plusDays(1), start.plusDays(3), 10);
+        List<Task> next = taskManager.getPrioritizedTasks(start.plusHours(1), null, 2);
+
+        assertEquals(2, week.size(), "Конец интервала не должен включаться");
+        assertEquals(start.plusDays(1), week.get(0).getStartTime(), "Начало интервала должно включаться");
+        assertEquals(List.of(start.plusDays(1), start.plusDays(2)),
+                List.of(next.get(0).getStartTime(), next.get(1).getStartTime()), "Должны вернуться ближайшие задачи");
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.getPrioritizedTasks(start.plusDays(1), start, 10), "Начало не может быть позже конца");
+    }
+}
@@ -0,0 +1,187 @@
+package taskmanager.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import taskmanager.model.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для ConcurrentHistoryManager
+ */
+class ConcurrentHistoryManagerTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final int IDS_PER_THREAD = 50;
+
+    private ConcurrentHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new ConcurrentHistoryManager();
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Description " + id);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    @DisplayName("Повторный просмотр должен переносить задачу в конец истории")
+    void add_SameTaskTwice_ShouldMoveTaskToEnd() {
+        Task task1 = task(1);
+        Task task2 = task(2);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+
+        assertEquals(List.of(task2, task1), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Удаленная задача не должна оставаться в истории")
+    void remove_ExistingTask_ShouldRemoveFromHistory() {
+        Task task1 = task(1);
+        historyManager.add(task1);
+        historyManager.add(task(2));
+        historyManager.remove(1);
+        historyManager.remove(3);
+
+        assertEquals(1, historyManager.getHistory().size());
+        assertFalse(historyManager.getHistory().contains(task1));
+    }
+
+    @Test
+    @DisplayName("Ограниченная история должна вытеснять самый давний просмотр")
+    void add_WhenCapacityExceeded_ShouldEvictOldestTask() {
+        ConcurrentHistoryManager boundedHistory = new ConcurrentHistoryManager(2);
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        boundedHistory.add(task1);
+        boundedHistory.add(task2);
+        boundedHistory.add(task1);
+        boundedHistory.add(task3);
+
+        assertEquals(List.of(task1, task3), boundedHistory.getHistory());
+    }
+
+    @Test
+    @DisplayName("Параллельные просмотры и удаления не должны нарушать порядок и уникальность истории")
+    void addAndRemove_FromManyThreads_ShouldKeepHistoryConsistent() throws Exception {
+        // Каждый поток работает со своим набором задач и запоминает порядок своих последних просмотров
+        List<List<Integer>> expected = runConcurrently(thread -> {
+            Random random = new Random(thread);
+            List<Integer> lastViews = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                int id = thread * IDS_PER_THREAD + random.nextInt(IDS_PER_THREAD);
+                lastViews.remove(Integer.valueOf(id));
+                if (random.nextInt(10) == 0) {
+                    historyManager.remove(id);
+                } else {
+                    historyManager.add(task(id));
+                    lastViews.add(id);
+                }
+            }
+            return lastViews;
+        });
+
+        List<Task> history = historyManager.getHistory();
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : history) {
+            ids.add(task.getId());
+        }
+        assertEquals(ids.size(), new HashSet<>(ids).size(), "Задача не должна встречаться в истории дважды");
+        for (int thread = 0; thread < THREADS; thread++) {
+            int first = thread * IDS_PER_THREAD;
+            List<Integer> own = new ArrayList<>();
+            for (Integer id : ids) {
+                if (id >= first && id < first + IDS_PER_THREAD) {
+                    own.add(id);
+                }
+            }
+            assertEquals(expected.get(thread), own, "Просмотры потока " + thread + " должны идти в порядке просмотра");
+        }
+    }
+
+    @Test
+    @DisplayName("Ограниченная история не должна превышать емкость при параллельных просмотрах")
+    void add_FromManyThreadsWithCapacity_ShouldNotExceedCapacity() throws Exception {
+        ConcurrentHistoryManager boundedHistory = new ConcurrentHistoryManager(100);
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                boundedHistory.add(task(random.nextInt(1000)));
+            }
+            return List.of();
+        });
+
+        List<Task> history = boundedHistory.getHistory();
+        assertEquals(100, history.size(), "История должна быть заполнена ровно до емкости");
+        assertEquals(100, history.stream().map(Task::getId).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Чтение истории во время повторных просмотров не должно возвращать задачу дважды")
+    void getHistory_WhileTasksAreReviewed_ShouldNotReturnDuplicates() throws Exception {
+        for (int id = 0; id < 200; id++) {
+            historyManager.add(task(id));
+        }
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    historyManager.add(task(random.nextInt(200)));
+                } else {
+                    List<Task> history = historyManager.getHistory();
+                    assertEquals(history.size(), history.stream().map(Task::getId).distinct().count(),
+                            "Задача не должна встречаться в истории дважды");
+                }
+            }
+            return List.of();
+        });
+
+        assertEquals(200, historyManager.getHistory().size());
+    }
+
+    // Запустить действие одновременно в нескольких потоках и собрать результаты в порядке номеров потоков
+    private static <T> List<T> runConcurrently(ThreadAction<T> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int number = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return action.run(number);
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(1, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadAction<T> {
+        T run(int thread) throws Exception;
+    }
+}
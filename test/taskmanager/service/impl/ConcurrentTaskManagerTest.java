@@ -0,0 +1,240 @@
+package taskmanager.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+import taskmanager.service.Page;
+import taskmanager.service.TaskManagerTest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для ConcurrentTaskManager
+ */
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 500;
+
+    /**
+     * Создает экземпляр ConcurrentTaskManager для тестирования
+     * @return экземпляр ConcurrentTaskManager
+     */
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    @DisplayName("Параллельное создание задач должно выдавать уникальные идентификаторы")
+    void createTask_FromManyThreads_ShouldAssignUniqueIds() throws Exception {
+        List<Integer> ids = runConcurrently(thread -> {
+            List<Integer> created = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Task task = new Task("Task " + thread + "-" + i, "Test Description");
+                taskManager.createTask(task);
+                created.add(task.getId());
+                taskManager.getTaskById(task.getId());
+            }
+            return created;
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, new HashSet<>(ids).size(), "Идентификаторы должны быть уникальны");
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, taskManager.getAllTasks().size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, taskManager.getHistory().size());
+    }
+
+    @Test
+    @DisplayName("Проверка пересечений и вставка должны выполняться атомарно")
+    void createTask_WithSameIntervalFromManyThreads_ShouldAcceptOnlyOne() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        List<Integer> accepted = runConcurrently(thread -> {
+            List<Integer> created = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Task task = new Task("Task " + thread + "-" + i, "Test Description");
+                task.setStartTime(start.plusHours(i));
+                task.setDuration(Duration.ofMinutes(30));
+                try {
+                    taskManager.createTask(task);
+                    created.add(task.getId());
+                } catch (IllegalStateException e) {
+                    // Интервал уже занят другим потоком
+                }
+            }
+            return created;
+        });
+
+        assertEquals(OPERATIONS_PER_THREAD, accepted.size(), "Каждый интервал должен быть занят ровно одной задачей");
+        assertEquals(OPERATIONS_PER_THREAD, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("Статус эпика должен быть согласован после параллельных изменений подзадач")
+    void updateSubtask_FromManyThreads_ShouldKeepEpicStatusConsistent() throws Exception {
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Subtask subtask = new Subtask("Subtask " + thread + "-" + i, "Test Description", epic.getId());
+                taskManager.createSubtask(subtask);
+                Subtask done = new Subtask(subtask.getName(), subtask.getDescription(), subtask.getId(),
+                        TaskStatus.DONE, epic.getId());
+                taskManager.updateSubtask(done);
+            }
+            return List.of();
+        });
+
+        Epic loaded = taskManager.getEpicById(epic.getId());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, loaded.getSubtaskIds().size());
+        assertEquals(TaskStatus.DONE, loaded.getStatus());
+    }
+
+    @Test
+    @DisplayName("Чтение списка без блокировки не должно возвращать устаревший снимок после записи")
+    void getAllTasks_WhileWriting_ShouldNeverGoBackInTime() throws Exception {
+        List<Integer> sizes = runConcurrently(thread -> {
+            List<Integer> observed = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    taskManager.createTask(new Task("Task " + thread + "-" + i, "Test Description"));
+                    // Записавший поток должен сразу видеть свою задачу в списке
+                    assertTrue(taskManager.getAllTasks().size() > i);
+                } else {
+                    int size = taskManager.getAllTasks().size();
+                    if (!observed.isEmpty()) {
+                        assertTrue(size >= observed.get(observed.size() - 1), "Размер списка не должен уменьшаться");
+                    }
+                    observed.add(size);
+                }
+            }
+            return observed;
+        });
+
+        assertFalse(sizes.isEmpty());
+        assertEquals(THREADS / 2 * OPERATIONS_PER_THREAD, taskManager.getAllTasks().size());
+        assertSame(taskManager.getAllTasks(), taskManager.getAllTasks(), "Без записей должен отдаваться тот же снимок");
+    }
+
+    @Test
+    @DisplayName("Просмотр без блокировки, совпавший с удалением, не должен оставлять задачу в истории")
+    void getTaskById_WhileDeleting_ShouldNotKeepDeletedTaskInHistory() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < THREADS / 2 * OPERATIONS_PER_THREAD; i++) {
+            Task task = new Task("Task " + i, "Test Description");
+            taskManager.createTask(task);
+            ids.add(task.getId());
+        }
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                // Соседние потоки удаляют и просматривают одну и ту же задачу
+                int id = ids.get(thread / 2 * OPERATIONS_PER_THREAD + i);
+                if (thread % 2 == 0) {
+                    taskManager.deleteTaskById(id);
+                } else {
+                    taskManager.getTaskById(id);
+                }
+            }
+            return List.of();
+        });
+
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertEquals(List.of(), taskManager.getHistory(), "В истории не должно остаться удаленных задач");
+    }
+
+    @Test
+    @DisplayName("Количество задач по статусу без блокировки должно совпадать со списком после параллельных изменений")
+    void countTasksByStatus_AfterConcurrentUpdates_ShouldMatchLists() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Task task = new Task("Task " + thread + "-" + i, "Test Description");
+                taskManager.createTask(task);
+                TaskStatus status = TaskStatus.values()[i % TaskStatus.values().length];
+                taskManager.updateTask(new Task(task.getName(), task.getDescription(), task.getId(), status));
+                int total = taskManager.countTasksByStatus(TaskStatus.NEW)
+                        + taskManager.countTasksByStatus(TaskStatus.IN_PROGRESS)
+                        + taskManager.countTasksByStatus(TaskStatus.DONE);
+                assertTrue(total > 0 && total <= THREADS * OPERATIONS_PER_THREAD);
+                assertEquals(task.getId(), taskManager.getTaskById(task.getId()).getId());
+                assertTrue(taskManager.getVersion(task.getId()) > 0);
+            }
+            return List.of();
+        });
+
+        for (TaskStatus status : TaskStatus.values()) {
+            assertEquals(taskManager.getTasksByStatus(status).size(), taskManager.countTasksByStatus(status));
+        }
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, taskManager.getTasksByStatus(TaskStatus.NEW).size()
+                + taskManager.getTasksByStatus(TaskStatus.IN_PROGRESS).size()
+                + taskManager.getTasksByStatus(TaskStatus.DONE).size());
+    }
+
+    @Test
+    @DisplayName("Выборка из актуального снимка должна совпадать с выборкой из индекса")
+    void getPrioritizedTasks_WithFreshSnapshot_ShouldMatchIndexRange() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < 10; i++) {
+            Task task = new Task("Task " + i, "Test Description");
+            task.setStartTime(start.plusHours(i / 2));
+            task.setDuration(Duration.ZERO);
+            taskManager.createTask(task);
+        }
+        // Устаревший снимок: выборка идет по индексу под блокировкой чтения
+        List<Task> fromIndex = taskManager.getPrioritizedTasks(start.plusHours(1), start.plusHours(4), 5);
+        Page<Task> firstPageFromIndex = taskManager.getPrioritizedTasks(3, null);
+
+        taskManager.getPrioritizedTasks();
+        assertNotNull(taskManager.cachedPrioritizedTasks(), "Снимок должен быть актуален");
+
+        assertEquals(fromIndex, taskManager.getPrioritizedTasks(start.plusHours(1), start.plusHours(4), 5));
+        assertEquals(List.of(3, 4, 5, 6, 7), fromIndex.stream().map(Task::getId).toList());
+        Page<Task> firstPage = taskManager.getPrioritizedTasks(3, null);
+        assertEquals(firstPageFromIndex.getItems(), firstPage.getItems());
+        assertEquals(firstPageFromIndex.getNextCursor(), firstPage.getNextCursor());
+        Page<Task> secondPage = taskManager.getPrioritizedTasks(3, firstPage.getNextCursor());
+        assertEquals(List.of(4, 5, 6), secondPage.getItems().stream().map(Task::getId).toList());
+    }
+
+    // Выполнить действие в THREADS потоках одновременно и собрать результаты
+    private List<Integer> runConcurrently(ThreadAction action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return action.run(threadNumber);
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<List<Integer>> future : futures) {
+                results.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadAction {
+        List<Integer> run(int thread) throws Exception;
+    }
+}
@@ -8,11 +8,13 @@ import taskmanager.exceptions.ManagerSaveException;
 import taskmanager.model.Epic;
 import taskmanager.model.Subtask;
 import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
 import taskmanager.service.TaskManagerTest;
 import taskmanager.service.impl.FileBackedTaskManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
@@ -161,4 +163,215 @@ class FileBackedTaskManagerSpecificTest extends TaskManagerTest<FileBackedTaskMa
         assertTrue(loadedManager.getAllSubtasks().isEmpty());
         assertTrue(loadedManager.getHistory().isEmpty());
     }
-}
\ No newline at end of file
+    
+    /**
+     * Тест на наличие заголовка с контрольной суммой в файле снимка
+     */
+    @Test
+    @DisplayName("Снимок должен начинаться с заголовка с количеством записей, длиной и контрольной суммой")
+    void save_ShouldWriteChecksummedHeader() throws IOException {
+        taskManager.createTask(new Task("Test Task", "Test Description"));
+        taskManager.createEpic(new Epic("Test Epic", "Test Description"));
+        
+        List<String> lines = Files.readAllLines(file.toPath());
+        
+        assertTrue(lines.get(0).startsWith("#snapshot records=2 bytes="), "Первая строка должна быть заголовком");
+        assertTrue(lines.get(0).contains("crc32c="), "Заголовок должен содержать контрольную сумму");
+        assertEquals("id,type,name,status,description,epic,duration,startTime", lines.get(1));
+        assertFalse(tempDir.resolve("tasks.csv.tmp").toFile().exists(), "Временный файл не должен оставаться");
+    }
+    
+    /**
+     * Тест на восстановление из предыдущего снимка при оборванной записи
+     */
+    @Test
+    @DisplayName("При оборванном снимке должен загружаться предыдущий снимок")
+    void loadFromFile_WithTruncatedSnapshot_ShouldFallBackToPreviousSnapshot() throws IOException {
+        taskManager.createTask(new Task("First Task", "Test Description"));
+        taskManager.createTask(new Task("Second Task", "Test Description"));
+        
+        // Обрываем последний записанный снимок, как при сбое во время записи
+        byte[] content = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), java.util.Arrays.copyOf(content, content.length - 5));
+        
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(file);
+        
+        assertEquals(1, loadedManager.getAllTasks().size(), "Должен загрузиться предыдущий снимок");
+        assertEquals("First Task", loadedManager.getAllTasks().get(0).getName());
+    }
+    
+    /**
+     * Тест на обнаружение поврежденного снимка без предыдущей версии
+     */
+    @Test
+    @DisplayName("Поврежденный снимок без предыдущей версии должен приводить к исключению")
+    void loadFromFile_WithCorruptedSnapshot_ShouldThrowManagerSaveException() throws IOException {
+        File corrupted = tempDir.resolve("corrupted.csv").toFile();
+        Files.writeString(corrupted.toPath(), "#snapshot records=1 bytes=77 crc32c=00000000\n"
+                + "id,type,name,status,description,epic,duration,startTime\n"
+                + "1,TASK,Task,NEW,Description,,0,\n");
+        
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(corrupted));
+    }
+    
+    /**
+     * Тест на сверку количества записей из заголовка
+     */
+    @Test
+    @DisplayName("Снимок с неверным количеством записей в заголовке должен считаться поврежденным")
+    void loadFromFile_WithRecordCountMismatch_ShouldThrowManagerSaveException() throws IOException {
+        File mismatched = tempDir.resolve("mismatched.csv").toFile();
+        String body = "id,type,name,status,description,epic,duration,startTime\n"
+                + "1,TASK,Task,NEW,Description,,0,\n"
+                + "\n";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        // Длина и контрольная сумма верны, а записей в заголовке на одну больше
+        SnapshotHeader header = new SnapshotHeader(2, bytes.length, SnapshotHeader.checksum(bytes, 0, bytes.length));
+        Files.writeString(mismatched.toPath(), header + "\n" + body);
+        
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(mismatched));
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFileParallel(mismatched, 2));
+    }
+    
+    /**
+     * Тест на сохранение и загрузку двоичного снимка
+     */
+    @Test
+    @DisplayName("Двоичный снимок должен загружаться с автоматическим определением формата")
+    void loadFromFile_WithBinarySnapshot_ShouldRestoreTasksAndHistory() {
+        File binaryFile = tempDir.resolve("tasks.bin").toFile();
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(binaryFile, SnapshotFormat.BINARY);
+        
+        Task task = new Task("Name, with comma", "Line one\nline two");
+        task.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0, 15, 123));
+        task.setDuration(Duration.ofMinutes(30));
+        binaryManager.createTask(task);
+        Epic epic = new Epic("Test Epic", "Test Description");
+        binaryManager.createEpic(epic);
+        Subtask subtask = new Subtask("Test Subtask", "Test Description", epic.getId());
+        subtask.setStartTime(LocalDateTime.of(2025, 1, 2, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(45));
+        binaryManager.createSubtask(subtask);
+        binaryManager.getSubtaskById(subtask.getId());
+        binaryManager.getTaskById(task.getId());
+        // Просмотры не изменяют задачи, история записывается вместе со следующим снимком
+        binaryManager.save();
+        
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(binaryFile);
+        
+        assertEquals(SnapshotFormat.BINARY, loadedManager.getSnapshotFormat());
+        Task loadedTask = loadedManager.getAllTasks().get(0);
+        assertEquals("Name, with comma", loadedTask.getName());
+        assertEquals("Line one\nline two", loadedTask.getDescription());
+        assertEquals(task.getStartTime(), loadedTask.getStartTime());
+        assertEquals(task.getDuration(), loadedTask.getDuration());
+        assertEquals(List.of(subtask.getId()), loadedManager.getAllEpics().get(0).getSubtaskIds());
+        assertEquals(subtask.getEndTime(), loadedManager.getAllEpics().get(0).getEndTime());
+        List<Task> history = loadedManager.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(subtask.getId(), history.get(0).getId());
+        assertEquals(task.getId(), history.get(1).getId());
+    }
+    
+    /**
+     * Тест на обнаружение поврежденного двоичного снимка
+     */
+    @Test
+    @DisplayName("При поврежденном двоичном снимке должен загружаться предыдущий снимок")
+    void loadFromFile_WithCorruptedBinarySnapshot_ShouldFallBackToPreviousSnapshot() throws IOException {
+        File binaryFile = tempDir.resolve("tasks.bin").toFile();
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(binaryFile, SnapshotFormat.BINARY);
+        binaryManager.createTask(new Task("First Task", "Test Description"));
+        binaryManager.createTask(new Task("Second Task", "Test Description"));
+        
+        // Портим байт в первой записи, длина файла при этом не меняется
+        byte[] content = Files.readAllBytes(binaryFile.toPath());
+        content[content.length / 2] ^= 0x55;
+        Files.write(binaryFile.toPath(), content);
+        
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(binaryFile);
+        
+        assertEquals(1, loadedManager.getAllTasks().size(), "Должен загрузиться предыдущий снимок");
+        assertEquals("First Task", loadedManager.getAllTasks().get(0).getName());
+    }
+    
+    /**
+     * Тест на загрузку подзадачи, записанной в файле раньше своего эпика
+     */
+    @Test
+    @DisplayName("Подзадача, записанная раньше своего эпика, должна быть загружена и связана с ним")
+    void loadFromFile_WithSubtaskBeforeEpic_ShouldLinkSubtaskToEpic() throws IOException {
+        File legacyFile = tempDir.resolve("legacy.csv").toFile();
+        Files.writeString(legacyFile.toPath(), "id,type,name,status,description,epic,duration,startTime\n"
+                + "2,SUBTASK,Subtask,DONE,Description,1,30,2025-01-01T10:00\n"
+                + "1,EPIC,Epic,NEW,Description,,0,\n"
+                + "\n"
+                + "2,1\n");
+        
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(legacyFile);
+        
+        Epic epic = loadedManager.getAllEpics().get(0);
+        assertEquals(List.of(2), epic.getSubtaskIds());
+        assertEquals(TaskStatus.DONE, epic.getStatus(), "Статус эпика должен быть рассчитан по подзадаче");
+        assertEquals(List.of(2, 1), loadedManager.getHistory().stream().map(Task::getId).toList());
+    }
+    
+    /**
+     * Тест на параллельную загрузку снимка
+     */
+    @Test
+    @DisplayName("Параллельная загрузка должна давать то же состояние, что и последовательная")
+    void loadFromFileParallel_ShouldMatchSequentialLoad() {
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+        for (int i = 0; i < 20; i++) {
+            Subtask subtask = new Subtask("Subtask " + i, "Test Description", epic.getId());
+            subtask.setStartTime(LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i));
+            subtask.setDuration(Duration.ofMinutes(30));
+            subtask.setStatus(i % 2 == 0 ? TaskStatus.DONE : TaskStatus.NEW);
+            taskManager.createSubtask(subtask);
+        }
+        for (int i = 0; i < 20; i++) {
+            taskManager.createTask(new Task("Task " + i, "Test Description"));
+        }
+        taskManager.getEpicById(epic.getId());
+        taskManager.createTask(new Task("Last Task", "Test Description"));
+        
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(file);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFileParallel(file, 4);
+        
+        assertEquals(sequential.getAllTasks().size(), parallel.getAllTasks().size());
+        assertEquals(sequential.getAllSubtasks().size(), parallel.getAllSubtasks().size());
+        Epic loadedEpic = parallel.getAllEpics().get(0);
+        assertEquals(sequential.getAllEpics().get(0).getSubtaskIds(), loadedEpic.getSubtaskIds());
+        assertEquals(TaskStatus.IN_PROGRESS, loadedEpic.getStatus());
+        assertEquals(epic.getStartTime(), loadedEpic.getStartTime());
+        assertEquals(epic.getEndTime(), loadedEpic.getEndTime());
+        assertEquals(sequential.getPrioritizedTasks(), parallel.getPrioritizedTasks());
+        assertEquals(List.of(epic.getId()), parallel.getHistory().stream().map(Task::getId).toList());
+    }
+    
+    /**
+     * Тест на параллельную загрузку файла с лишней пустой строкой
+     */
+    @Test
+    @DisplayName("Параллельная загрузка должна заканчивать записи на первой пустой строке, как последовательная")
+    void loadFromFileParallel_WithStrayBlankLine_ShouldMatchSequentialLoad() throws IOException {
+        File strayFile = tempDir.resolve("stray.csv").toFile();
+        Files.writeString(strayFile.toPath(), "id,type,name,status,description,epic,duration,startTime\n"
+                + "1,TASK,First,NEW,Description,,0,\n"
+                + "2,TASK,Second,NEW,Description,,0,\n"
+                + "\n"
+                + "2,1\n"
+                + "\n"
+                + "1\n");
+        
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(strayFile);
+        FileBackedTaskManager parallel = FileBackedTaskManager.loadFromFileParallel(strayFile, 4);
+        
+        assertEquals(2, sequential.getAllTasks().size());
+        assertEquals(sequential.getAllTasks(), parallel.getAllTasks());
+        assertEquals(List.of(2, 1), sequential.getHistory().stream().map(Task::getId).toList());
+        assertEquals(sequential.getHistory(), parallel.getHistory());
+    }
+}
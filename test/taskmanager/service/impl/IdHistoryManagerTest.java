@@ -0,0 +1,154 @@
+package taskmanager.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import taskmanager.model.Task;
+import taskmanager.service.Managers;
+import taskmanager.service.TaskManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для IdHistoryManager
+ */
+class IdHistoryManagerTest {
+    private IdHistoryManager historyManager;
+    private Map<Integer, Task> store;
+
+    @BeforeEach
+    void setUp() {
+        store = new HashMap<>();
+        historyManager = new IdHistoryManager();
+        historyManager.setTaskResolver(store::get);
+    }
+
+    private Task task(int id) {
+        Task task = new Task("Task " + id, "Description " + id);
+        task.setId(id);
+        store.put(id, task);
+        return task;
+    }
+
+    @Test
+    @DisplayName("Повторный просмотр должен переносить задачу в конец истории")
+    void add_RepeatedView_ShouldMoveTaskToEnd() {
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+        historyManager.add(null);
+
+        assertEquals(List.of(task2, task3, task1), historyManager.getHistory());
+
+        historyManager.remove(task3.getId());
+        historyManager.remove(42);
+        assertEquals(List.of(task2, task1), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("История должна возвращать текущие объекты задач, а не просмотренные версии")
+    void getHistory_AfterUpdate_ShouldResolveCurrentTask() {
+        historyManager.add(task(1));
+        Task updated = task(1);
+        updated.setName("Updated");
+
+        List<Task> history = historyManager.getHistory();
+        assertSame(updated, history.get(0), "История должна вернуть обновленный объект");
+
+        store.remove(1);
+        assertTrue(historyManager.getHistory().isEmpty(), "Задачи, которых уже нет, должны пропускаться");
+    }
+
+    @Test
+    @DisplayName("Чтение истории не должно менять ее, удаленные задачи убираются только явно")
+    void getHistory_WithDeletedTask_ShouldNotChangeHistory() {
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        store.remove(1);
+
+        assertEquals(List.of(store.get(2)), historyManager.getHistory());
+        assertEquals(2, historyManager.size(), "Чтение истории не должно удалять идентификаторы");
+
+        assertEquals(1, historyManager.removeUnresolved());
+        assertEquals(1, historyManager.size());
+        assertEquals(List.of(store.get(2)), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Без способа получения задач чтение истории должно завершаться ошибкой")
+    void getHistory_WithoutResolver_ShouldThrow() {
+        IdHistoryManager unbound = new IdHistoryManager();
+        unbound.add(task(1));
+
+        assertThrows(IllegalStateException.class, unbound::getHistory);
+    }
+
+    @Test
+    @DisplayName("Ограниченная история должна вытеснять самый давний просмотр")
+    void add_WhenCapacityExceeded_ShouldEvictOldestTask() {
+        IdHistoryManager bounded = new IdHistoryManager(2);
+        bounded.setTaskResolver(store::get);
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        bounded.add(task1);
+        bounded.add(task2);
+        bounded.add(task1);
+        bounded.add(task3);
+
+        assertEquals(List.of(task1, task3), bounded.getHistory());
+        assertThrows(IllegalArgumentException.class, () -> new IdHistoryManager(0));
+    }
+
+    @Test
+    @DisplayName("Случайные операции должны давать ту же историю, что и InMemoryHistoryManager")
+    void randomOperations_ShouldMatchInMemoryHistoryManager() {
+        InMemoryHistoryManager expected = new InMemoryHistoryManager();
+        List<Task> tasks = new ArrayList<>();
+        // Идентификаторы разреженные и отрицательные, чтобы задеть коллизии и сдвиги в хеш-таблице
+        for (int i = 0; i < 500; i++) {
+            tasks.add(task(i % 2 == 0 ? i * 1024 : -i));
+        }
+        Random random = new Random(23);
+        for (int i = 0; i < 20_000; i++) {
+            Task task = tasks.get(random.nextInt(tasks.size()));
+            if (random.nextInt(4) == 0) {
+                expected.remove(task.getId());
+                historyManager.remove(task.getId());
+            } else {
+                expected.add(task);
+                historyManager.add(task);
+            }
+        }
+
+        assertEquals(expected.getHistory(), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Менеджер задач должен связывать историю идентификаторов со своими задачами")
+    void taskManager_WithIdHistory_ShouldReturnUpdatedTaskInHistory() {
+        TaskManager manager = new InMemoryTaskManager(Managers.getIdHistory());
+        Task task = new Task("Task", "Description");
+        manager.createTask(task);
+        manager.getTaskById(task.getId());
+
+        Task updated = new Task("Updated", "New description");
+        updated.setId(task.getId());
+        manager.updateTask(updated);
+
+        assertSame(updated, manager.getHistory().get(0), "История должна отражать обновление задачи");
+
+        manager.deleteTaskById(task.getId());
+        assertTrue(manager.getHistory().isEmpty());
+    }
+}
@@ -159,4 +159,28 @@ class InMemoryHistoryManagerTest {
         assertEquals(task1, history.get(0), "Первой задачей должна быть task1");
         assertEquals(task2, history.get(1), "Второй задачей должна быть task2");
     }
+
+    @Test
+    @DisplayName("Ограниченная история должна вытеснять самый давний просмотр")
+    void add_WhenCapacityExceeded_ShouldEvictOldestTask() {
+        HistoryManager boundedHistory = new InMemoryHistoryManager(2);
+        boundedHistory.add(task1);
+        boundedHistory.add(task2);
+        boundedHistory.add(task1); // Повторный просмотр task1 делает task2 самым давним
+        boundedHistory.add(task3);
+
+        assertEquals(List.of(task1, task3), boundedHistory.getHistory(),
+                "В истории должны остаться два последних просмотра в порядке просмотра");
+
+        boundedHistory.remove(task1.getId());
+        boundedHistory.add(task2);
+        assertEquals(List.of(task3, task2), boundedHistory.getHistory());
+    }
+
+    @Test
+    @DisplayName("Емкость истории должна быть положительной")
+    void constructor_WithNonPositiveCapacity_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+        assertEquals(InMemoryHistoryManager.UNBOUNDED, new InMemoryHistoryManager().getCapacity());
+    }
 }
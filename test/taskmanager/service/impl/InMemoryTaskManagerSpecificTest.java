@@ -2,10 +2,15 @@ package taskmanager.service.impl;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
 import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
 import taskmanager.service.TaskManagerTest;
 import taskmanager.service.impl.InMemoryTaskManager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,4 +53,127 @@ class InMemoryTaskManagerSpecificTest extends TaskManagerTest<InMemoryTaskManage
         
         assertEquals(1, count, "Задача должна встречаться в истории только один раз");
     }
-}
\ No newline at end of file
+    
+    /**
+     * Тест на пакетное добавление задач с сохранением идентификаторов
+     */
+    @Test
+    @DisplayName("Пакетное добавление должно сохранять идентификаторы и рассчитывать поля эпиков")
+    void addAllWithIds_ShouldKeepIdsAndDeriveEpicFields() {
+        Epic epic = new Epic("Test Epic", "Test Description", 10, TaskStatus.NEW);
+        Subtask first = new Subtask("First", "Test Description", 11, TaskStatus.DONE, 10,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 0));
+        Subtask second = new Subtask("Second", "Test Description", 12, TaskStatus.NEW, 10,
+                Duration.ofMinutes(60), LocalDateTime.of(2025, 1, 1, 12, 0));
+        Subtask orphan = new Subtask("Orphan", "Test Description", 13, TaskStatus.NEW, 99);
+        Task task = new Task("Test Task", "Test Description", 5, TaskStatus.NEW,
+                Duration.ofMinutes(15), LocalDateTime.of(2025, 1, 1, 8, 0));
+        
+        taskManager.addAllWithIds(List.of(task), List.of(epic), List.of(first, second, orphan));
+        
+        assertEquals(task, taskManager.getTaskById(5));
+        assertEquals(List.of(11, 12), epic.getSubtaskIds());
+        assertNull(taskManager.getSubtaskById(13), "Подзадача без эпика не должна добавляться");
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 13, 0), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+        assertEquals(List.of(task, first, second), taskManager.getPrioritizedTasks());
+        
+        // Новые объекты получают идентификаторы после загруженных
+        Task created = new Task("Created Task", "Test Description");
+        taskManager.createTask(created);
+        assertEquals(14, created.getId());
+    }
+    
+    /**
+     * Тест на замену существующих объектов при пакетном добавлении
+     */
+    @Test
+    @DisplayName("Пакетное добавление должно заменять объекты с существующими идентификаторами")
+    void addAllWithIds_WithExistingIds_ShouldReplaceObjects() {
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Test Subtask", "Test Description", epic.getId());
+        subtask.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        subtask.setDuration(Duration.ofMinutes(30));
+        taskManager.createSubtask(subtask);
+        
+        Subtask replacement = new Subtask("Replacement", "Test Description", subtask.getId(), TaskStatus.DONE,
+                epic.getId(), Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 2, 10, 0));
+        taskManager.addAllWithIds(List.of(), List.of(), List.of(replacement));
+        
+        assertEquals(List.of(replacement), taskManager.getAllSubtasks());
+        assertEquals(List.of(replacement), taskManager.getPrioritizedTasks());
+        assertEquals(TaskStatus.DONE, taskManager.getEpicById(epic.getId()).getStatus());
+        assertEquals(replacement.getStartTime(), epic.getStartTime());
+    }
+    
+    /**
+     * Тест на пересчет полей эпика при изменении подзадач
+     * Подзадача изменяется на месте, как это делает клиент, получивший объект из менеджера
+     */
+    @Test
+    @DisplayName("Поля эпика должны пересчитываться при изменении и удалении подзадач")
+    void updateAndDeleteSubtask_ShouldKeepEpicFieldsConsistent() {
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+        Subtask early = new Subtask("Early", "Test Description", epic.getId());
+        early.setStartTime(LocalDateTime.of(2025, 1, 1, 8, 0));
+        early.setDuration(Duration.ofMinutes(30));
+        taskManager.createSubtask(early);
+        Subtask late = new Subtask("Late", "Test Description", epic.getId());
+        late.setStartTime(LocalDateTime.of(2025, 1, 1, 12, 0));
+        late.setDuration(Duration.ofMinutes(60));
+        taskManager.createSubtask(late);
+        
+        early.setStatus(TaskStatus.DONE);
+        early.setStartTime(LocalDateTime.of(2025, 1, 1, 14, 0));
+        taskManager.updateSubtask(early);
+        
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 12, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 14, 30), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+        
+        taskManager.deleteSubtaskById(late.getId());
+        
+        assertEquals(TaskStatus.DONE, epic.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 14, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 14, 30), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(30), epic.getDuration());
+        
+        taskManager.deleteSubtaskById(early.getId());
+        
+        assertEquals(TaskStatus.NEW, epic.getStatus());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+
+    /**
+     * Тест на кэширование списков между изменениями
+     * Повторное чтение без изменений возвращает тот же снимок, изменение приводит к построению нового
+     */
+    @Test
+    @DisplayName("Списки должны перестраиваться только после изменения")
+    void getAllTasks_BetweenMutations_ShouldReturnCachedSnapshot() {
+        Task task = new Task("Test Task", "Test Description");
+        task.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        task.setDuration(Duration.ofMinutes(30));
+        taskManager.createTask(task);
+        
+        List<Task> tasks = taskManager.getAllTasks();
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertSame(tasks, taskManager.getAllTasks());
+        assertSame(prioritized, taskManager.getPrioritizedTasks());
+        assertThrows(UnsupportedOperationException.class, () -> tasks.add(task));
+        
+        Task another = new Task("Another Task", "Test Description");
+        taskManager.createTask(another);
+        
+        assertEquals(List.of(task), tasks, "Выданный снимок не должен меняться после изменения менеджера");
+        assertEquals(List.of(task, another), taskManager.getAllTasks());
+        assertEquals(List.of(task), taskManager.getPrioritizedTasks());
+    }
+}
@@ -0,0 +1,183 @@
+package taskmanager.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import taskmanager.exceptions.ManagerSaveException;
+import taskmanager.model.Epic;
+import taskmanager.model.Subtask;
+import taskmanager.model.Task;
+import taskmanager.model.TaskStatus;
+import taskmanager.service.TaskManagerTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для JournaledTaskManager
+ */
+class JournaledTaskManagerTest extends TaskManagerTest<JournaledTaskManager> {
+    private static final int SNAPSHOT_INTERVAL = 5;
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+
+    /**
+     * Создает экземпляр JournaledTaskManager для тестирования
+     * @return экземпляр JournaledTaskManager
+     */
+    @Override
+    protected JournaledTaskManager createTaskManager() {
+        file = tempDir.resolve("tasks.csv").toFile();
+        return new JournaledTaskManager(file, SNAPSHOT_INTERVAL);
+    }
+
+    @Test
+    @DisplayName("Изменения должны дописываться в журнал без записи снимка")
+    void createTask_ShouldAppendRecordToJournal() throws IOException {
+        Task task = new Task("Test Task", "Test Description");
+        taskManager.createTask(task);
+        taskManager.deleteTaskById(task.getId());
+
+        List<String> lines = Files.readAllLines(taskManager.getJournalFile().toPath());
+        assertEquals(2, lines.size(), "Журнал должен содержать две записи");
+        assertTrue(lines.get(0).startsWith("PUT,"), "Первая запись должна описывать создание задачи");
+        assertEquals("DELETE,TASK," + task.getId(), lines.get(1), "Вторая запись должна описывать удаление задачи");
+        assertFalse(file.exists(), "Снимок не должен записываться до достижения интервала");
+    }
+
+    @Test
+    @DisplayName("После интервала записей должен записываться снимок, а журнал очищаться")
+    void persist_AfterSnapshotInterval_ShouldWriteSnapshotAndTruncateJournal() {
+        for (int i = 0; i < SNAPSHOT_INTERVAL; i++) {
+            taskManager.createTask(new Task("Task " + i, "Description " + i));
+        }
+
+        assertTrue(file.exists(), "Снимок должен быть записан");
+        assertFalse(taskManager.getJournalFile().exists(), "Журнал должен быть очищен после снимка");
+    }
+
+    @Test
+    @DisplayName("Загрузка должна воспроизводить журнал поверх снимка")
+    void loadFromFile_WithSnapshotAndJournal_ShouldReplayJournalTail() {
+        Epic epic = new Epic("Test Epic", "Test Description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Test Subtask", "Test Description", epic.getId());
+        taskManager.createSubtask(subtask);
+        taskManager.snapshot();
+
+        subtask.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask);
+        Task task = new Task("Test Task", "Test Description");
+        taskManager.createTask(task);
+
+        JournaledTaskManager loadedManager = JournaledTaskManager.loadFromFile(file, SNAPSHOT_INTERVAL);
+
+        assertEquals(1, loadedManager.getAllTasks().size(), "Задача из журнала должна быть восстановлена");
+        assertEquals(TaskStatus.DONE, loadedManager.getAllSubtasks().get(0).getStatus(),
+                "Обновление подзадачи из журнала должно быть применено");
+        assertEquals(TaskStatus.DONE, loadedManager.getAllEpics().get(0).getStatus(),
+                "Статус эпика должен быть пересчитан при воспроизведении журнала");
+        assertFalse(loadedManager.getJournalFile().exists(), "После загрузки журнал должен быть свернут в снимок");
+    }
+
+    @Test
+    @DisplayName("Оборванная последняя запись журнала должна игнорироваться")
+    void loadFromFile_WithTornJournalTail_ShouldIgnoreIncompleteRecord() throws IOException {
+        Task task = new Task("Test Task", "Test Description");
+        taskManager.createTask(task);
+        Files.writeString(taskManager.getJournalFile().toPath(), "PUT,99,TA", StandardOpenOption.APPEND);
+
+        JournaledTaskManager loadedManager = JournaledTaskManager.loadFromFile(file, SNAPSHOT_INTERVAL);
+
+        assertEquals(1, loadedManager.getAllTasks().size(), "Должна быть восстановлена только полная запись");
+        assertEquals(task.getId(), loadedManager.getAllTasks().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Поврежденная полная запись журнала должна приводить к исключению")
+    void loadFromFile_WithCorruptedJournalRecord_ShouldThrowManagerSaveException() throws IOException {
+        taskManager.createTask(new Task("Test Task", "Test Description"));
+        Files.writeString(taskManager.getJournalFile().toPath(), "PUT,broken\n", StandardOpenOption.APPEND);
+        taskManager.createTask(new Task("Second Task", "Test Description"));
+
+        assertThrows(ManagerSaveException.class, () -> JournaledTaskManager.loadFromFile(file, SNAPSHOT_INTERVAL));
+    }
+
+    @Test
+    @DisplayName("Журнал, уже учтенный в более новом снимке, должен воспроизводиться без проверки пересечений")
+    void loadFromFile_WithJournalOlderThanSnapshot_ShouldReplayWithoutOverlapCheck() throws IOException {
+        JournaledTaskManager manager = new JournaledTaskManager(file, 100);
+        LocalDateTime slot = LocalDateTime.of(2025, 1, 1, 14, 0);
+        Task first = new Task("First", "Description");
+        first.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        first.setDuration(Duration.ofHours(1));
+        manager.createTask(first);
+        Task second = new Task("Second", "Description");
+        second.setStartTime(LocalDateTime.of(2025, 1, 1, 12, 0));
+        second.setDuration(Duration.ofHours(1));
+        manager.createTask(second);
+        manager.snapshot();
+        // Первая задача занимает слот и освобождает его, затем слот занимает вторая задача
+        first.setStartTime(slot);
+        manager.updateTask(first);
+        first.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        manager.updateTask(first);
+        second.setStartTime(slot);
+        manager.updateTask(second);
+
+        // Сбой между записью снимка и очисткой журнала: журнал целиком остается рядом с новым снимком
+        String journal = Files.readString(manager.getJournalFile().toPath());
+        manager.snapshot();
+        Files.writeString(manager.getJournalFile().toPath(), journal);
+
+        JournaledTaskManager loadedManager = JournaledTaskManager.loadFromFile(file, SNAPSHOT_INTERVAL);
+
+        assertEquals(slot, loadedManager.getTaskById(second.getId()).getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), loadedManager.getTaskById(first.getId()).getStartTime());
+        assertEquals(2, loadedManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("При поврежденном снимке предыдущее поколение должно дополняться его журналом")
+    void loadFromFile_WithCorruptedSnapshot_ShouldReplayPreviousJournal() throws IOException {
+        JournaledTaskManager manager = new JournaledTaskManager(file, 100);
+        Task first = new Task("First Task", "Test Description");
+        manager.createTask(first);
+        manager.snapshot();
+        // Изменения между поколениями есть только в журнале предыдущего поколения
+        first.setStatus(TaskStatus.DONE);
+        manager.updateTask(first);
+        manager.createTask(new Task("Second Task", "Test Description"));
+        manager.snapshot();
+        manager.createTask(new Task("Third Task", "Test Description"));
+
+        // Портим байт в записях, длина файла при этом не меняется
+        byte[] content = Files.readAllBytes(file.toPath());
+        content[content.length - 10] ^= 0x55;
+        Files.write(file.toPath(), content);
+
+        JournaledTaskManager loadedManager = JournaledTaskManager.loadFromFile(file, SNAPSHOT_INTERVAL);
+
+        assertEquals(3, loadedManager.getAllTasks().size(), "Изменения между поколениями не должны теряться");
+        assertEquals(TaskStatus.DONE, loadedManager.getTaskById(first.getId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Обновление несуществующей задачи не должно попадать в журнал")
+    void updateTask_WithUnknownId_ShouldNotAppendRecord() {
+        taskManager.updateTask(new Task("Ghost", "Description", 42, TaskStatus.NEW));
+
+        assertFalse(taskManager.getJournalFile().exists(), "Журнал не должен создаваться для пустого изменения");
+    }
+}
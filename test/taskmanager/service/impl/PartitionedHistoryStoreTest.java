@@ -0,0 +1,170 @@
+package taskmanager.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import taskmanager.model.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для PartitionedHistoryStore
+ */
+class PartitionedHistoryStoreTest {
+    private Map<Integer, Task> store;
+
+    @BeforeEach
+    void setUp() {
+        store = new HashMap<>();
+        for (int id = 1; id <= 10; id++) {
+            Task task = new Task("Task " + id, "Description " + id);
+            task.setId(id);
+            store.put(id, task);
+        }
+    }
+
+    @Test
+    @DisplayName("Истории клиентов должны храниться отдельно и ограничиваться емкостью")
+    void add_DifferentClients_ShouldKeepSeparateHistories() {
+        PartitionedHistoryStore histories = new PartitionedHistoryStore(2, 1, 100, store::get);
+        histories.add("alice", store.get(1));
+        histories.add("alice", store.get(2));
+        histories.add("alice", store.get(3));
+        histories.add("bob", store.get(1));
+
+        assertEquals(List.of(store.get(2), store.get(3)), histories.getHistory("alice"));
+        assertEquals(List.of(store.get(1)), histories.getHistory("bob"));
+        assertTrue(histories.getHistory("carol").isEmpty());
+        // Три записи и служебные расходы двух клиентов
+        assertEquals(5, histories.getTotalSize());
+        assertEquals(2, histories.getClientCount());
+    }
+
+    @Test
+    @DisplayName("При превышении бюджета должна вытесняться история наименее активного клиента")
+    void add_WhenBudgetExceeded_ShouldEvictIdleClient() {
+        PartitionedHistoryStore histories = new PartitionedHistoryStore(2, 1, 7, store::get);
+        histories.add("alice", store.get(1));
+        histories.add("alice", store.get(2));
+        histories.add("bob", store.get(3));
+        histories.add("carol", store.get(4));
+        // Обращение к истории делает alice активнее bob
+        histories.getHistory("alice");
+        histories.add("carol", store.get(5));
+
+        assertEquals(6, histories.getTotalSize());
+        assertTrue(histories.getHistory("bob").isEmpty(), "История bob должна быть вытеснена");
+        assertEquals(2, histories.getHistory("alice").size());
+        assertEquals(2, histories.getHistory("carol").size());
+    }
+
+    @Test
+    @DisplayName("Удаленные задачи должны освобождать бюджет при чтении истории")
+    void getHistory_AfterTaskDeleted_ShouldReleaseBudget() {
+        PartitionedHistoryStore histories = new PartitionedHistoryStore(5, 1, 10, store::get);
+        histories.add("alice", store.get(1));
+        histories.add("alice", store.get(2));
+        histories.add("bob", store.get(3));
+        store.remove(1);
+
+        assertEquals(List.of(store.get(2)), histories.getHistory("alice"));
+        assertEquals(4, histories.getTotalSize());
+
+        // Опустевшая история убирается вместе со служебными расходами
+        store.remove(2);
+        assertTrue(histories.getHistory("alice").isEmpty());
+        assertEquals(1, histories.getClientCount());
+        assertEquals(2, histories.getTotalSize());
+        histories.add("alice", store.get(4));
+        assertEquals(List.of(store.get(4)), histories.getHistory("alice"));
+        assertEquals(4, histories.getTotalSize());
+
+        histories.clear();
+        assertEquals(0, histories.getClientCount());
+        assertEquals(0, histories.getTotalSize());
+    }
+
+    @Test
+    @DisplayName("Хранилище должно вмещать десятки тысяч клиентов в пределах бюджета")
+    void add_ManyClients_ShouldStayWithinBudget() {
+        PartitionedHistoryStore histories = new PartitionedHistoryStore(10, 100_000, store::get);
+        for (int client = 0; client < 50_000; client++) {
+            for (int id = 1; id <= 3; id++) {
+                histories.add("client-" + client, store.get((client + id) % 10 + 1));
+            }
+        }
+
+        // Вытеснение освобождает запас в шестнадцатую часть бюджета; клиент расходует три записи и служебные
+        int clientSize = 3 + PartitionedHistoryStore.DEFAULT_CLIENT_OVERHEAD;
+        assertTrue(histories.getClientCount() >= (100_000 - 100_000 / 16) / clientSize);
+        assertTrue(histories.getClientCount() <= 100_000 / clientSize);
+        assertEquals(clientSize * histories.getClientCount(), histories.getTotalSize());
+        assertTrue(histories.getHistory("client-0").isEmpty(), "Самые давние клиенты должны быть вытеснены");
+        assertEquals(3, histories.getHistory("client-49999").size());
+    }
+
+    @Test
+    @DisplayName("Служебные расходы клиентов должны ограничивать число историй из одной записи")
+    void add_ManyOneEntryClients_ShouldKeepClientCountBounded() {
+        PartitionedHistoryStore histories = new PartitionedHistoryStore(10, 10_000, store::get);
+        for (int client = 0; client < 100_000; client++) {
+            histories.add("client-" + client, store.get(client % 10 + 1));
+        }
+
+        int clientSize = 1 + PartitionedHistoryStore.DEFAULT_CLIENT_OVERHEAD;
+        assertTrue(histories.getClientCount() <= 10_000 / clientSize,
+                "Число клиентов не должно превышать бюджет с учетом служебных расходов");
+        assertEquals(clientSize * histories.getClientCount(), histories.getTotalSize());
+        assertEquals(1, histories.getHistory("client-99999").size());
+    }
+
+    @Test
+    @DisplayName("Параллельные обращения клиентов должны сохранять общий размер согласованным с историями")
+    void add_FromManyThreads_ShouldKeepTotalSizeConsistent() throws Exception {
+        PartitionedHistoryStore histories = new PartitionedHistoryStore(5, 1_000, store::get);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        String clientId = "client-" + (i * 4 + offset) % 2_000;
+                        histories.add(clientId, store.get(i % 10 + 1));
+                        histories.getHistory(clientId);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(histories.getTotalSize() <= 1_000);
+        int sum = PartitionedHistoryStore.DEFAULT_CLIENT_OVERHEAD * histories.getClientCount();
+        for (int client = 0; client < 2_000; client++) {
+            sum += histories.getHistory("client-" + client).size();
+        }
+        assertEquals(sum, histories.getTotalSize(), "Общий размер должен совпадать с суммой размеров историй");
+    }
+
+    @Test
+    @DisplayName("Размеры историй должны быть положительными и согласованными")
+    void constructor_WithInvalidSizes_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedHistoryStore(0, 10, store::get));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedHistoryStore(20, 10, store::get));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedHistoryStore(5, -1, 10, store::get));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedHistoryStore(5, 6, 10, store::get));
+    }
+}
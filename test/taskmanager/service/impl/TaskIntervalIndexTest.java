@@ -0,0 +1,156 @@
+package taskmanager.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import taskmanager.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для индекса временных интервалов TaskIntervalIndex
+ */
+class TaskIntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    private TaskIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TaskIntervalIndex();
+    }
+
+    private Task timedTask(int id, LocalDateTime start, long minutes) {
+        Task task = new Task("Task " + id, "Description " + id);
+        task.setId(id);
+        task.setStartTime(start);
+        task.setDuration(Duration.ofMinutes(minutes));
+        return task;
+    }
+
+    @Test
+    @DisplayName("Пересекающийся интервал должен быть найден")
+    void overlaps_WithIntersectingInterval_ShouldReturnTrue() {
+        index.put(timedTask(1, START, 30));
+
+        assertTrue(index.overlaps(START.plusMinutes(15), START.plusMinutes(45), 2));
+        assertTrue(index.overlaps(START.minusMinutes(15), START.plusMinutes(1), 2));
+    }
+
+    @Test
+    @DisplayName("Смежные интервалы не должны считаться пересекающимися")
+    void overlaps_WithAdjacentInterval_ShouldReturnFalse() {
+        index.put(timedTask(1, START, 30));
+
+        assertFalse(index.overlaps(START.plusMinutes(30), START.plusMinutes(60), 2));
+        assertFalse(index.overlaps(START.minusMinutes(30), START, 2));
+    }
+
+    @Test
+    @DisplayName("Интервал задачи с исключенным ID не должен учитываться")
+    void overlaps_WithExcludedId_ShouldIgnoreOwnInterval() {
+        index.put(timedTask(1, START, 30));
+
+        assertFalse(index.overlaps(START, START.plusMinutes(30), 1));
+    }
+
+    @Test
+    @DisplayName("Длинный интервал в левом поддереве должен находиться по максимальному времени окончания")
+    void overlaps_WithLongEarlierInterval_ShouldReturnTrue() {
+        index.put(timedTask(1, START, 24 * 60));
+        for (int i = 2; i < 200; i++) {
+            index.put(timedTask(i, START.plusDays(i), 10));
+        }
+
+        assertTrue(index.overlaps(START.plusHours(12), START.plusHours(13), 0));
+        assertFalse(index.overlaps(START.plusDays(1), START.plusDays(1).plusHours(1), 0));
+    }
+
+    @Test
+    @DisplayName("Удаленная задача не должна участвовать в проверке пересечений")
+    void remove_ExistingTask_ShouldRemoveInterval() {
+        index.put(timedTask(1, START, 30));
+        index.remove(1);
+
+        assertEquals(0, index.size());
+        assertFalse(index.overlaps(START, START.plusMinutes(30), 0));
+    }
+
+    @Test
+    @DisplayName("Повторное добавление задачи должно перемещать ее интервал, даже если объект изменен на месте")
+    void put_WithMutatedTask_ShouldRepositionInterval() {
+        Task task = timedTask(1, START, 30);
+        index.put(task);
+
+        task.setStartTime(START.plusHours(2));
+        index.put(task);
+
+        assertEquals(1, index.size());
+        assertFalse(index.overlaps(START, START.plusMinutes(30), 0));
+        assertTrue(index.overlaps(START.plusHours(2), START.plusHours(3), 0));
+    }
+
+    @Test
+    @DisplayName("Задача без времени начала не должна попадать в индекс")
+    void put_TaskWithoutStartTime_ShouldBeIgnored() {
+        Task task = new Task("Task", "Description");
+        task.setId(1);
+        index.put(task);
+
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("Задачи с одинаковым временем начала должны сохраняться все и упорядочиваться по id")
+    void toList_WithEqualStartTimes_ShouldKeepAllOrderedById() {
+        index.put(timedTask(3, START, 0));
+        index.put(timedTask(1, START, 0));
+        index.put(timedTask(2, START, 0));
+        index.put(timedTask(4, START.minusHours(1), 10));
+
+        List<Task> tasks = index.toList();
+
+        assertEquals(4, tasks.size());
+        assertEquals(List.of(4, 1, 2, 3), tasks.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Выборка должна продолжаться строго после позиции (время начала, id) и останавливаться до to")
+    void range_AfterPosition_ShouldReturnFollowingTasks() {
+        index.put(timedTask(1, START, 0));
+        index.put(timedTask(2, START, 0));
+        index.put(timedTask(3, START.plusHours(1), 10));
+        index.put(timedTask(4, START.plusHours(2), 10));
+
+        assertEquals(List.of(2, 3), index.range(START, 1, START.plusHours(2), 10).stream()
+                .map(Task::getId).toList());
+        assertEquals(List.of(1, 2), index.range(START, Integer.MIN_VALUE, null, 2).stream()
+                .map(Task::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Выборка из снимка должна совпадать с выборкой из дерева и не зависеть от его изменений")
+    void snapshotRange_ShouldMatchTreeRangeAndIgnoreLaterChanges() {
+        index.put(timedTask(1, START, 0));
+        index.put(timedTask(2, START, 0));
+        index.put(timedTask(3, START.plusHours(1), 10));
+        index.put(timedTask(4, START.plusHours(2), 10));
+
+        TaskIntervalIndex.Snapshot snapshot = index.toList();
+        index.remove(2);
+        index.put(timedTask(5, START.plusMinutes(30), 10));
+
+        assertEquals(List.of(2, 3), snapshot.range(START, 1, START.plusHours(2), 10).stream()
+                .map(Task::getId).toList());
+        assertEquals(List.of(1, 2), snapshot.range(START, Integer.MIN_VALUE, null, 2).stream()
+                .map(Task::getId).toList());
+        assertEquals(List.of(1, 2, 3, 4), snapshot.range(null, 0, null, 10).stream()
+                .map(Task::getId).toList());
+        assertEquals(List.of(), snapshot.range(START.plusHours(2), 4, null, 10));
+        assertEquals(index.range(START, 1, null, 10), index.toList().range(START, 1, null, 10));
+    }
+}
@@ -0,0 +1,223 @@
+package taskmanager.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import taskmanager.exceptions.ManagerSaveException;
+import taskmanager.model.Task;
+import taskmanager.service.TaskManagerTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для WriteBehindTaskManager
+ */
+class WriteBehindTaskManagerTest extends TaskManagerTest<WriteBehindTaskManager> {
+    // Интервал больше времени теста, чтобы запись происходила только по барьеру или по счетчику
+    private static final long LONG_FLUSH_INTERVAL_MILLIS = 60_000;
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+
+    /**
+     * Создает экземпляр WriteBehindTaskManager для тестирования
+     * @return экземпляр WriteBehindTaskManager
+     */
+    @Override
+    protected WriteBehindTaskManager createTaskManager() {
+        file = tempDir.resolve("tasks.csv").toFile();
+        return new WriteBehindTaskManager(file, LONG_FLUSH_INTERVAL_MILLIS, 1000,
+                WriteBehindTaskManager.DurabilityPolicy.ASYNC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskManager.close();
+    }
+
+    @Test
+    @DisplayName("Изменение не должно записываться в файл до барьера")
+    void createTask_WithAsyncPolicy_ShouldNotWriteImmediately() {
+        taskManager.createTask(new Task("Test Task", "Test Description"));
+
+        assertFalse(file.exists(), "Файл не должен быть записан сразу после изменения");
+    }
+
+    @Test
+    @DisplayName("Барьер должен дожидаться записи всех предыдущих изменений")
+    void awaitFlush_AfterMutations_ShouldWriteAllChanges() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            taskManager.createTask(new Task("Task " + i, "Description " + i));
+        }
+
+        taskManager.awaitFlush();
+
+        String content = Files.readString(file.toPath());
+        assertTrue(content.contains("Task 0") && content.contains("Task 9"), "Файл должен содержать все задачи");
+        assertEquals(10, FileBackedTaskManager.loadFromFile(file).getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("При политике SYNC изменение должно быть записано к моменту возврата из метода")
+    void createTask_WithSyncPolicy_ShouldBeDurableOnReturn() {
+        File syncFile = tempDir.resolve("sync.csv").toFile();
+        try (WriteBehindTaskManager syncManager = new WriteBehindTaskManager(syncFile, 10, 1000,
+                WriteBehindTaskManager.DurabilityPolicy.SYNC)) {
+            syncManager.createTask(new Task("Test Task", "Test Description"));
+
+            assertEquals(1, FileBackedTaskManager.loadFromFile(syncFile).getAllTasks().size(),
+                    "Задача должна быть в файле сразу после возврата из метода");
+        }
+    }
+
+    @Test
+    @DisplayName("Достижение порога изменений должно запускать запись без ожидания интервала")
+    void persist_WhenPendingLimitReached_ShouldFlushEarly() throws InterruptedException {
+        File batchFile = tempDir.resolve("batch.csv").toFile();
+        try (WriteBehindTaskManager batchManager = new WriteBehindTaskManager(batchFile, LONG_FLUSH_INTERVAL_MILLIS,
+                3, WriteBehindTaskManager.DurabilityPolicy.ASYNC)) {
+            for (int i = 0; i < 3; i++) {
+                batchManager.createTask(new Task("Task " + i, "Description " + i));
+            }
+
+            for (int attempt = 0; attempt < 100 && !batchFile.exists(); attempt++) {
+                Thread.sleep(10);
+            }
+            assertTrue(batchFile.exists(), "Файл должен быть записан после достижения порога изменений");
+        }
+    }
+
+    @Test
+    @DisplayName("Закрытие менеджера должно записывать накопленные изменения")
+    void close_WithPendingChanges_ShouldFlush() {
+        taskManager.createTask(new Task("Test Task", "Test Description"));
+
+        taskManager.close();
+
+        assertEquals(1, FileBackedTaskManager.loadFromFile(file).getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Просмотры с идентификатором клиента не должны пересекаться с фоновой записью истории")
+    void getTaskById_WithClientIdDuringFlushes_ShouldKeepHistoryConsistent() throws Exception {
+        File viewFile = tempDir.resolve("views.csv").toFile();
+        try (WriteBehindTaskManager viewManager = new WriteBehindTaskManager(viewFile, 1, 1,
+                WriteBehindTaskManager.DurabilityPolicy.ASYNC)) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Task task = new Task("Task " + i, "Description " + i);
+                viewManager.createTask(task);
+                ids.add(task.getId());
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                // Каждое изменение запускает фоновую запись, которая читает общую историю
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        Task task = viewManager.peekTaskById(ids.get(i % ids.size()));
+                        viewManager.updateTask(new Task("Updated " + i, task.getDescription(), task.getId(),
+                                task.getStatus()));
+                    }
+                    return null;
+                }));
+                for (int thread = 0; thread < 3; thread++) {
+                    String clientId = thread == 0 ? null : "client-" + thread;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < 2000; i++) {
+                            viewManager.getTaskById(ids.get(i % ids.size()), clientId);
+                            viewManager.getHistory(clientId);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            // Просмотры не запускают запись, поэтому итоговую историю сохраняет последнее изменение
+            viewManager.updateTask(viewManager.peekTaskById(ids.get(0)));
+            viewManager.awaitFlush();
+            List<Task> history = viewManager.getHistory();
+            assertEquals(ids.size(), history.size(), "Общая история должна содержать каждую задачу один раз");
+            assertEquals(ids.size(), viewManager.getHistory("client-1").size());
+            assertEquals(history, FileBackedTaskManager.loadFromFile(viewFile).getHistory(),
+                    "Записанная история должна совпадать с историей в памяти");
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка формирования снимка должна передаваться ожидающему и не останавливать периодическую запись")
+    void flushPending_WhenEncodingFails_ShouldReportFailureAndKeepFlushing() throws Exception {
+        File failingFile = tempDir.resolve("failing.csv").toFile();
+        try (FailingEncodeManager failingManager = new FailingEncodeManager(failingFile)) {
+            failingManager.failEncode = true;
+            failingManager.createTask(new Task("First Task", "Test Description"));
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> barrier = executor.submit(failingManager::awaitFlush);
+                ExecutionException failure = assertThrows(ExecutionException.class,
+                        () -> barrier.get(10, TimeUnit.SECONDS));
+                assertTrue(failure.getCause() instanceof ManagerSaveException, "Ожидающий должен получить ошибку записи");
+            } finally {
+                // Прерываем барьер, если он так и не дождался ошибки
+                executor.shutdownNow();
+            }
+
+            failingManager.failEncode = false;
+            failingManager.createTask(new Task("Second Task", "Test Description"));
+            for (int attempt = 0; attempt < 200 && !failingFile.exists(); attempt++) {
+                Thread.sleep(10);
+            }
+            assertTrue(failingFile.exists(), "Периодическая запись должна продолжаться после ошибки");
+        }
+    }
+
+    // Менеджер, формирование снимка которого можно заставить завершиться ошибкой
+    private static class FailingEncodeManager extends WriteBehindTaskManager {
+        volatile boolean failEncode;
+
+        FailingEncodeManager(File file) {
+            super(file, 20, 1000, DurabilityPolicy.ASYNC);
+        }
+
+        @Override
+        protected byte[] encodeSnapshot() {
+            if (failEncode) {
+                throw new IllegalStateException("Сбой формирования снимка");
+            }
+            return super.encodeSnapshot();
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка записи должна передаваться ожидающему барьера")
+    void awaitFlush_WithInvalidFile_ShouldThrowManagerSaveException() {
+        WriteBehindTaskManager invalidManager = new WriteBehindTaskManager(new File("/invalid/path/tasks.csv"),
+                LONG_FLUSH_INTERVAL_MILLIS, 1000, WriteBehindTaskManager.DurabilityPolicy.ASYNC);
+        invalidManager.createTask(new Task("Test Task", "Test Description"));
+
+        assertThrows(ManagerSaveException.class, invalidManager::awaitFlush);
+        assertThrows(ManagerSaveException.class, invalidManager::close);
+    }
+}